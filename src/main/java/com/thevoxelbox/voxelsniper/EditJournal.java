@@ -0,0 +1,632 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper;
+
+import com.thevoxelbox.voxelsniper.util.LongHashSet;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * An append only journal of the edits made by all snipers which allows the
+ * recent undo history to be rebuilt after a crash or restart.
+ *
+ * <p>Records are written by a background thread which appends everything
+ * queued since its last write at once and then syncs the file, so the main
+ * thread never waits on the disk. Each record is framed by its length and a
+ * checksum so that a record which was only partially written when the
+ * server went down is ignored when reading the journal back.</p>
+ *
+ * <p>Edits removed from a history by a rollback or to stay within the memory
+ * budget are journaled as dropped, edits which were rolled back in part are
+ * journaled with the chunks that were trimmed from them. Once the journal
+ * grows past {@link VoxelSniperConfiguration#EDIT_JOURNAL_COMPACT_MB} it is
+ * rewritten to the edits still in the histories.</p>
+ *
+ * <p>Compaction and recovery replay the journal while keeping only the
+ * position of each edit record, the edits still in the histories are then
+ * copied over to the compacted journal straight from the old one.</p>
+ *
+ * <p>An edit is journaled as a single record rather than one record per
+ * block. The record holds the sniper, brush and time once, followed by the
+ * changed blocks section by section with their old and new state ids in the
+ * format {@link Undo} uses to move its blocks to disk, compressed as a
+ * whole. This keeps the position and both states of every block while
+ * sparing a frame and checksum for each of them, and lets recovery read an
+ * edit back as the undo it was. Only the changed blocks of an edit are
+ * journaled, tile entity data, biomes and removed entities are lost on
+ * recovery, undoing a recovered edit which had any of them restores its
+ * blocks only.</p>
+ */
+public class EditJournal {
+
+    private static final EditJournal instance = new EditJournal();
+
+    static final byte TYPE_EDIT = 0;
+    static final byte TYPE_UNDO = 1;
+    static final byte TYPE_REDO = 2;
+    static final byte TYPE_DROP = 3;
+    static final byte TYPE_TRIM = 4;
+    // the type, time and player precede the id of edit, drop and trim records
+    private static final int ID_OFFSET = 25;
+    // the length and checksum precede the body of every record
+    private static final int FRAME_HEADER = 12;
+
+    private static final Record CLOSE = (out) -> {
+    };
+
+    public static EditJournal get() {
+        return instance;
+    }
+
+    private final BlockingQueue<Record> pending = Queues.newLinkedBlockingQueue();
+    private final Map<UUID, Deque<byte[]>> recovered = Maps.newHashMap();
+    private ListMultimap<Long, byte[]> recoveredTrims = ArrayListMultimap.create();
+    private final AtomicLong nextId = new AtomicLong();
+    private Path file;
+    private FileChannel channel;
+    private long compactedSize;
+    private Thread writer;
+
+    private EditJournal() {
+
+    }
+
+    /**
+     * Reads the journal in the given directory, keeping the most recent edits
+     * of each sniper for {@link #recover(Sniper)}, and starts appending to
+     * it. The journal is compacted to those edits in the process.
+     */
+    public void open(Path dir) {
+        this.file = dir.resolve("edits.journal");
+        try {
+            Files.createDirectories(dir);
+            History history = new History();
+            if (Files.exists(this.file) && history.read(this.file)) {
+                VoxelSniper.getLogger().warn("Found a damaged record in the edit journal, ignoring the remaining records");
+            }
+            this.nextId.set(history.lastId + 1);
+            // redos can not be recovered so they are not kept either
+            rewrite(history, false);
+            this.recoveredTrims = history.trims;
+            try (FileChannel in = FileChannel.open(this.file, StandardOpenOption.READ)) {
+                for (Map.Entry<UUID, Deque<History.Edit>> entry : history.undos.entrySet()) {
+                    // recover oldest first so the most recent edit ends up on top
+                    Deque<byte[]> edits = Queues.newArrayDeque();
+                    Iterator<History.Edit> oldest = entry.getValue().descendingIterator();
+                    while (oldest.hasNext()) {
+                        edits.add(oldest.next().read(in));
+                    }
+                    if (!edits.isEmpty()) {
+                        this.recovered.put(entry.getKey(), edits);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            VoxelSniper.getLogger().error("Error opening edit journal " + this.file + ", edits will not be journaled", e);
+            return;
+        }
+        this.writer = new Thread(this::run, "VoxelSniper Journal Writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Writes any queued records and closes the journal.
+     */
+    public void close() {
+        if (this.writer == null) {
+            return;
+        }
+        this.pending.add(CLOSE);
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.writer = null;
+        if (this.channel == null) {
+            return;
+        }
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            VoxelSniper.getLogger().error("Error closing edit journal", e);
+        }
+        this.channel = null;
+    }
+
+    /**
+     * Journals an edit which was just added to the undo history of the given
+     * sniper.
+     */
+    public void logEdit(Sniper sniper, String brush, Undo undo) {
+        if (this.writer == null) {
+            return;
+        }
+        UUID player = sniper.getPlayerId();
+        long time = System.currentTimeMillis();
+        long id = this.nextId.getAndIncrement();
+        boolean partial = undo.hasUnserializedData();
+        // only takes the palette and the list of sections, encoding and
+        // compressing the blocks is left to the writer
+        Undo.Serializer serializer = undo.serializer();
+        undo.setJournalId(id);
+        this.pending.add((out) -> {
+            out.writeByte(TYPE_EDIT);
+            writeHeader(out, time, player);
+            out.writeLong(id);
+            out.writeBoolean(partial);
+            out.writeUTF(brush == null ? "" : brush);
+            // the undo data is written last and compressed as a whole
+            DeflaterOutputStream deflater = new DeflaterOutputStream(out);
+            serializer.write(new DataOutputStream(deflater));
+            deflater.finish();
+        });
+    }
+
+    /**
+     * Journals that the given number of edits were undone by the given
+     * sniper.
+     */
+    public void logUndo(Sniper sniper, int count) {
+        logHistory(TYPE_UNDO, sniper, count);
+    }
+
+    /**
+     * Journals that the given number of edits were redone by the given
+     * sniper.
+     */
+    public void logRedo(Sniper sniper, int count) {
+        logHistory(TYPE_REDO, sniper, count);
+    }
+
+    /**
+     * Journals that the given edit was removed from the history of the given
+     * sniper without being undone.
+     */
+    public void logDrop(Sniper sniper, Undo undo) {
+        long id = undo.getJournalId();
+        if (this.writer == null || id < 0) {
+            return;
+        }
+        UUID player = sniper.getPlayerId();
+        long time = System.currentTimeMillis();
+        this.pending.add((out) -> {
+            out.writeByte(TYPE_DROP);
+            writeHeader(out, time, player);
+            out.writeLong(id);
+        });
+    }
+
+    /**
+     * Journals that the blocks of the given edit within the given chunks were
+     * rolled back while the rest of it stays in the history.
+     */
+    public void logTrim(Sniper sniper, Undo undo, long[] chunks) {
+        long id = undo.getJournalId();
+        if (this.writer == null || id < 0 || chunks.length == 0) {
+            return;
+        }
+        UUID player = sniper.getPlayerId();
+        long time = System.currentTimeMillis();
+        this.pending.add((out) -> {
+            out.writeByte(TYPE_TRIM);
+            writeHeader(out, time, player);
+            out.writeLong(id);
+            out.writeInt(chunks.length);
+            for (long chunk : chunks) {
+                out.writeLong(chunk);
+            }
+        });
+    }
+
+    private void logHistory(byte type, Sniper sniper, int count) {
+        if (this.writer == null || count <= 0) {
+            return;
+        }
+        UUID player = sniper.getPlayerId();
+        long time = System.currentTimeMillis();
+        this.pending.add((out) -> writeHistory(out, type, time, player, count));
+    }
+
+    /**
+     * Restores the edits of the given sniper which were read from the journal
+     * when it was opened into its undo history.
+     */
+    public void recover(Sniper sniper) {
+        Deque<byte[]> edits = this.recovered.remove(sniper.getPlayerId());
+        if (edits == null) {
+            return;
+        }
+        int partial = 0;
+        for (byte[] body : edits) {
+            try {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+                in.readByte();
+                long time = in.readLong();
+                in.readLong();
+                in.readLong();
+                long id = in.readLong();
+                if (in.readBoolean()) {
+                    partial++;
+                }
+                in.readUTF();
+                Undo undo = Undo.read(new DataInputStream(new BufferedInputStream(new InflaterInputStream(in))));
+                undo.setTimestamp(time);
+                undo.setJournalId(id);
+                for (byte[] trim : this.recoveredTrims.removeAll(id)) {
+                    undo.trim(readTrimmedChunks(trim)::contains);
+                }
+                sniper.recoverUndo(undo);
+            } catch (IOException e) {
+                VoxelSniper.getLogger().error("Error recovering journaled edit of " + sniper.getPlayerId(), e);
+            }
+        }
+        if (partial > 0) {
+            VoxelSniper.getLogger().warn("Recovered " + partial + " edits of " + sniper.getPlayerId()
+                    + " without their tile entity, biome and entity changes, undoing them restores their blocks only");
+        }
+    }
+
+    private static LongHashSet readTrimmedChunks(byte[] trim) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(trim));
+        in.skipBytes(ID_OFFSET + 8);
+        int count = in.readInt();
+        LongHashSet chunks = new LongHashSet(count);
+        for (int i = 0; i < count; i++) {
+            chunks.add(in.readLong());
+        }
+        return chunks;
+    }
+
+    private static void writeHeader(DataOutputStream out, long time, UUID player) throws IOException {
+        out.writeLong(time);
+        out.writeLong(player.getMostSignificantBits());
+        out.writeLong(player.getLeastSignificantBits());
+    }
+
+    private static void writeHistory(DataOutputStream out, byte type, long time, UUID player, int count) throws IOException {
+        out.writeByte(type);
+        writeHeader(out, time, player);
+        out.writeInt(count);
+    }
+
+    /**
+     * Replaces the journal with the records needed to describe the given
+     * history, which was read from it.
+     */
+    private void rewrite(History history, boolean withRedos) throws IOException {
+        Path compacted = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        try (FileChannel in = Files.exists(this.file) ? FileChannel.open(this.file, StandardOpenOption.READ) : null;
+                FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            history.write(in, out, withRedos);
+            out.force(true);
+        }
+        Files.move(compacted, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.channel = FileChannel.open(this.file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.compactedSize = this.channel.size();
+    }
+
+    /**
+     * Rewrites the journal to the edits still in the histories once it has
+     * grown past the configured size, and to at least twice its size after
+     * the last compaction so that a large history is not rewritten after
+     * every record.
+     */
+    private void compactIfNeeded() {
+        try {
+            long size = this.channel.size();
+            if (size < VoxelSniperConfiguration.EDIT_JOURNAL_COMPACT_MB * 1024L * 1024L || size < this.compactedSize * 2) {
+                return;
+            }
+            this.channel.close();
+        } catch (IOException e) {
+            VoxelSniper.getLogger().error("Error checking the size of the edit journal", e);
+            return;
+        }
+        try {
+            History history = new History();
+            if (history.read(this.file)) {
+                VoxelSniper.getLogger().warn("Found a damaged record in the edit journal, dropping the remaining records");
+            }
+            rewrite(history, true);
+        } catch (IOException e) {
+            VoxelSniper.getLogger().error("Error compacting edit journal", e);
+            try {
+                // the journal is left as it was if the rewrite failed
+                this.channel = FileChannel.open(this.file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                this.compactedSize = this.channel.size();
+            } catch (IOException e2) {
+                VoxelSniper.getLogger().error("Error reopening edit journal, edits will no longer be journaled", e2);
+                this.channel = null;
+            }
+        }
+    }
+
+    static byte[] frame(byte[] body) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length + 12);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(body.length);
+        out.writeLong(crc.getValue());
+        out.write(body);
+        return bytes.toByteArray();
+    }
+
+    private void run() {
+        List<Record> batch = Lists.newArrayList();
+        boolean closed = false;
+        while (!closed) {
+            try {
+                batch.add(this.pending.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            // group everything queued in the meantime into a single write
+            // and sync
+            this.pending.drainTo(batch);
+            ByteArrayOutputStream frames = new ByteArrayOutputStream();
+            for (Record record : batch) {
+                if (record == CLOSE) {
+                    closed = true;
+                    continue;
+                }
+                try {
+                    ByteArrayOutputStream body = new ByteArrayOutputStream();
+                    DataOutputStream out = new DataOutputStream(body);
+                    record.write(out);
+                    out.flush();
+                    frames.write(frame(body.toByteArray()));
+                } catch (IOException | RuntimeException e) {
+                    VoxelSniper.getLogger().error("Error serializing edit journal record", e);
+                }
+            }
+            batch.clear();
+            if (this.channel == null) {
+                continue;
+            }
+            try {
+                writeFully(this.channel, frames.toByteArray());
+                this.channel.force(false);
+            } catch (IOException e) {
+                VoxelSniper.getLogger().error("Error writing to edit journal", e);
+            }
+            if (!closed) {
+                compactIfNeeded();
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel out, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private interface Record {
+
+        void write(DataOutputStream out) throws IOException;
+
+    }
+
+    /**
+     * The undo and redo stacks of every sniper as described by the records of
+     * a journal, with the most recent edit first. Edits are kept as their
+     * position in the journal rather than read into memory.
+     */
+    static final class History {
+
+        final Map<UUID, Deque<Edit>> undos = Maps.newHashMap();
+        final Map<UUID, Deque<Edit>> redos = Maps.newHashMap();
+        // the trim records of each edit, in the order they were made
+        final ListMultimap<Long, byte[]> trims = ArrayListMultimap.create();
+        long lastId = -1;
+
+        /**
+         * Replays the records of the given journal up to the first one which
+         * was cut off by a crash or is damaged.
+         *
+         * @return Whether a damaged record was found
+         */
+        boolean read(Path file) throws IOException {
+            byte[] buffer = new byte[8192];
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                long position = 0;
+                while (true) {
+                    int length;
+                    byte[] body;
+                    try {
+                        length = in.readInt();
+                        long checksum = in.readLong();
+                        if (length <= 0) {
+                            return true;
+                        }
+                        // only the start of an edit is needed, the rest of it
+                        // is just checked
+                        body = new byte[Math.min(length, ID_OFFSET + 8)];
+                        in.readFully(body);
+                        if (body[0] != TYPE_EDIT && length > body.length) {
+                            int start = body.length;
+                            body = Arrays.copyOf(body, length);
+                            in.readFully(body, start, length - start);
+                        }
+                        CRC32 crc = new CRC32();
+                        crc.update(body);
+                        for (int remaining = length - body.length; remaining > 0;) {
+                            int count = Math.min(remaining, buffer.length);
+                            in.readFully(buffer, 0, count);
+                            crc.update(buffer, 0, count);
+                            remaining -= count;
+                        }
+                        if (crc.getValue() != checksum) {
+                            return true;
+                        }
+                    } catch (EOFException e) {
+                        return false;
+                    }
+                    apply(body, position, length);
+                    position += FRAME_HEADER + length;
+                }
+            }
+        }
+
+        private void apply(byte[] body, long position, int length) throws IOException {
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+            byte type = record.readByte();
+            record.readLong();
+            UUID player = new UUID(record.readLong(), record.readLong());
+            Deque<Edit> undos = this.undos.computeIfAbsent(player, (k) -> Queues.newArrayDeque());
+            Deque<Edit> redo = this.redos.computeIfAbsent(player, (k) -> Queues.newArrayDeque());
+            if (type == TYPE_EDIT) {
+                long id = record.readLong();
+                this.lastId = Math.max(this.lastId, id);
+                undos.push(new Edit(id, position, length));
+                redo.clear();
+                while (undos.size() > VoxelSniperConfiguration.UNDO_CACHE_SIZE) {
+                    undos.pollLast();
+                }
+            } else if (type == TYPE_DROP) {
+                long id = record.readLong();
+                undos.removeIf((edit) -> edit.id == id);
+                redo.removeIf((edit) -> edit.id == id);
+                this.trims.removeAll(id);
+            } else if (type == TYPE_TRIM) {
+                this.trims.put(record.readLong(), body);
+            } else {
+                Deque<Edit> from = type == TYPE_UNDO ? undos : redo;
+                Deque<Edit> to = type == TYPE_UNDO ? redo : undos;
+                for (int count = record.readInt(); count > 0 && !from.isEmpty(); count--) {
+                    to.push(from.pop());
+                }
+            }
+        }
+
+        /**
+         * Writes the records needed to describe this history, copying the
+         * edits from the journal it was read from. The edits then refer to
+         * their position in the new journal.
+         */
+        void write(FileChannel source, FileChannel out, boolean withRedos) throws IOException {
+            for (Map.Entry<UUID, Deque<Edit>> entry : this.undos.entrySet()) {
+                Iterator<Edit> oldest = entry.getValue().descendingIterator();
+                while (oldest.hasNext()) {
+                    write(source, out, oldest.next());
+                }
+                Deque<Edit> redo = this.redos.get(entry.getKey());
+                if (withRedos && redo != null && !redo.isEmpty()) {
+                    // the redo stack is rebuilt by adding its edits with the
+                    // most recently undone one first and undoing them again
+                    for (Edit edit : redo) {
+                        write(source, out, edit);
+                    }
+                    ByteArrayOutputStream undo = new ByteArrayOutputStream();
+                    writeHistory(new DataOutputStream(undo), TYPE_UNDO, System.currentTimeMillis(), entry.getKey(), redo.size());
+                    writeFully(out, frame(undo.toByteArray()));
+                }
+            }
+        }
+
+        private void write(FileChannel source, FileChannel out, Edit edit) throws IOException {
+            long start = edit.position;
+            long count = FRAME_HEADER + edit.length;
+            edit.position = out.position();
+            for (long copied = 0; copied < count;) {
+                long transferred = source.transferTo(start + copied, count - copied, out);
+                if (transferred <= 0) {
+                    throw new EOFException("Edit " + edit.id + " was cut off");
+                }
+                copied += transferred;
+            }
+            for (byte[] trim : this.trims.get(edit.id)) {
+                writeFully(out, frame(trim));
+            }
+        }
+
+        /**
+         * An edit record within a journal.
+         */
+        static final class Edit {
+
+            final long id;
+            // the position of the frame of the record
+            long position;
+            final int length;
+
+            Edit(long id, long position, int length) {
+                this.id = id;
+                this.position = position;
+                this.length = length;
+            }
+
+            /**
+             * Reads the body of the record from the given journal.
+             */
+            byte[] read(FileChannel in) throws IOException {
+                ByteBuffer body = ByteBuffer.allocate(this.length);
+                while (body.hasRemaining()) {
+                    if (in.read(body, this.position + FRAME_HEADER + body.position()) < 0) {
+                        throw new EOFException("Edit " + this.id + " was cut off");
+                    }
+                }
+                return body.array();
+            }
+
+        }
+
+    }
+
+}
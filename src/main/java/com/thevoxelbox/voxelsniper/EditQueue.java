@@ -0,0 +1,268 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper;
+
+import com.thevoxelbox.voxelsniper.util.LongHashSet;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Queues;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.entity.living.player.Player;
+import org.spongepowered.api.scheduler.Task;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.format.TextColors;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+
+/**
+ * Applies large {@link EditSession}s to the world over several server ticks,
+ * spending at most {@link VoxelSniperConfiguration#APPLY_TICK_BUDGET_MS} per
+ * tick.
+ */
+public class EditQueue {
+
+    private static final EditQueue instance = new EditQueue();
+    private static final long PROGRESS_INTERVAL = TimeUnit.SECONDS.toNanos(2);
+
+    public static EditQueue get() {
+        return instance;
+    }
+
+    private final Deque<PendingEdit> queue = Queues.newArrayDeque();
+    private final Multiset<Sniper> computing = HashMultiset.create();
+    private final Multiset<UUID> computingWorlds = HashMultiset.create();
+    private Task task;
+
+    private EditQueue() {
+
+    }
+
+    /**
+     * Queues the given session to be applied over the next ticks.
+     *
+     * @param sniper The sniper which made the changes
+     * @param session The session to apply
+     */
+    public void submit(Sniper sniper, EditSession session) {
+        submit(sniper, ImmutableList.of(session), null);
+    }
+
+    /**
+     * Queues the given sessions to be applied one after the other over the
+     * next ticks.
+     *
+     * @param sniper The sniper which made the changes
+     * @param sessions The sessions to apply, in order
+     * @param onComplete Called once all sessions have been applied or
+     *        applying them failed, may be null
+     */
+    public void submit(Sniper sniper, List<EditSession> sessions, Runnable onComplete) {
+        PendingEdit edit = new PendingEdit(sniper, sessions, onComplete);
+        this.queue.add(edit);
+        sendMessage(sniper.getPlayerId(), Text.of(TextColors.GREEN, "Applying ", TextColors.RED, edit.total, TextColors.GREEN,
+                " block changes over the next few seconds."));
+        if (this.task == null) {
+            this.task = Sponge.getScheduler().createTaskBuilder().name("VoxelSniper edit queue").intervalTicks(1).execute(this::tick)
+                    .submit(VoxelSniper.getInstance());
+        }
+    }
+
+    /**
+     * Marks that the given sniper is computing changes to the given world off
+     * the main thread which have yet to be committed.
+     */
+    public void startComputation(Sniper sniper, UUID worldId) {
+        this.computing.add(sniper);
+        this.computingWorlds.add(worldId);
+    }
+
+    /**
+     * Marks that a computation started by
+     * {@link #startComputation(Sniper, UUID)} has finished.
+     */
+    public void finishComputation(Sniper sniper, UUID worldId) {
+        this.computing.remove(sniper);
+        this.computingWorlds.remove(worldId);
+    }
+
+    /**
+     * Gets whether the given sniper has edits which are still being computed
+     * or applied.
+     */
+    public boolean isBusy(Sniper sniper) {
+        if (this.computing.contains(sniper)) {
+            return true;
+        }
+        for (PendingEdit edit : this.queue) {
+            if (edit.sniper == sniper) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets whether any sniper has edits within the given chunks of a world
+     * which are still being computed or applied. The area of an edit which is
+     * being computed is only known once it is committed, so it is taken to
+     * cover the whole world until then.
+     *
+     * @param worldId The world to check
+     * @param chunks A filter on the chunk keys to check, in the format of
+     *        {@link EditSession#chunkKey(int, int)}
+     */
+    public boolean isBusy(UUID worldId, LongPredicate chunks) {
+        if (this.computingWorlds.contains(worldId)) {
+            return true;
+        }
+        boolean[] busy = new boolean[1];
+        for (PendingEdit edit : this.queue) {
+            if (worldId.equals(edit.worldId)) {
+                edit.chunks.forEach((chunk) -> busy[0] |= chunks.test(chunk));
+                if (busy[0]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void tick() {
+        long budget = TimeUnit.MILLISECONDS.toNanos(VoxelSniperConfiguration.APPLY_TICK_BUDGET_MS);
+        long start = System.nanoTime();
+        while (!this.queue.isEmpty()) {
+            long remaining = budget - (System.nanoTime() - start);
+            if (remaining <= 0) {
+                break;
+            }
+            PendingEdit edit = this.queue.peek();
+            boolean done;
+            try {
+                done = edit.flush(remaining);
+            } catch (Exception e) {
+                VoxelSniper.getLogger().error("Error applying queued edit, dropping the remaining changes", e);
+                sendMessage(edit.sniper.getPlayerId(), Text.of(TextColors.DARK_RED, "Error applying edit, see console for details."));
+                this.queue.poll();
+                // the callback still has to run so that undos which were
+                // partially restored are finished and leave their history
+                complete(edit);
+                continue;
+            }
+            if (done) {
+                this.queue.poll();
+                complete(edit);
+                sendMessage(edit.sniper.getPlayerId(),
+                        Text.of(TextColors.GREEN, "Edit complete: ", TextColors.RED, edit.total, TextColors.GREEN, " blocks have been changed."));
+            } else {
+                edit.reportProgress();
+            }
+        }
+        if (this.queue.isEmpty()) {
+            this.task.cancel();
+            this.task = null;
+        }
+    }
+
+    private static void complete(PendingEdit edit) {
+        if (edit.onComplete == null) {
+            return;
+        }
+        try {
+            edit.onComplete.run();
+        } catch (Exception e) {
+            VoxelSniper.getLogger().error("Error completing queued edit", e);
+        }
+    }
+
+    /**
+     * Sends a message to the given player if they are still online.
+     */
+    public static void sendMessage(UUID playerId, Text message) {
+        Optional<Player> player = Sponge.getServer().getPlayer(playerId);
+        if (player.isPresent()) {
+            player.get().sendMessage(message);
+        }
+    }
+
+    private static final class PendingEdit {
+
+        final Sniper sniper;
+        final UUID worldId;
+        // the chunks changed by the sessions, including those already written
+        final LongHashSet chunks = new LongHashSet();
+        final Deque<EditSession> sessions;
+        final Runnable onComplete;
+        final int total;
+        int remaining;
+        long lastReport = System.nanoTime();
+
+        PendingEdit(Sniper sniper, List<EditSession> sessions, Runnable onComplete) {
+            this.sniper = sniper;
+            this.sessions = Queues.newArrayDeque(sessions);
+            this.onComplete = onComplete;
+            int total = 0;
+            for (EditSession session : sessions) {
+                total += session.getChangeCount();
+                session.collectChunkKeys(this.chunks);
+            }
+            this.worldId = sessions.isEmpty() ? null : sessions.get(0).getWorld().getUniqueId();
+            this.total = total;
+            this.remaining = total;
+        }
+
+        boolean flush(long timeout) {
+            long start = System.nanoTime();
+            while (!this.sessions.isEmpty()) {
+                EditSession session = this.sessions.peek();
+                int before = session.getChangeCount();
+                boolean done = session.flush(timeout - (System.nanoTime() - start));
+                this.remaining -= before - session.getChangeCount();
+                if (!done) {
+                    return false;
+                }
+                this.sessions.poll();
+            }
+            return true;
+        }
+
+        void reportProgress() {
+            long now = System.nanoTime();
+            if (now - this.lastReport < PROGRESS_INTERVAL) {
+                return;
+            }
+            this.lastReport = now;
+            int done = this.total - this.remaining;
+            sendMessage(this.sniper.getPlayerId(), Text.of(TextColors.GREEN, "Applying edit: ", TextColors.RED, (done * 100L / this.total) + "%",
+                    TextColors.GREEN, " (" + done + " of " + this.total + " blocks)"));
+        }
+    }
+}
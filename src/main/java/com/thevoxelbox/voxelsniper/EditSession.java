@@ -0,0 +1,439 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper;
+
+import com.thevoxelbox.voxelsniper.util.BlockAccessor;
+import com.thevoxelbox.voxelsniper.util.LongHashSet;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockType;
+import org.spongepowered.api.event.cause.Cause;
+import org.spongepowered.api.world.BlockChangeFlag;
+import org.spongepowered.api.world.Chunk;
+import org.spongepowered.api.world.World;
+import org.spongepowered.api.world.extent.Extent;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+
+/**
+ * Collects the block changes of a snipe and writes them to the world grouped
+ * by chunk section rather than one world lookup per block.
+ *
+ * <p>When neighbor updates are deferred all changes are first written
+ * without any updates, followed by a second pass over each section which
+ * schedules block updates around the surface of the edit. The Sponge API
+ * offers no way to notify neighbors or relight without setting a block, so
+ * the scheduled updates stand in for the neighbor notifications and block
+ * physics, while lighting is still updated by the server on every write.</p>
+ */
+public class EditSession {
+
+    private static final char EMPTY = Character.MAX_VALUE;
+    private static final BlockChangeFlag[] FLAGS = BlockChangeFlag.values();
+    private static final int SECTION_VOLUME = 4096;
+    // the bits of the change flags holding the ordinal of the requested flag
+    private static final byte FLAG_MASK = 0x0F;
+    // marks changes which were written without updates by the first pass
+    private static final byte WRITTEN = 0x40;
+    // marks written changes on the surface of the edit which still have to
+    // schedule updates
+    private static final byte SURFACE = 0x20;
+
+    /**
+     * Packs the section coordinates of the given block position into a key
+     * which sorts all sections of a chunk next to each other.
+     */
+    public static long sectionKey(int x, int y, int z) {
+        return ((long) (x >> 4) & 0x3FFFFFF) << 38 | ((long) (z >> 4) & 0x3FFFFFF) << 12 | ((y >> 4) & 0xFFF);
+    }
+
+    /**
+     * Gets the key shared by all sections of the given chunk, which is the
+     * section key with the section y coordinate masked out.
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return sectionKey(chunkX << 4, 0, chunkZ << 4) & ~0xFFFL;
+    }
+
+    /**
+     * Gets the index of the given block position within its chunk section.
+     */
+    public static int sectionIndex(int x, int y, int z) {
+        return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+    }
+
+    private final World world;
+    private final BlockAccessor blocks;
+    private final Cause cause;
+    private final int minY;
+    private final int maxY;
+    private final Map<BlockState, Character> ids = Maps.newHashMap();
+    private final List<BlockState> palette = Lists.newArrayList();
+    private final NavigableMap<Long, Section> sections = Maps.newTreeMap();
+    private Section lastSection;
+    private int changes;
+    private int totalChanges;
+    private boolean deferNeighborUpdates;
+    private boolean writePassDone;
+    // state of the flush in progress
+    private Extent target;
+    private long targetChunk;
+    private int written;
+
+    public EditSession(World world, Cause cause) {
+        this(new BlockAccessor(world), cause);
+    }
+
+    /**
+     * Creates a session which reads the blocks it has no changes for through
+     * the given accessor, which is cleared whenever changes are written.
+     */
+    public EditSession(BlockAccessor blocks, Cause cause) {
+        this.world = blocks.getWorld();
+        this.blocks = blocks;
+        this.cause = cause;
+        this.minY = this.world.getBlockMin().getY();
+        this.maxY = this.world.getBlockMax().getY();
+    }
+
+    public World getWorld() {
+        return this.world;
+    }
+
+    /**
+     * Sets whether neighbor and physics updates should be deferred until all
+     * changes have been written. When enabled every change is written
+     * without updates, then block updates are scheduled once for each
+     * position on the outer surface of the changes and its neighbors, as far
+     * as the requested flags ask for them. Changes which are completely
+     * surrounded by other changes do not cause any updates.
+     */
+    public void setDeferNeighborUpdates(boolean defer) {
+        this.deferNeighborUpdates = defer;
+    }
+
+    /**
+     * Adds the keys of the chunks this session has changes waiting in, in
+     * the format of {@link #chunkKey(int, int)}, to the given set.
+     */
+    public void collectChunkKeys(LongHashSet keys) {
+        for (Long key : this.sections.keySet()) {
+            keys.add(key & ~0xFFFL);
+        }
+    }
+
+    /**
+     * Gets the number of block changes waiting to be flushed.
+     */
+    public int getChangeCount() {
+        return this.changes;
+    }
+
+    /**
+     * Gets the number of block changes queued into this session, including
+     * those which have already been flushed.
+     */
+    public int getTotalChangeCount() {
+        return this.totalChanges;
+    }
+
+    private Section getSection(int x, int y, int z, boolean create) {
+        if (this.lastSection != null && this.lastSection.contains(x, y, z)) {
+            return this.lastSection;
+        }
+        Long key = sectionKey(x, y, z);
+        Section section = this.sections.get(key);
+        if (section == null) {
+            if (!create) {
+                return null;
+            }
+            section = new Section(x & ~15, y & ~15, z & ~15);
+            this.sections.put(key, section);
+        }
+        this.lastSection = section;
+        return section;
+    }
+
+    /**
+     * Gets the block at the given position as it will be once this session
+     * is flushed.
+     */
+    public BlockState getBlock(int x, int y, int z) {
+        Section section = getSection(x, y, z, false);
+        if (section != null) {
+            char id = section.ids[sectionIndex(x, y, z)];
+            if (id != EMPTY) {
+                return this.palette.get(id);
+            }
+        }
+        return this.blocks.getBlock(x, y, z);
+    }
+
+    /**
+     * Gets the type of the block at the given position as it will be once
+     * this session is flushed.
+     */
+    public BlockType getBlockType(int x, int y, int z) {
+        return getBlock(x, y, z).getType();
+    }
+
+    /**
+     * Queues a block change, replacing any change already queued for the
+     * same position.
+     */
+    public void setBlock(int x, int y, int z, BlockState state, BlockChangeFlag flag) {
+        Section section = getSection(x, y, z, true);
+        int index = sectionIndex(x, y, z);
+        byte previous = section.flags[index];
+        if (section.ids[index] == EMPTY || (previous & WRITTEN) != 0) {
+            section.count++;
+            this.changes++;
+            this.totalChanges++;
+        }
+        if ((previous & SURFACE) != 0) {
+            // the updates are scheduled once the new change is written
+            section.surface--;
+        }
+        if (index < section.cursor) {
+            section.cursor = index;
+        }
+        Character id = this.ids.get(state);
+        if (id == null) {
+            id = (char) this.palette.size();
+            this.ids.put(state, id);
+            this.palette.add(state);
+        }
+        section.ids[index] = id;
+        section.flags[index] = (byte) flag.ordinal();
+    }
+
+    /**
+     * Writes all queued changes to the world, one chunk section at a time,
+     * and clears the session.
+     */
+    public void flush() {
+        flush(Long.MAX_VALUE);
+    }
+
+    /**
+     * Writes queued changes to the world until either all changes have been
+     * written or the given time has passed. Changes are written in section
+     * order so a partially flushed session can be resumed by calling this
+     * again.
+     *
+     * @param timeout The time to spend writing, in nanoseconds
+     * @return true if all changes have been written
+     */
+    public boolean flush(long timeout) {
+        long start = System.nanoTime();
+        this.target = null;
+        if (this.changes > 0) {
+            this.blocks.clear();
+        }
+        if (this.deferNeighborUpdates && !this.writePassDone) {
+            // all sections are written before any updates are scheduled, so
+            // that changes on section borders can be enclosed by the changes
+            // of the neighboring sections too
+            for (Section section : this.sections.values()) {
+                if (section.cursor < SECTION_VOLUME && !writeSection(section, SECTION_VOLUME, start, timeout)) {
+                    return false;
+                }
+            }
+            this.writePassDone = true;
+        }
+        // when deferring updates the cursor passes over each section a
+        // second time to schedule the updates of its surface. The sections
+        // are kept until all are done so their changes can still be seen
+        // from the neighboring sections.
+        int end = this.deferNeighborUpdates ? SECTION_VOLUME * 2 : SECTION_VOLUME;
+        for (Section section : this.sections.values()) {
+            if (!writeSection(section, end, start, timeout)) {
+                return false;
+            }
+        }
+        this.sections.clear();
+        this.lastSection = null;
+        this.writePassDone = false;
+        this.target = null;
+        return true;
+    }
+
+    /**
+     * Writes the changes of the given section from its cursor up to the given
+     * end, returning false if the time ran out before.
+     */
+    private boolean writeSection(Section section, int end, long start, long timeout) {
+        // sections are sorted so that we only have to look up each chunk once
+        long chunkKey = sectionKey(section.minX, 0, section.minZ) & ~0xFFFL;
+        if (this.target == null || chunkKey != this.targetChunk) {
+            Optional<Chunk> chunk = this.world.getChunk(section.minX >> 4, 0, section.minZ >> 4);
+            this.target = chunk.isPresent() ? chunk.get() : this.world;
+            this.targetChunk = chunkKey;
+        }
+        char[] ids = section.ids;
+        byte[] flags = section.flags;
+        for (; section.cursor < end && (section.count > 0 || section.surface > 0); section.cursor++) {
+            int i = section.cursor & (SECTION_VOLUME - 1);
+            if (ids[i] == EMPTY) {
+                continue;
+            }
+            int x = section.minX + (i & 15);
+            int y = section.minY + (i >> 8);
+            int z = section.minZ + ((i >> 4) & 15);
+            if (!this.deferNeighborUpdates) {
+                // without deferral there is only a single pass over each
+                // section which writes every change with its own flag
+                this.target.setBlock(x, y, z, this.palette.get(ids[i]), FLAGS[flags[i] & FLAG_MASK], this.cause);
+                ids[i] = EMPTY;
+                section.count--;
+                this.changes--;
+            } else if (section.cursor < SECTION_VOLUME) {
+                if ((flags[i] & WRITTEN) != 0) {
+                    continue;
+                }
+                this.target.setBlock(x, y, z, this.palette.get(ids[i]), BlockChangeFlag.NONE, this.cause);
+                if (flags[i] != BlockChangeFlag.NONE.ordinal() && !isEnclosed(section, i)) {
+                    flags[i] |= SURFACE;
+                    section.surface++;
+                }
+                // the id is kept so that the neighbors still see this
+                // position as changed
+                flags[i] |= WRITTEN;
+                section.count--;
+                this.changes--;
+            } else {
+                if ((flags[i] & SURFACE) == 0) {
+                    continue;
+                }
+                scheduleUpdates(section, i, FLAGS[flags[i] & FLAG_MASK]);
+                flags[i] &= ~SURFACE;
+                section.surface--;
+            }
+            // checking the time is not free so only do it every few blocks
+            if ((++this.written & 63) == 0 && System.nanoTime() - start >= timeout) {
+                section.cursor++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Schedules the block updates the given flag asks for at a written
+     * change, an update of the block itself for physics and an update of
+     * each unchanged neighbor in place of a neighbor notification.
+     */
+    private void scheduleUpdates(Section section, int i, BlockChangeFlag flag) {
+        int x = i & 15;
+        int y = i >> 8;
+        int z = (i >> 4) & 15;
+        if (flag.performBlockPhysics()) {
+            this.world.addScheduledUpdate(section.minX + x, section.minY + y, section.minZ + z, 0, 1);
+        }
+        if (flag.updateNeighbors()) {
+            scheduleNeighborUpdate(section, x - 1, y, z);
+            scheduleNeighborUpdate(section, x + 1, y, z);
+            scheduleNeighborUpdate(section, x, y - 1, z);
+            scheduleNeighborUpdate(section, x, y + 1, z);
+            scheduleNeighborUpdate(section, x, y, z - 1);
+            scheduleNeighborUpdate(section, x, y, z + 1);
+        }
+    }
+
+    private void scheduleNeighborUpdate(Section section, int x, int y, int z) {
+        if (isChanged(section, x, y, z)) {
+            return;
+        }
+        y += section.minY;
+        if (y >= this.minY && y <= this.maxY) {
+            this.world.addScheduledUpdate(section.minX + x, y, section.minZ + z, 0, 1);
+        }
+    }
+
+    /**
+     * Gets whether all six neighbors of the given index are changed as well,
+     * looking into the neighboring sections for changes on the border.
+     */
+    private boolean isEnclosed(Section section, int i) {
+        int x = i & 15;
+        int y = i >> 8;
+        int z = (i >> 4) & 15;
+        if (x != 0 && x != 15 && y != 0 && y != 15 && z != 0 && z != 15) {
+            return section.isInterior(i);
+        }
+        return isChanged(section, x - 1, y, z) && isChanged(section, x + 1, y, z) && isChanged(section, x, y - 1, z)
+                && isChanged(section, x, y + 1, z) && isChanged(section, x, y, z - 1) && isChanged(section, x, y, z + 1);
+    }
+
+    private boolean isChanged(Section section, int x, int y, int z) {
+        if (((x | y | z) & ~15) == 0) {
+            return section.ids[y << 8 | z << 4 | x] != EMPTY;
+        }
+        x += section.minX;
+        y += section.minY;
+        z += section.minZ;
+        Section other = this.sections.get(sectionKey(x, y, z));
+        return other != null && other.ids[sectionIndex(x, y, z)] != EMPTY;
+    }
+
+    private static final class Section {
+
+        final int minX;
+        final int minY;
+        final int minZ;
+        final char[] ids = new char[SECTION_VOLUME];
+        final byte[] flags = new byte[SECTION_VOLUME];
+        int count;
+        // the number of written changes which still have to schedule updates
+        int surface;
+        int cursor;
+
+        Section(int minX, int minY, int minZ) {
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            Arrays.fill(this.ids, EMPTY);
+        }
+
+        boolean contains(int x, int y, int z) {
+            return (x & ~15) == this.minX && (y & ~15) == this.minY && (z & ~15) == this.minZ;
+        }
+
+        /**
+         * Gets whether all six neighbors of the given index, which must not
+         * be on the border of the section, are changed as well.
+         */
+        boolean isInterior(int i) {
+            return this.ids[i - 1] != EMPTY && this.ids[i + 1] != EMPTY && this.ids[i - 16] != EMPTY && this.ids[i + 16] != EMPTY
+                    && this.ids[i - 256] != EMPTY && this.ids[i + 256] != EMPTY;
+        }
+    }
+}
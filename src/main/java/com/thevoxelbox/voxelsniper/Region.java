@@ -0,0 +1,736 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper;
+
+import com.thevoxelbox.voxelsniper.util.Spans;
+import com.thevoxelbox.voxelsniper.util.Spans.SpanConsumer;
+import com.thevoxelbox.voxelsniper.util.VolumeIterator;
+import com.thevoxelbox.voxelsniper.util.VolumeIterator.BlockVisitor;
+
+import java.util.function.Consumer;
+
+/**
+ * A set of block positions, such as the area affected by a brush. A region
+ * knows its bounds and which positions it contains, and can be rasterized
+ * into runs of positions along the x axis or split up by chunk section.
+ *
+ * <p>Every shape overrides the generic, block by block, implementations
+ * where it can do better, so code walking a region never needs to know
+ * which shape it is.</p>
+ */
+public abstract class Region {
+
+    /**
+     * Creates a region of all positions between the given corners,
+     * inclusive.
+     */
+    public static Region cuboid(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return new Cuboid(Math.min(minX, maxX), Math.min(minY, maxY), Math.min(minZ, maxZ), Math.max(minX, maxX), Math.max(minY, maxY),
+                Math.max(minZ, maxZ));
+    }
+
+    /**
+     * Creates a region of all positions whose distance to the given center is
+     * less than the radius.
+     */
+    public static Region sphere(int x, int y, int z, double radius) {
+        return new Sphere(x, y, z, radius, false);
+    }
+
+    /**
+     * Creates a region of all positions whose distance to the given center is
+     * less than, or if inclusive at most, the radius.
+     */
+    public static Region sphere(int x, int y, int z, double radius, boolean inclusive) {
+        return new Sphere(x, y, z, radius, inclusive);
+    }
+
+    /**
+     * Creates a region of all positions within the ellipsoid with the given
+     * center and radii.
+     */
+    public static Region ellipsoid(int x, int y, int z, double radiusX, double radiusY, double radiusZ) {
+        return new Ellipsoid(x, y, z, radiusX, radiusY, radiusZ);
+    }
+
+    /**
+     * Creates a region of all positions at the height of the given center
+     * whose distance to it is less than the radius.
+     */
+    public static Region disc(int x, int y, int z, double radius) {
+        return new Cylinder(x, z, y, y, radius, false);
+    }
+
+    /**
+     * Creates a region of all positions at the height of the given center
+     * whose distance to it is less than, or if inclusive at most, the radius.
+     */
+    public static Region disc(int x, int y, int z, double radius, boolean inclusive) {
+        return new Cylinder(x, z, y, y, radius, inclusive);
+    }
+
+    /**
+     * Creates a region of all positions on the plane through the given center
+     * normal to the given axis whose distance to the center is less than the
+     * radius.
+     */
+    public static Region disc(int x, int y, int z, double radius, Axis normal) {
+        if (normal == Axis.Y) {
+            return disc(x, y, z, radius);
+        }
+        double radiusSquared = radius * radius;
+        int extent = (int) Math.ceil(radius);
+        return new Flat(x, y, z, normal, extent, extent, (a, b) -> a * a + b * b < radiusSquared, (consumer) -> Spans.disc(radius, consumer));
+    }
+
+    /**
+     * Creates a region of all positions at the height of the given center
+     * whose distance to it is less than the outer radius but at least the
+     * inner radius.
+     */
+    public static Region ring(int x, int y, int z, double outerRadius, double innerRadius) {
+        double outerSquared = outerRadius * outerRadius;
+        double innerSquared = innerRadius * innerRadius;
+        int extent = (int) Math.ceil(outerRadius);
+        return new Flat(x, y, z, Axis.Y, extent, extent, (a, b) -> a * a + b * b < outerSquared && a * a + b * b >= innerSquared,
+                (consumer) -> Spans.ring(outerRadius, innerRadius, consumer));
+    }
+
+    /**
+     * Creates a region of all positions on the plane through the given center
+     * normal to the given axis within the ellipse with the given radii. The
+     * first radius lies along the x axis, or the y axis if the plane is
+     * normal to the x axis, the second one along the remaining axis.
+     */
+    public static Region ellipse(int x, int y, int z, double radiusA, double radiusB, Axis normal) {
+        double aSquared = radiusA * radiusA;
+        double bSquared = radiusB * radiusB;
+        return new Flat(x, y, z, normal, (int) Math.ceil(radiusA), (int) Math.ceil(radiusB),
+                (a, b) -> (double) (a * a) / aSquared + (double) (b * b) / bSquared < 1, (consumer) -> Spans.ellipse(radiusA, radiusB, consumer));
+    }
+
+    /**
+     * Creates a region of all positions between the given heights, inclusive,
+     * whose horizontal distance to the given axis is less than the radius.
+     */
+    public static Region cylinder(int x, int z, int minY, int maxY, double radius) {
+        return new Cylinder(x, z, Math.min(minY, maxY), Math.max(minY, maxY), radius, false);
+    }
+
+    /**
+     * Creates a region of all positions between the given heights, inclusive,
+     * whose centers lie within the triangle with the given corners on the
+     * horizontal plane.
+     */
+    public static Region trianglePrism(double x1, double z1, double x2, double z2, double x3, double z3, int minY, int maxY) {
+        return new TrianglePrism(x1, z1, x2, z2, x3, z3, Math.min(minY, maxY), Math.max(minY, maxY));
+    }
+
+    protected final int minX;
+    protected final int minY;
+    protected final int minZ;
+    protected final int maxX;
+    protected final int maxY;
+    protected final int maxZ;
+
+    protected Region(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    public int getMinX() {
+        return this.minX;
+    }
+
+    public int getMinY() {
+        return this.minY;
+    }
+
+    public int getMinZ() {
+        return this.minZ;
+    }
+
+    public int getMaxX() {
+        return this.maxX;
+    }
+
+    public int getMaxY() {
+        return this.maxY;
+    }
+
+    public int getMaxZ() {
+        return this.maxZ;
+    }
+
+    /**
+     * Gets whether the bounds of this region are empty, in which case it
+     * contains no positions at all.
+     */
+    public boolean isEmpty() {
+        return this.minX > this.maxX || this.minY > this.maxY || this.minZ > this.maxZ;
+    }
+
+    /**
+     * Gets the number of positions within the bounds of this region.
+     */
+    public long getBoundsVolume() {
+        if (isEmpty()) {
+            return 0;
+        }
+        return (long) (this.maxX - this.minX + 1) * (this.maxY - this.minY + 1) * (this.maxZ - this.minZ + 1);
+    }
+
+    /**
+     * Gets whether the given position is within the bounds of this region.
+     */
+    public boolean inBounds(int x, int y, int z) {
+        return x >= this.minX && x <= this.maxX && y >= this.minY && y <= this.maxY && z >= this.minZ && z <= this.maxZ;
+    }
+
+    /**
+     * Gets whether this region contains the given position.
+     */
+    public abstract boolean contains(int x, int y, int z);
+
+    /**
+     * Rasterizes this region into runs of positions along the x axis. Every
+     * position of the region is part of exactly one run. The order of the
+     * runs depends on the shape.
+     */
+    public void forEachSpan(SpanConsumer consumer) {
+        forEachColumnRow((y, z, x0, x1) -> {
+            int start = Integer.MIN_VALUE;
+            for (int x = x0; x <= x1; x++) {
+                if (contains(x, y, z)) {
+                    if (start == Integer.MIN_VALUE) {
+                        start = x;
+                    }
+                } else if (start != Integer.MIN_VALUE) {
+                    consumer.accept(y, z, start, x - 1);
+                    start = Integer.MIN_VALUE;
+                }
+            }
+            if (start != Integer.MIN_VALUE) {
+                consumer.accept(y, z, start, x1);
+            }
+        });
+    }
+
+    /**
+     * Visits every position of this region in section order, see
+     * {@link VolumeIterator}.
+     */
+    public void forEach(BlockVisitor visitor) {
+        if (isEmpty()) {
+            return;
+        }
+        VolumeIterator.forEach(this.minX, this.minY, this.minZ, this.maxX, this.maxY, this.maxZ, (x, y, z) -> {
+            if (contains(x, y, z)) {
+                visitor.visit(x, y, z);
+            }
+        });
+    }
+
+    /**
+     * Splits this region up by the chunk sections its bounds overlap. Each
+     * part is the intersection of this region with one section, the parts
+     * are given in section order.
+     */
+    public void forEachSection(Consumer<Region> consumer) {
+        if (isEmpty()) {
+            return;
+        }
+        for (int cx = this.minX >> 4; cx <= this.maxX >> 4; cx++) {
+            for (int cz = this.minZ >> 4; cz <= this.maxZ >> 4; cz++) {
+                for (int cy = this.minY >> 4; cy <= this.maxY >> 4; cy++) {
+                    consumer.accept(intersect(new Cuboid(Math.max(this.minX, cx << 4), Math.max(this.minY, cy << 4), Math.max(this.minZ, cz << 4),
+                            Math.min(this.maxX, (cx << 4) + 15), Math.min(this.maxY, (cy << 4) + 15), Math.min(this.maxZ, (cz << 4) + 15))));
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a region of all positions contained in this region or the
+     * other.
+     */
+    public Region union(Region other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        return new Union(this, other);
+    }
+
+    /**
+     * Creates a region of all positions contained in both this region and
+     * the other.
+     */
+    public Region intersect(Region other) {
+        if (this instanceof Cuboid && other instanceof Cuboid) {
+            return new Cuboid(Math.max(this.minX, other.minX), Math.max(this.minY, other.minY), Math.max(this.minZ, other.minZ),
+                    Math.min(this.maxX, other.maxX), Math.min(this.maxY, other.maxY), Math.min(this.maxZ, other.maxZ));
+        }
+        return new Intersection(this, other);
+    }
+
+    /**
+     * Visits the rows of the bounds of this region in section order, each
+     * row cut at the borders of chunk columns.
+     */
+    protected void forEachColumnRow(SpanConsumer consumer) {
+        if (isEmpty()) {
+            return;
+        }
+        for (int cx = this.minX >> 4; cx <= this.maxX >> 4; cx++) {
+            int x0 = Math.max(this.minX, cx << 4);
+            int x1 = Math.min(this.maxX, (cx << 4) + 15);
+            for (int cz = this.minZ >> 4; cz <= this.maxZ >> 4; cz++) {
+                int z0 = Math.max(this.minZ, cz << 4);
+                int z1 = Math.min(this.maxZ, (cz << 4) + 15);
+                for (int y = this.minY; y <= this.maxY; y++) {
+                    for (int z = z0; z <= z1; z++) {
+                        consumer.accept(y, z, x0, x1);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Cuboid extends Region {
+
+        Cuboid(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            super(minX, minY, minZ, maxX, maxY, maxZ);
+        }
+
+        @Override
+        public boolean contains(int x, int y, int z) {
+            return inBounds(x, y, z);
+        }
+
+        @Override
+        public void forEachSpan(SpanConsumer consumer) {
+            forEachColumnRow(consumer);
+        }
+
+        @Override
+        public void forEach(BlockVisitor visitor) {
+            if (!isEmpty()) {
+                VolumeIterator.forEach(this.minX, this.minY, this.minZ, this.maxX, this.maxY, this.maxZ, visitor);
+            }
+        }
+
+    }
+
+    private static final class Sphere extends Region {
+
+        private final int x;
+        private final int y;
+        private final int z;
+        private final double radius;
+        private final double radiusSquared;
+        private final boolean inclusive;
+
+        Sphere(int x, int y, int z, double radius, boolean inclusive) {
+            super(x - (int) Math.ceil(radius), y - (int) Math.ceil(radius), z - (int) Math.ceil(radius), x + (int) Math.ceil(radius),
+                    y + (int) Math.ceil(radius), z + (int) Math.ceil(radius));
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.radius = radius;
+            this.radiusSquared = radius * radius;
+            this.inclusive = inclusive;
+        }
+
+        @Override
+        public boolean contains(int x, int y, int z) {
+            int dx = x - this.x;
+            int dy = y - this.y;
+            int dz = z - this.z;
+            int distanceSquared = dx * dx + dy * dy + dz * dz;
+            return this.inclusive ? distanceSquared <= this.radiusSquared : distanceSquared < this.radiusSquared;
+        }
+
+        @Override
+        public void forEachSpan(SpanConsumer consumer) {
+            Spans.sphere(this.radius, this.inclusive, (y, z, minX, maxX) -> consumer.accept(this.y + y, this.z + z, this.x + minX, this.x + maxX));
+        }
+
+    }
+
+    private static final class Cylinder extends Region {
+
+        private final int x;
+        private final int z;
+        private final double radius;
+        private final double radiusSquared;
+        private final boolean inclusive;
+
+        Cylinder(int x, int z, int minY, int maxY, double radius, boolean inclusive) {
+            super(x - (int) Math.ceil(radius), minY, z - (int) Math.ceil(radius), x + (int) Math.ceil(radius), maxY, z + (int) Math.ceil(radius));
+            this.x = x;
+            this.z = z;
+            this.radius = radius;
+            this.radiusSquared = radius * radius;
+            this.inclusive = inclusive;
+        }
+
+        @Override
+        public boolean contains(int x, int y, int z) {
+            int dx = x - this.x;
+            int dz = z - this.z;
+            int distanceSquared = dx * dx + dz * dz;
+            return y >= this.minY && y <= this.maxY && (this.inclusive ? distanceSquared <= this.radiusSquared : distanceSquared < this.radiusSquared);
+        }
+
+        @Override
+        public void forEachSpan(SpanConsumer consumer) {
+            if (this.minY == this.maxY) {
+                Spans.disc(this.radius, this.inclusive, (y, z, minX, maxX) -> consumer.accept(this.minY, this.z + z, this.x + minX, this.x + maxX));
+                return;
+            }
+            // Rasterize the cross section once and repeat it on every layer
+            int[] rows = new int[(this.maxZ - this.minZ + 1) * 3];
+            int[] count = new int[1];
+            Spans.disc(this.radius, this.inclusive, (y, z, minX, maxX) -> {
+                int i = count[0]++ * 3;
+                rows[i] = this.z + z;
+                rows[i + 1] = this.x + minX;
+                rows[i + 2] = this.x + maxX;
+            });
+            for (int y = this.minY; y <= this.maxY; y++) {
+                for (int i = 0; i < count[0] * 3; i += 3) {
+                    consumer.accept(y, rows[i], rows[i + 1], rows[i + 2]);
+                }
+            }
+        }
+
+    }
+
+    private static final class Ellipsoid extends Region {
+
+        private final int x;
+        private final int y;
+        private final int z;
+        private final double radiusX;
+        private final double radiusY;
+        private final double radiusZ;
+
+        Ellipsoid(int x, int y, int z, double radiusX, double radiusY, double radiusZ) {
+            super(x - (int) Math.ceil(radiusX), y - (int) Math.ceil(radiusY), z - (int) Math.ceil(radiusZ), x + (int) Math.ceil(radiusX),
+                    y + (int) Math.ceil(radiusY), z + (int) Math.ceil(radiusZ));
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.radiusX = radiusX;
+            this.radiusY = radiusY;
+            this.radiusZ = radiusZ;
+        }
+
+        @Override
+        public boolean contains(int x, int y, int z) {
+            int dx = x - this.x;
+            int dy = y - this.y;
+            int dz = z - this.z;
+            return (double) (dx * dx) / (this.radiusX * this.radiusX) + (double) (dy * dy) / (this.radiusY * this.radiusY)
+                    + (double) (dz * dz) / (this.radiusZ * this.radiusZ) < 1;
+        }
+
+        @Override
+        public void forEachSpan(SpanConsumer consumer) {
+            Spans.ellipsoid(this.radiusX, this.radiusY, this.radiusZ,
+                    (y, z, minX, maxX) -> consumer.accept(this.y + y, this.z + z, this.x + minX, this.x + maxX));
+        }
+
+    }
+
+    /**
+     * A flat shape on the plane through a center normal to one of the axes.
+     * The shape is given in the coordinates a and b of the plane, see
+     * {@link Region#ellipse}, and rasterized into runs along a.
+     */
+    private static final class Flat extends Region {
+
+        private final int x;
+        private final int y;
+        private final int z;
+        private final Axis normal;
+        private final PlaneTest test;
+        private final Consumer<SpanConsumer> rasterizer;
+
+        Flat(int x, int y, int z, Axis normal, int extentA, int extentB, PlaneTest test, Consumer<SpanConsumer> rasterizer) {
+            super(normal == Axis.X ? x : x - extentA, normal == Axis.Y ? y : normal == Axis.X ? y - extentA : y - extentB,
+                    normal == Axis.Z ? z : z - extentB, normal == Axis.X ? x : x + extentA,
+                    normal == Axis.Y ? y : normal == Axis.X ? y + extentA : y + extentB, normal == Axis.Z ? z : z + extentB);
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.normal = normal;
+            this.test = test;
+            this.rasterizer = rasterizer;
+        }
+
+        @Override
+        public boolean contains(int x, int y, int z) {
+            if (!inBounds(x, y, z)) {
+                return false;
+            }
+            switch (this.normal) {
+                case X:
+                    return this.test.test(y - this.y, z - this.z);
+                case Z:
+                    return this.test.test(x - this.x, y - this.y);
+                case Y:
+                default:
+                    return this.test.test(x - this.x, z - this.z);
+            }
+        }
+
+        @Override
+        public void forEachSpan(SpanConsumer consumer) {
+            this.rasterizer.accept((ignored, b, minA, maxA) -> {
+                if (this.normal == Axis.Y) {
+                    consumer.accept(this.y, this.z + b, this.x + minA, this.x + maxA);
+                } else if (this.normal == Axis.Z) {
+                    consumer.accept(this.y + b, this.z, this.x + minA, this.x + maxA);
+                } else {
+                    // the runs lie along the y axis here
+                    for (int a = minA; a <= maxA; a++) {
+                        consumer.accept(this.y + a, this.z + b, this.x, this.x);
+                    }
+                }
+            });
+        }
+
+    }
+
+    /**
+     * Tests whether a position in the coordinates of a plane is part of a
+     * flat shape.
+     */
+    @FunctionalInterface
+    private interface PlaneTest {
+
+        boolean test(int a, int b);
+
+    }
+
+    private static final class TrianglePrism extends Region {
+
+        // Each edge as the half plane a * x + b * z + c >= 0
+        private final double[] edges = new double[9];
+        private final boolean degenerate;
+
+        TrianglePrism(double x1, double z1, double x2, double z2, double x3, double z3, int minY, int maxY) {
+            super((int) Math.floor(Math.min(x1, Math.min(x2, x3))), minY, (int) Math.floor(Math.min(z1, Math.min(z2, z3))),
+                    (int) Math.floor(Math.max(x1, Math.max(x2, x3))), maxY, (int) Math.floor(Math.max(z1, Math.max(z2, z3))));
+            double area = (x2 - x1) * (z3 - z1) - (z2 - z1) * (x3 - x1);
+            this.degenerate = area == 0;
+            if (area < 0) {
+                double tx = x2;
+                double tz = z2;
+                x2 = x3;
+                z2 = z3;
+                x3 = tx;
+                z3 = tz;
+            }
+            edge(0, x1, z1, x2, z2);
+            edge(1, x2, z2, x3, z3);
+            edge(2, x3, z3, x1, z1);
+        }
+
+        private void edge(int index, double px, double pz, double qx, double qz) {
+            this.edges[index * 3] = pz - qz;
+            this.edges[index * 3 + 1] = qx - px;
+            this.edges[index * 3 + 2] = (qz - pz) * px - (qx - px) * pz;
+        }
+
+        @Override
+        public boolean contains(int x, int y, int z) {
+            if (this.degenerate || y < this.minY || y > this.maxY) {
+                return false;
+            }
+            double cx = x + 0.5;
+            double cz = z + 0.5;
+            for (int i = 0; i < 9; i += 3) {
+                if (this.edges[i] * cx + this.edges[i + 1] * cz + this.edges[i + 2] < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachSpan(SpanConsumer consumer) {
+            if (this.degenerate) {
+                return;
+            }
+            for (int z = this.minZ; z <= this.maxZ; z++) {
+                // Intersect the center line of the row with the three half
+                // planes, then correct the ends against the exact test
+                double cz = z + 0.5;
+                double low = Double.NEGATIVE_INFINITY;
+                double high = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < 9; i += 3) {
+                    double a = this.edges[i];
+                    double rest = this.edges[i + 1] * cz + this.edges[i + 2];
+                    if (a > 0) {
+                        low = Math.max(low, -rest / a);
+                    } else if (a < 0) {
+                        high = Math.min(high, -rest / a);
+                    } else if (rest < 0) {
+                        low = Double.POSITIVE_INFINITY;
+                    }
+                }
+                if (low > high) {
+                    continue;
+                }
+                int x0 = Math.max(this.minX, (int) Math.ceil(low - 0.5));
+                int x1 = Math.min(this.maxX, (int) Math.floor(high - 0.5));
+                while (x0 <= x1 && !contains(x0, this.minY, z)) {
+                    x0++;
+                }
+                while (x1 >= x0 && !contains(x1, this.minY, z)) {
+                    x1--;
+                }
+                if (x0 > x1) {
+                    continue;
+                }
+                for (int y = this.minY; y <= this.maxY; y++) {
+                    consumer.accept(y, z, x0, x1);
+                }
+            }
+        }
+
+    }
+
+    private static final class Union extends Region {
+
+        private final Region a;
+        private final Region b;
+
+        Union(Region a, Region b) {
+            super(Math.min(a.minX, b.minX), Math.min(a.minY, b.minY), Math.min(a.minZ, b.minZ), Math.max(a.maxX, b.maxX), Math.max(a.maxY, b.maxY),
+                    Math.max(a.maxZ, b.maxZ));
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public boolean contains(int x, int y, int z) {
+            return this.a.contains(x, y, z) || this.b.contains(x, y, z);
+        }
+
+        @Override
+        public void forEachSpan(SpanConsumer consumer) {
+            boolean disjoint = this.a.maxX < this.b.minX || this.b.maxX < this.a.minX || this.a.maxY < this.b.minY || this.b.maxY < this.a.minY
+                    || this.a.maxZ < this.b.minZ || this.b.maxZ < this.a.minZ;
+            if (disjoint) {
+                // Neither side can cover a position of the other
+                this.a.forEachSpan(consumer);
+                this.b.forEachSpan(consumer);
+            } else {
+                super.forEachSpan(consumer);
+            }
+        }
+
+    }
+
+    private static final class Intersection extends Region {
+
+        private final Region a;
+        private final Region b;
+
+        Intersection(Region a, Region b) {
+            super(Math.max(a.minX, b.minX), Math.max(a.minY, b.minY), Math.max(a.minZ, b.minZ), Math.min(a.maxX, b.maxX), Math.min(a.maxY, b.maxY),
+                    Math.min(a.maxZ, b.maxZ));
+            // Rasterize the side with the smaller bounds and test the other
+            if (a.getBoundsVolume() <= b.getBoundsVolume()) {
+                this.a = a;
+                this.b = b;
+            } else {
+                this.a = b;
+                this.b = a;
+            }
+        }
+
+        @Override
+        public boolean contains(int x, int y, int z) {
+            return inBounds(x, y, z) && this.a.contains(x, y, z) && this.b.contains(x, y, z);
+        }
+
+        @Override
+        public void forEachSpan(SpanConsumer consumer) {
+            if (isEmpty()) {
+                return;
+            }
+            boolean clipOnly = this.b instanceof Cuboid;
+            this.a.forEachSpan((y, z, x0, x1) -> {
+                if (y < this.minY || y > this.maxY || z < this.minZ || z > this.maxZ) {
+                    return;
+                }
+                x0 = Math.max(x0, this.minX);
+                x1 = Math.min(x1, this.maxX);
+                if (clipOnly) {
+                    if (x0 <= x1) {
+                        consumer.accept(y, z, x0, x1);
+                    }
+                    return;
+                }
+                int start = Integer.MIN_VALUE;
+                for (int x = x0; x <= x1; x++) {
+                    if (this.b.contains(x, y, z)) {
+                        if (start == Integer.MIN_VALUE) {
+                            start = x;
+                        }
+                    } else if (start != Integer.MIN_VALUE) {
+                        consumer.accept(y, z, start, x - 1);
+                        start = Integer.MIN_VALUE;
+                    }
+                }
+                if (start != Integer.MIN_VALUE) {
+                    consumer.accept(y, z, start, x1);
+                }
+            });
+        }
+
+    }
+
+    /**
+     * The axes a plane can be normal to.
+     */
+    public enum Axis {
+        X,
+        Y,
+        Z;
+    }
+
+}
@@ -34,6 +34,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.ClassToInstanceMap;
 import com.google.common.collect.HashBiMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.MutableClassToInstanceMap;
 import org.spongepowered.api.Sponge;
@@ -53,7 +54,9 @@ import org.spongepowered.api.util.blockray.BlockRayHit;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Predicate;
@@ -63,6 +66,8 @@ public class Sniper {
     private final UUID player;
     private boolean enabled = true;
     private LinkedList<Undo> undoList = new LinkedList<Undo>();
+    private LinkedList<Undo> redoList = new LinkedList<Undo>();
+    private String activeBrushName;
     private Map<String, SniperTool> tools = Maps.newHashMap();
 
     public Sniper(Player player) {
@@ -95,6 +100,10 @@ public class Sniper {
         return Sponge.getServer().getPlayer(this.player).get();
     }
 
+    public UUID getPlayerId() {
+        return this.player;
+    }
+
     /**
      * Sniper execution call.
      *
@@ -245,6 +254,11 @@ public class Sniper {
                     }
                 }
 
+                if (EditQueue.get().isBusy(this)) {
+                    player.sendMessage(Text.of(TextColors.RED, "Your previous edit is still being applied, please wait."));
+                    return true;
+                }
+
                 try {
                     sniperTool.getCurrentBrush().perform(snipeAction, snipeData, targetBlock, lastBlock);
                 } catch (Exception e) {
@@ -326,30 +340,188 @@ public class Sniper {
             return;
         }
         if (undo != null && undo.getSize() > 0) {
+            UndoManager manager = SniperManager.get().getUndoManager();
+            // a new edit invalidates anything that was undone before it
+            for (Undo redo : this.redoList) {
+                manager.untrack(redo);
+                redo.discard();
+            }
+            this.redoList.clear();
             while (this.undoList.size() >= VoxelSniperConfiguration.UNDO_CACHE_SIZE) {
-                this.undoList.pollLast();
+                Undo oldest = this.undoList.pollLast();
+                manager.untrack(oldest);
+                oldest.discard();
+            }
+            this.undoList.push(undo);
+            EditJournal.get().logEdit(this, this.activeBrushName, undo);
+            manager.track(this, undo);
+            // entries which have aged past the most recent few are unlikely to
+            // be undone soon so they are compressed in the background
+            int age = VoxelSniperConfiguration.UNDO_COMPRESS_AGE;
+            if (age > 0 && this.undoList.size() > age) {
+                Undo aged = this.undoList.get(age);
+                aged.compress(() -> manager.update(aged));
             }
+        }
+    }
+
+    /**
+     * Adds an undo read back from the edit journal to the history without
+     * journaling it again.
+     */
+    void recoverUndo(Undo undo) {
+        if (undo.getSize() > 0) {
             this.undoList.push(undo);
+            SniperManager.get().getUndoManager().track(this, undo);
+        }
+    }
+
+    /**
+     * Sets the name of the brush currently making changes on behalf of this
+     * sniper, which is recorded alongside its undos in the edit journal.
+     */
+    public void setActiveBrushName(String brushName) {
+        this.activeBrushName = brushName;
+    }
+
+    /**
+     * Gets the most recently stored undo of this sniper, or null if the
+     * history is empty.
+     */
+    public Undo getLatestUndo() {
+        return this.undoList.peekFirst();
+    }
+
+    /**
+     * Gets whether the given undo is in the history of this sniper and has
+     * not been undone.
+     */
+    boolean hasUndo(Undo undo) {
+        return this.undoList.contains(undo);
+    }
+
+    /**
+     * Removes the given undo from the history without performing it.
+     */
+    void dropUndo(Undo undo) {
+        boolean removed = this.undoList.remove(undo);
+        removed |= this.redoList.remove(undo);
+        if (removed) {
+            EditJournal.get().logDrop(this, undo);
         }
     }
 
     public void undo(int amount) {
+        restore(false, amount);
+    }
+
+    /**
+     * Reapplies the given number of most recently undone changes from the
+     * changes recorded when they were made, without running the brushes
+     * again.
+     */
+    public void redo(int amount) {
+        restore(true, amount);
+    }
+
+    private void restore(boolean redo, int amount) {
+        LinkedList<Undo> history = redo ? this.redoList : this.undoList;
+        if (EditQueue.get().isBusy(this)) {
+            getPlayer().sendMessage(Text.of(TextColors.RED, "Your previous edit is still being applied, please wait."));
+            return;
+        }
+        if (history.isEmpty()) {
+            getPlayer().sendMessage(Text.of(TextColors.GREEN, redo ? "There's nothing to redo." : "There's nothing to undo."));
+            return;
+        }
+        List<Undo> undos = Lists.newArrayList(history.subList(0, Math.min(amount, history.size())));
+        if (isAreaBusy(undos)) {
+            getPlayer().sendMessage(Text.of(TextColors.RED, "Another edit in this area is still being applied, please wait."));
+            return;
+        }
+        // undos on disk are read back off the main thread, meanwhile they
+        // count as being computed so that no other restore starts in their
+        // worlds and the history of this sniper does not change
+        for (Undo undo : undos) {
+            EditQueue.get().startComputation(this, undo.getWorldId());
+        }
+        Undo.load(undos, () -> {
+            for (Undo undo : undos) {
+                EditQueue.get().finishComputation(this, undo.getWorldId());
+            }
+            if (history.size() < undos.size() || !history.subList(0, undos.size()).equals(undos)) {
+                undos.forEach(Undo::unload);
+                EditQueue.sendMessage(getPlayerId(),
+                        Text.of(TextColors.RED, "Your history changed while it was being read, please try again."));
+            } else if (isAreaBusy(undos)) {
+                undos.forEach(Undo::unload);
+                EditQueue.sendMessage(getPlayerId(),
+                        Text.of(TextColors.RED, "Another edit in this area is still being applied, please wait."));
+            } else {
+                apply(redo, undos);
+            }
+        });
+    }
+
+    private static boolean isAreaBusy(List<Undo> undos) {
+        for (Undo undo : undos) {
+            // the chunk keys are sorted
+            long[] chunks = undo.getChunkKeys();
+            if (EditQueue.get().isBusy(undo.getWorldId(), (chunk) -> Arrays.binarySearch(chunks, chunk) >= 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void apply(boolean redo, List<Undo> undos) {
+        LinkedList<Undo> from = redo ? this.redoList : this.undoList;
+        LinkedList<Undo> to = redo ? this.undoList : this.redoList;
+        List<EditSession> sessions = Lists.newArrayList();
+        List<Undo> dropped = Lists.newArrayList();
+        int changes = 0;
         int sum = 0;
-        if (this.undoList.isEmpty()) {
-            getPlayer().sendMessage(Text.of(TextColors.GREEN, "There's nothing to undo."));
-        } else {
-            for (int x = 0; x < amount && !this.undoList.isEmpty(); x++) {
-                Undo undo = this.undoList.pop();
-                if (undo != null) {
-                    undo.undo();
-                    sum += undo.getSize();
-                } else {
-                    break;
-                }
+        for (Undo undo : undos) {
+            from.pop();
+            // the sessions are applied strictly in order so newer undos are
+            // restored before older ones
+            for (EditSession session : undo.prepareRestore(redo)) {
+                sessions.add(session);
+                changes += session.getChangeCount();
             }
-            getPlayer().sendMessage(
-                    Text.of(TextColors.GREEN, "Undo successful:  ", TextColors.RED, sum, TextColors.GREEN, " blocks have been replaced."));
+            if (redo || undo.isRedoable()) {
+                to.push(undo);
+            } else {
+                // a partial redo would leave the edit half applied
+                dropped.add(undo);
+            }
+            sum += undo.getSize();
+        }
+        if (redo) {
+            EditJournal.get().logRedo(this, undos.size());
+        } else {
+            EditJournal.get().logUndo(this, undos.size());
+        }
+        UndoManager manager = SniperManager.get().getUndoManager();
+        for (Undo undo : dropped) {
+            EditJournal.get().logDrop(this, undo);
+            manager.untrack(undo);
+        }
+        Runnable finish = () -> {
+            undos.forEach((undo) -> undo.finishRestore(redo));
+            dropped.forEach(Undo::discard);
+        };
+        if (changes >= VoxelSniperConfiguration.APPLY_QUEUE_THRESHOLD) {
+            EditQueue.get().submit(this, sessions, finish);
+            return;
+        }
+        for (EditSession session : sessions) {
+            session.flush();
         }
+        finish.run();
+        EditQueue.sendMessage(getPlayerId(),
+                Text.of(TextColors.GREEN, redo ? "Redo successful:  " : "Undo successful:  ", TextColors.RED, sum, TextColors.GREEN,
+                        " blocks have been replaced."));
     }
 
     public void reset(String toolId) {
@@ -40,6 +40,7 @@ public class SniperManager {
 
     // @Robustness: use cache with expiry time
     private Map<UUID, Sniper> sniperInstances = Maps.newHashMap();
+    private final UndoManager undoManager = new UndoManager();
 
     private SniperManager() {
 
@@ -49,7 +50,15 @@ public class SniperManager {
         Sniper sniper = this.sniperInstances.get(player.getUniqueId());
         if (sniper == null) {
             this.sniperInstances.put(player.getUniqueId(), sniper = new Sniper(player));
+            EditJournal.get().recover(sniper);
         }
         return sniper;
     }
+
+    /**
+     * Gets the manager tracking the undo history of all snipers.
+     */
+    public UndoManager getUndoManager() {
+        return this.undoManager;
+    }
 }
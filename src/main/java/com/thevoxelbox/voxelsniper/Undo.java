@@ -24,26 +24,73 @@
  */
 package com.thevoxelbox.voxelsniper;
 
-import com.flowpowered.math.vector.Vector3i;
+import com.thevoxelbox.voxelsniper.util.BlockAccessor;
+import com.thevoxelbox.voxelsniper.util.BlockStateRegistry;
+import com.thevoxelbox.voxelsniper.util.LongHashSet;
+import com.thevoxelbox.voxelsniper.util.Workers;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import org.spongepowered.api.Sponge;
 import org.spongepowered.api.block.BlockSnapshot;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.block.BlockTypes;
+import org.spongepowered.api.entity.Entity;
+import org.spongepowered.api.entity.EntitySnapshot;
 import org.spongepowered.api.world.BlockChangeFlag;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
+import org.spongepowered.api.world.biome.BiomeType;
+import org.spongepowered.api.world.schematic.BlockPalette;
+import org.spongepowered.api.world.schematic.BlockPaletteTypes;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 /**
  * Holds {@link BlockState}s that can be later on used to reset those block
  * locations back to the recorded states.
+ *
+ * <p>States are stored per chunk section as indices into a palette, the full
+ * {@link BlockSnapshot} is only kept for blocks which have a tile entity.
+ * Biomes are captured for a whole chunk at once the first time a column in it
+ * is changed, removed entities are kept as {@link EntitySnapshot}s.</p>
  */
 public class Undo {
 
+    private static final char EMPTY = Character.MAX_VALUE;
+    private static final int PASS_ALL = 0;
+    private static final int PASS_FALLOFF = 1;
+    private static final int PASS_DROPDOWN = 2;
+
     private static final Set<BlockType> FALLING_MATERIALS = Sets.newHashSet(
             BlockTypes.WATER,
             BlockTypes.FLOWING_WATER,
@@ -95,21 +142,42 @@ public class Undo {
             BlockTypes.POWERED_COMPARATOR,
             BlockTypes.UNPOWERED_COMPARATOR,
             BlockTypes.DOUBLE_PLANT);
-    private final Set<Vector3i> containing = Sets.newHashSet();
-    private final List<BlockSnapshot> all;
-    private final List<BlockSnapshot> falloff;
-    private final List<BlockSnapshot> dropdown;
-
-    // @Performance this should use the brushes knowledge of the affected area
-    // to create some kind of masked archetype volume of the area
+    private static final BlockStateRegistry.Table FALLING = BlockStateRegistry.table((state) -> FALLING_MATERIALS.contains(state.getType()));
+    private static final BlockStateRegistry.Table FALLOFF = BlockStateRegistry.table((state) -> FALLOFF_MATERIALS.contains(state.getType()));
+    private final BlockPalette palette = BlockPaletteTypes.LOCAL.create();
+    private final NavigableMap<Long, UndoSection> sections = Maps.newTreeMap();
+    private final Map<Long, BlockSnapshot> tileEntities = Maps.newHashMap();
+    // checked instead of the map to avoid boxing a key for every block
+    private final LongHashSet tilePositions = new LongHashSet();
+    // chunks whose blocks are no longer restored, see trim
+    private final LongHashSet trimmedChunks = new LongHashSet();
+    private final Map<Long, BlockSnapshot> tileEntitiesAfter = Maps.newHashMap();
+    private final List<BiomeType> biomePalette = Lists.newArrayList();
+    private final Map<Long, BiomeColumns> biomes = Maps.newHashMap();
+    private final ListMultimap<Long, EntitySnapshot> entities = ArrayListMultimap.create();
+    // ids of the entities spawned from the snapshots by the last undo
+    private final Map<EntitySnapshot, UUID> restoredEntities = Maps.newIdentityHashMap();
+    private BiomeColumns lastBiomes;
+    private UUID worldId;
+    private UndoSection lastSection;
+    private int size;
+    private Path spillFile;
+    private byte[] compressed;
+    // sections read back by load for the next restore
+    private List<UndoSection> loaded;
+    // whether the sections are currently being spilled or compressed
+    private boolean spilling;
+    private boolean discarded;
+    // whether the state every block was changed to is recorded
+    private boolean redoable = true;
+    private long timestamp = System.currentTimeMillis();
+    private long journalId = -1;
+    private long[] chunkKeys;
 
     /**
      * Default constructor of a Undo container.
      */
-    public Undo(int suggested_size) {
-        this.all = Lists.newArrayListWithExpectedSize(suggested_size);
-        this.falloff = Lists.newArrayList();
-        this.dropdown = Lists.newArrayList();
+    public Undo() {
     }
 
     /**
@@ -118,7 +186,121 @@ public class Undo {
      * @return size of the Undo collection
      */
     public int getSize() {
-        return this.all.size() + this.falloff.size() + this.dropdown.size();
+        return this.size;
+    }
+
+    /**
+     * Gets a rough estimate of the number of bytes of heap used by this undo.
+     */
+    public long getMemoryUsage() {
+        // sections dominate, palette entries and tile entity snapshots are
+        // estimated generously
+        long bytes = 64L + (this.palette.getHighestId() + 1) * 32L + (this.tileEntities.size() + this.tileEntitiesAfter.size()) * 1024L;
+        bytes += this.biomes.size() * (16L * 16L * 4L + 64L) + this.entities.size() * 1024L;
+        if (this.compressed != null) {
+            bytes += this.compressed.length;
+        }
+        for (UndoSection section : this.sections.values()) {
+            bytes += section.getMemoryUsage();
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the time this undo was created at, in milliseconds since the
+     * epoch.
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Gets the id of the record of this undo in the edit journal, or -1 if
+     * it was not journaled.
+     */
+    long getJournalId() {
+        return this.journalId;
+    }
+
+    void setJournalId(long journalId) {
+        this.journalId = journalId;
+    }
+
+    /**
+     * Gets whether the state each recorded block was changed to is known so
+     * that the changes can be redone. Blocks added without one can only be
+     * restored to their state before the change.
+     */
+    public boolean isRedoable() {
+        return this.redoable;
+    }
+
+    /**
+     * Gets whether this undo holds tile entity data, biomes or entities,
+     * none of which are included by its {@link #serializer()}.
+     */
+    public boolean hasUnserializedData() {
+        return !this.tileEntities.isEmpty() || !this.tileEntitiesAfter.isEmpty() || !this.biomes.isEmpty() || !this.entities.isEmpty();
+    }
+
+    /**
+     * Gets the keys of all chunks containing recorded blocks, in the format
+     * of {@link EditSession#chunkKey(int, int)}. Must first be called before
+     * the undo is spilled to disk.
+     */
+    public long[] getChunkKeys() {
+        if (this.chunkKeys == null) {
+            // sections of a chunk sort next to each other
+            long[] keys = new long[this.sections.size()];
+            int count = 0;
+            for (Long key : this.sections.keySet()) {
+                long chunk = key & ~0xFFFL;
+                if (count == 0 || keys[count - 1] != chunk) {
+                    keys[count++] = chunk;
+                }
+            }
+            keys = Arrays.copyOf(keys, count);
+            if (!this.biomes.isEmpty() || !this.entities.isEmpty()) {
+                Set<Long> merged = Sets.newTreeSet(this.biomes.keySet());
+                merged.addAll(this.entities.keySet());
+                for (long key : keys) {
+                    merged.add(key);
+                }
+                keys = new long[merged.size()];
+                count = 0;
+                for (Long key : merged) {
+                    keys[count++] = key;
+                }
+            }
+            this.chunkKeys = keys;
+        }
+        return this.chunkKeys;
+    }
+
+    /**
+     * Gets whether the recorded blocks have been moved to disk.
+     */
+    public boolean isSpilled() {
+        return this.spillFile != null;
+    }
+
+    /**
+     * Gets whether the recorded blocks are held in compressed form.
+     */
+    public boolean isCompressed() {
+        return this.compressed != null;
+    }
+
+    /**
+     * Gets the id of the world the recorded blocks are in, or null if no
+     * block has been recorded yet.
+     */
+    public UUID getWorldId() {
+        return this.worldId;
     }
 
     /**
@@ -127,18 +309,494 @@ public class Undo {
      * @param block Block to be added
      */
     public void put(Location<World> block) {
-        Vector3i pos = block.getBlockPosition();
-        if (this.containing.contains(pos)) {
+        put(block.getExtent(), block.getBlockX(), block.getBlockY(), block.getBlockZ());
+    }
+
+    /**
+     * Adds a Block to the collection and records the state it is being
+     * changed to so that the change can be redone.
+     *
+     * @param block Block to be added
+     * @param after The new state of the block
+     */
+    public void put(Location<World> block, BlockState after) {
+        put(block.getExtent(), block.getBlockX(), block.getBlockY(), block.getBlockZ(), after);
+    }
+
+    /**
+     * Adds the block at the given position to the collection and records the
+     * state it is being changed to so that the change can be redone.
+     *
+     * @param world The world containing the block
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @param after The new state of the block
+     */
+    public void put(World world, int x, int y, int z, BlockState after) {
+        UndoSection section = getSection(x, y, z);
+        int index = EditSession.sectionIndex(x, y, z);
+        if (section.get(index) == EMPTY) {
+            put(world, section, index, x, y, z, world.getBlock(x, y, z), world.getTileEntity(x, y, z).isPresent());
+        }
+        section.setAfter(index, (char) this.palette.getOrAssign(after));
+    }
+
+    /**
+     * Adds the block at the given position to the collection. The state it is
+     * changed to is not known, so the undo can no longer be redone.
+     *
+     * @param world The world containing the block
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     */
+    public void put(World world, int x, int y, int z) {
+        UndoSection section = getSection(x, y, z);
+        int index = EditSession.sectionIndex(x, y, z);
+        if (section.get(index) == EMPTY) {
+            put(world, section, index, x, y, z, world.getBlock(x, y, z), world.getTileEntity(x, y, z).isPresent());
+        }
+        if (section.getAfter(index) == EMPTY) {
+            this.redoable = false;
+        }
+    }
+
+    /**
+     * Adds the block at the given position to the collection and records the
+     * state it is being changed to, reading the current block and whether it
+     * holds a tile entity through the given accessor rather than the world.
+     *
+     * @param blocks The accessor of the world containing the block
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @param after The new state of the block
+     */
+    public void put(BlockAccessor blocks, int x, int y, int z, BlockState after) {
+        UndoSection section = getSection(x, y, z);
+        int index = EditSession.sectionIndex(x, y, z);
+        if (section.get(index) == EMPTY) {
+            put(blocks.getWorld(), section, index, x, y, z, blocks.getBlock(x, y, z), blocks.hasTileEntity(x, y, z));
+        }
+        section.setAfter(index, (char) this.palette.getOrAssign(after));
+    }
+
+    private void put(World world, UndoSection section, int index, int x, int y, int z, BlockState state, boolean tileEntity) {
+        if (this.worldId == null) {
+            this.worldId = world.getUniqueId();
+        }
+        section.put(index, (char) this.palette.getOrAssign(state));
+        this.size++;
+        if (tileEntity) {
+            long key = LongHashSet.pack(x, y, z);
+            this.tilePositions.add(key);
+            this.tileEntities.put(key, world.createSnapshot(x, y, z));
+        }
+    }
+
+    /**
+     * Records the current tile entity data of a block previously added with
+     * {@link #put(World, int, int, int, BlockState)}, so that redoing the change restores
+     * the data written to it as well.
+     *
+     * @param world The world containing the block
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     */
+    public void putAfter(World world, int x, int y, int z) {
+        long key = LongHashSet.pack(x, y, z);
+        if (this.tilePositions.contains(key)) {
+            this.tileEntitiesAfter.put(key, world.createSnapshot(x, y, z));
+        }
+    }
+
+    /**
+     * Adds the biome of the given column to the collection and records the
+     * biome it is being changed to. The biomes of the whole chunk are read on
+     * the first change to it so painting large areas only reads each chunk
+     * once.
+     *
+     * @param world The world containing the column
+     * @param x The x position
+     * @param z The z position
+     * @param after The new biome of the column
+     */
+    public void putBiome(World world, int x, int z, BiomeType after) {
+        if (this.worldId == null) {
+            this.worldId = world.getUniqueId();
+        }
+        BiomeColumns columns = this.lastBiomes;
+        if (columns == null || columns.minX != (x & ~15) || columns.minZ != (z & ~15)) {
+            Long key = EditSession.chunkKey(x >> 4, z >> 4);
+            columns = this.biomes.get(key);
+            if (columns == null) {
+                columns = new BiomeColumns(x & ~15, z & ~15);
+                for (int index = 0; index < columns.before.length; index++) {
+                    columns.before[index] = getBiomeId(world.getBiome(columns.minX + (index & 15), columns.minZ + (index >> 4)));
+                }
+                this.biomes.put(key, columns);
+            }
+            this.lastBiomes = columns;
+        }
+        int index = (z & 15) << 4 | (x & 15);
+        if (columns.after[index] == EMPTY) {
+            this.size++;
+        }
+        columns.after[index] = getBiomeId(after);
+    }
+
+    private char getBiomeId(BiomeType biome) {
+        // worlds rarely use more than a handful of biomes in one area
+        int id = this.biomePalette.indexOf(biome);
+        if (id == -1) {
+            id = this.biomePalette.size();
+            this.biomePalette.add(biome);
+        }
+        return (char) id;
+    }
+
+    /**
+     * Records an entity which is about to be removed so that it can be
+     * spawned again.
+     *
+     * @param entity The entity to record
+     */
+    public void putEntity(Entity entity) {
+        if (this.worldId == null) {
+            this.worldId = entity.getWorld().getUniqueId();
+        }
+        Location<World> location = entity.getLocation();
+        this.entities.put(EditSession.chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4), entity.createSnapshot());
+        this.size++;
+    }
+
+    private UndoSection getSection(int x, int y, int z) {
+        if (this.lastSection != null && this.lastSection.contains(x, y, z)) {
+            return this.lastSection;
+        }
+        Long key = EditSession.sectionKey(x, y, z);
+        UndoSection section = this.sections.get(key);
+        if (section == null) {
+            section = new UndoSection(x & ~15, y & ~15, z & ~15);
+            this.sections.put(key, section);
+        }
+        this.lastSection = section;
+        return section;
+    }
+
+    private static int getPass(BlockState state) {
+        int id = BlockStateRegistry.getId(state);
+        if (Undo.FALLING.test(id)) {
+            return PASS_DROPDOWN;
+        } else if (Undo.FALLOFF.test(id)) {
+            return PASS_FALLOFF;
+        }
+        return PASS_ALL;
+    }
+
+    /**
+     * Writes the recorded sections to the given file in the background and
+     * releases them from the heap once done. Must be called from the main
+     * thread once no more blocks will be added, the callback is run on the
+     * main thread after the sections were released.
+     *
+     * @param file The file to write to
+     * @param callback Called once the sections were moved to disk
+     */
+    public void spill(Path file, Runnable callback) {
+        if (this.spilling || this.spillFile != null || this.compressed != null || this.discarded) {
             return;
         }
-        this.containing.add(pos);
-        if (Undo.FALLING_MATERIALS.contains(block.getBlockType())) {
-            this.dropdown.add(block.createSnapshot());
-        } else if (Undo.FALLOFF_MATERIALS.contains(block.getBlockType())) {
-            this.falloff.add(block.createSnapshot());
-        } else {
-            this.all.add(block.createSnapshot());
+        this.spilling = true;
+        List<UndoSection> sections = Lists.newArrayList(this.sections.values());
+        CompletableFuture.runAsync(() -> writeSections(file, sections), Workers.getPool()).whenComplete((result, error) -> Workers.runOnMainThread(() -> {
+            this.spilling = false;
+            if (error != null) {
+                VoxelSniper.getLogger().error("Error writing undo to " + file, error);
+                deleteFile(file);
+            } else if (this.discarded) {
+                deleteFile(file);
+            } else {
+                this.spillFile = file;
+                this.sections.clear();
+                this.lastSection = null;
+                callback.run();
+            }
+        }));
+    }
+
+    /**
+     * Deflates the recorded sections into a byte array in the background and
+     * releases them once done. Must be called from the main thread once no
+     * more blocks will be added, the callback is run on the main thread after
+     * the sections were released.
+     *
+     * @param callback Called once the sections were compressed
+     */
+    public void compress(Runnable callback) {
+        if (this.spilling || this.spillFile != null || this.compressed != null || this.discarded) {
+            return;
+        }
+        this.spilling = true;
+        List<UndoSection> sections = Lists.newArrayList(this.sections.values());
+        CompletableFuture.supplyAsync(() -> compressSections(sections), Workers.getPool()).whenComplete((result, error) -> Workers.runOnMainThread(() -> {
+            this.spilling = false;
+            if (error != null) {
+                VoxelSniper.getLogger().error("Error compressing undo", error);
+            } else if (!this.discarded) {
+                this.compressed = result;
+                this.sections.clear();
+                this.lastSection = null;
+                callback.run();
+            }
+        }));
+    }
+
+    private static byte[] compressSections(Collection<UndoSection> sections) {
+        // sections are stored x first so runs of the same state along the x
+        // axis end up next to each other in the stream
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            writeSections(out, sections);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Removes everything recorded within the chunks accepted by the given
+     * filter, so that restoring the undo leaves them alone. Blocks which were
+     * moved to disk or compressed stay there and are skipped when restoring,
+     * they still count towards the size of the undo.
+     *
+     * @param chunks A filter on the chunk keys to remove
+     * @return The keys of the chunks which had anything recorded and were
+     *         removed
+     */
+    public long[] trim(LongPredicate chunks) {
+        long[] keys = getChunkKeys();
+        long[] kept = new long[keys.length];
+        long[] trimmed = new long[keys.length];
+        int keptCount = 0;
+        int trimmedCount = 0;
+        for (long key : keys) {
+            if (chunks.test(key)) {
+                this.trimmedChunks.add(key);
+                trimmed[trimmedCount++] = key;
+            } else {
+                kept[keptCount++] = key;
+            }
+        }
+        if (trimmedCount == 0) {
+            return new long[0];
+        }
+        this.chunkKeys = Arrays.copyOf(kept, keptCount);
+        for (Iterator<UndoSection> it = this.sections.values().iterator(); it.hasNext();) {
+            UndoSection section = it.next();
+            if (isTrimmed(section.minX, section.minZ)) {
+                this.size -= section.getCount();
+                it.remove();
+            }
+        }
+        this.lastSection = null;
+        this.tileEntities.keySet().removeIf((key) -> isTrimmed(LongHashSet.unpackX(key), LongHashSet.unpackZ(key)));
+        this.tileEntitiesAfter.keySet().removeIf((key) -> isTrimmed(LongHashSet.unpackX(key), LongHashSet.unpackZ(key)));
+        for (Iterator<BiomeColumns> it = this.biomes.values().iterator(); it.hasNext();) {
+            BiomeColumns columns = it.next();
+            if (isTrimmed(columns.minX, columns.minZ)) {
+                for (char id : columns.after) {
+                    if (id != EMPTY) {
+                        this.size--;
+                    }
+                }
+                it.remove();
+            }
+        }
+        this.lastBiomes = null;
+        for (Long key : Lists.newArrayList(this.entities.keySet())) {
+            if (this.trimmedChunks.contains(key)) {
+                this.size -= this.entities.removeAll(key).size();
+            }
+        }
+        return Arrays.copyOf(trimmed, trimmedCount);
+    }
+
+    private boolean isTrimmed(int x, int z) {
+        return !this.trimmedChunks.isEmpty() && this.trimmedChunks.contains(EditSession.chunkKey(x >> 4, z >> 4));
+    }
+
+    /**
+     * Releases any storage held by this undo, it can not be performed
+     * afterwards.
+     */
+    public void discard() {
+        this.discarded = true;
+        this.compressed = null;
+        this.loaded = null;
+        this.sections.clear();
+        this.tileEntities.clear();
+        this.tilePositions.clear();
+        this.tileEntitiesAfter.clear();
+        this.biomes.clear();
+        this.entities.clear();
+        this.restoredEntities.clear();
+        this.lastSection = null;
+        this.lastBiomes = null;
+        if (this.spillFile != null) {
+            deleteFile(this.spillFile);
+            this.spillFile = null;
+        }
+    }
+
+    /**
+     * Captures the recorded blocks so that they can be written from another
+     * thread. Must be called from the main thread before the undo is spilled
+     * to disk. Tile entity data, biomes and entities are not included.
+     */
+    public Serializer serializer() {
+        Preconditions.checkState(this.spillFile == null && this.compressed == null && !this.discarded, "Undo is no longer held in memory");
+        String[] states = new String[this.palette.getHighestId() + 1];
+        for (int id = 0; id < states.length; id++) {
+            Optional<BlockState> state = this.palette.get(id);
+            states[id] = state.isPresent() ? state.get().getId() : "";
+        }
+        return new Serializer(this.worldId, states, Lists.newArrayList(this.sections.values()));
+    }
+
+    /**
+     * Reads an undo previously written by a {@link Serializer}. Block states
+     * which are no longer registered are restored as air.
+     */
+    public static Undo read(DataInputStream in) throws IOException {
+        Undo undo = new Undo();
+        undo.worldId = new UUID(in.readLong(), in.readLong());
+        char[] remap = new char[in.readInt()];
+        for (int id = 0; id < remap.length; id++) {
+            String name = in.readUTF();
+            BlockState state = name.isEmpty() ? null : Sponge.getRegistry().getType(BlockState.class, name).orElse(null);
+            if (state == null) {
+                state = BlockTypes.AIR.getDefaultState();
+            }
+            remap[id] = (char) undo.palette.getOrAssign(state);
         }
+        readSections(in, (section) -> {
+            if (!section.remap(remap)) {
+                undo.redoable = false;
+            }
+            undo.sections.put(EditSession.sectionKey(section.minX, section.minY, section.minZ), section);
+            undo.size += section.getCount();
+        });
+        return undo;
+    }
+
+    private static void writeSections(Path file, Collection<UndoSection> sections) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(Files.newOutputStream(file))))) {
+            writeSections(out, sections);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeSections(DataOutputStream out, Collection<UndoSection> sections) throws IOException {
+        out.writeInt(sections.size());
+        for (UndoSection section : sections) {
+            section.write(out);
+        }
+    }
+
+    private static void readSections(Path file, Consumer<UndoSection> consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(Files.newInputStream(file))))) {
+            readSections(in, consumer);
+        }
+    }
+
+    private static void readSections(DataInputStream in, Consumer<UndoSection> consumer) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            consumer.accept(UndoSection.read(in));
+        }
+    }
+
+    private static void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            VoxelSniper.getLogger().warn("Could not delete undo file " + file, e);
+        }
+    }
+
+    /**
+     * Reads the recorded sections back in the background if they were moved
+     * to disk or compressed, so that the next call to
+     * {@link #prepareRestore(boolean, LongPredicate)} does not have to read
+     * them on the main thread. Must be called from the main thread, the
+     * callback is run on the main thread once the sections were read.
+     *
+     * @param callback Called once the undo can be restored without reading
+     */
+    public void load(Runnable callback) {
+        if (this.discarded || this.loaded != null || this.spillFile == null && this.compressed == null) {
+            callback.run();
+            return;
+        }
+        Path file = this.spillFile;
+        byte[] compressed = this.compressed;
+        CompletableFuture.supplyAsync(() -> readSections(file, compressed), Workers.getPool()).whenComplete((result, error) -> Workers.runOnMainThread(() -> {
+            if (error != null) {
+                VoxelSniper.getLogger().error("Error reading undo", error);
+            } else if (!this.discarded) {
+                this.loaded = result;
+            }
+            callback.run();
+        }));
+    }
+
+    /**
+     * Reads back the recorded sections of all given undos, see
+     * {@link #load(Runnable)}.
+     *
+     * @param undos The undos to load
+     * @param callback Called once all undos can be restored without reading
+     */
+    public static void load(Collection<Undo> undos, Runnable callback) {
+        // callbacks are all run on the main thread
+        int[] remaining = {undos.size() + 1};
+        Runnable loaded = () -> {
+            if (--remaining[0] == 0) {
+                callback.run();
+            }
+        };
+        for (Undo undo : undos) {
+            undo.load(loaded);
+        }
+        loaded.run();
+    }
+
+    /**
+     * Releases the sections read back by {@link #load(Runnable)} when the
+     * undo is not going to be restored after all.
+     */
+    void unload() {
+        this.loaded = null;
+    }
+
+    private static List<UndoSection> readSections(Path file, byte[] compressed) {
+        List<UndoSection> sections = Lists.newArrayList();
+        try {
+            if (file != null) {
+                readSections(file, sections::add);
+            } else {
+                try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed)))) {
+                    readSections(in, sections::add);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sections;
     }
 
     /**
@@ -146,17 +804,215 @@ public class Undo {
      * were inserted.
      */
     public void undo() {
+        for (EditSession session : prepareRestore(false)) {
+            session.flush();
+        }
+        finishRestore(false);
+    }
 
-        for (BlockSnapshot blockState : this.all) {
-            blockState.restore(true, BlockChangeFlag.NEIGHBOR);
+    /**
+     * Prepares the restoration of all recorded blocks.
+     *
+     * @see #prepareRestore(boolean, LongPredicate)
+     */
+    public List<EditSession> prepareRestore(boolean redo) {
+        return prepareRestore(redo, null);
+    }
+
+    /**
+     * Prepares the restoration of all recorded blocks, either to their state
+     * before the change or when redoing to the state they were changed to.
+     * The returned sessions have to be flushed in order, followed by a call
+     * to {@link #finishRestore(boolean)}.
+     *
+     * <p>Blocks which others rest on are placed by the first session,
+     * followed by those that would fall off and finally those that fall
+     * down. Each session writes its blocks grouped by chunk section with
+     * neighbor updates deferred until all of its blocks are written.</p>
+     *
+     * <p>Blocks which were moved to disk or compressed are read back on the
+     * calling thread unless the undo was {@link #load(Runnable) loaded}
+     * beforehand.</p>
+     *
+     * @param redo Whether to restore the states the blocks were changed to
+     * @param chunks A filter on the chunk keys to restore, or null to
+     *        restore all recorded blocks
+     */
+    public List<EditSession> prepareRestore(boolean redo, LongPredicate chunks) {
+        if (this.worldId == null || this.discarded) {
+            return Collections.emptyList();
         }
+        Optional<World> world = Sponge.getServer().getWorld(this.worldId);
+        if (!world.isPresent()) {
+            return Collections.emptyList();
+        }
+        // resolve the pass of every palette entry once rather than per block
+        int highest = this.palette.getHighestId();
+        BlockState[] states = new BlockState[highest + 1];
+        int[] passes = new int[highest + 1];
+        for (int id = 0; id <= highest; id++) {
+            Optional<BlockState> state = this.palette.get(id);
+            if (state.isPresent()) {
+                states[id] = state.get();
+                passes[id] = getPass(states[id]);
+            }
+        }
+        EditSession[] sessions = new EditSession[PASS_DROPDOWN + 1];
+        for (int pass = PASS_ALL; pass <= PASS_DROPDOWN; pass++) {
+            sessions[pass] = new EditSession(world.get(), VoxelSniper.plugin_cause);
+            sessions[pass].setDeferNeighborUpdates(true);
+        }
+        Consumer<UndoSection> collector = (section) -> {
+            long chunk = EditSession.chunkKey(section.minX >> 4, section.minZ >> 4);
+            if (chunks != null && !chunks.test(chunk) || !this.trimmedChunks.isEmpty() && this.trimmedChunks.contains(chunk)) {
+                return;
+            }
+            section.forEach(redo, (index, id) -> {
+                int x = section.minX + (index & 15);
+                int y = section.minY + (index >> 8);
+                int z = section.minZ + ((index >> 4) & 15);
+                if (!redo && !this.tilePositions.isEmpty() && this.tilePositions.contains(x, y, z)) {
+                    // restored together with their data afterwards
+                    return;
+                }
+                sessions[passes[id]].setBlock(x, y, z, states[id], BlockChangeFlag.NEIGHBOR);
+            });
+        };
+        if (this.loaded != null) {
+            this.loaded.forEach(collector);
+            this.loaded = null;
+        } else if (this.spillFile != null) {
+            // stream the sections back in chunk order
+            try {
+                readSections(this.spillFile, collector);
+            } catch (IOException e) {
+                VoxelSniper.getLogger().error("Error reading undo from " + this.spillFile, e);
+            }
+        } else if (this.compressed != null) {
+            try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(this.compressed)))) {
+                readSections(in, collector);
+            } catch (IOException e) {
+                VoxelSniper.getLogger().error("Error inflating undo", e);
+            }
+        } else {
+            this.sections.values().forEach(collector);
+        }
+        List<EditSession> result = Lists.newArrayListWithCapacity(sessions.length);
+        for (EditSession session : sessions) {
+            if (session.getChangeCount() > 0) {
+                result.add(session);
+            }
+        }
+        return result;
+    }
 
-        for (BlockSnapshot blockState : this.falloff) {
-            blockState.restore(true, BlockChangeFlag.NEIGHBOR);
+    /**
+     * Restores the recorded blocks with tile entities, biomes and entities
+     * once the sessions returned by {@link #prepareRestore(boolean)} have
+     * been flushed.
+     */
+    public void finishRestore(boolean redo) {
+        finishRestore(redo, null);
+    }
+
+    /**
+     * Restores the recorded blocks with tile entities, biomes and entities in
+     * the chunks accepted by the given filter once the sessions returned by
+     * {@link #prepareRestore(boolean, LongPredicate)} have been flushed.
+     */
+    public void finishRestore(boolean redo, LongPredicate chunks) {
+        if (this.worldId == null || this.discarded) {
+            return;
+        }
+        for (Map.Entry<Long, BlockSnapshot> tile : (redo ? this.tileEntitiesAfter : this.tileEntities).entrySet()) {
+            long key = tile.getKey();
+            if (chunks == null || chunks.test(EditSession.chunkKey(LongHashSet.unpackX(key) >> 4, LongHashSet.unpackZ(key) >> 4))) {
+                tile.getValue().restore(true, BlockChangeFlag.NEIGHBOR);
+            }
+        }
+        if (this.biomes.isEmpty() && this.entities.isEmpty()) {
+            return;
+        }
+        Optional<World> world = Sponge.getServer().getWorld(this.worldId);
+        if (!world.isPresent()) {
+            return;
+        }
+        for (Map.Entry<Long, BiomeColumns> entry : this.biomes.entrySet()) {
+            if (chunks != null && !chunks.test(entry.getKey())) {
+                continue;
+            }
+            BiomeColumns columns = entry.getValue();
+            for (int index = 0; index < columns.after.length; index++) {
+                if (columns.after[index] != EMPTY) {
+                    char id = redo ? columns.after[index] : columns.before[index];
+                    world.get().setBiome(columns.minX + (index & 15), columns.minZ + (index >> 4), this.biomePalette.get(id));
+                }
+            }
+        }
+        for (Map.Entry<Long, EntitySnapshot> entry : this.entities.entries()) {
+            if (chunks != null && !chunks.test(entry.getKey())) {
+                continue;
+            }
+            EntitySnapshot entity = entry.getValue();
+            if (redo) {
+                // restoring a snapshot may give the entity a new id, so the
+                // entity spawned by the last undo is removed if there is one
+                UUID restored = this.restoredEntities.remove(entity);
+                Optional<UUID> id = restored != null ? Optional.of(restored) : entity.getUniqueId();
+                if (id.isPresent()) {
+                    world.get().getEntity(id.get()).ifPresent(Entity::remove);
+                }
+            } else {
+                Optional<Entity> restored = entity.restore();
+                if (restored.isPresent()) {
+                    this.restoredEntities.put(entity, restored.get().getUniqueId());
+                }
+            }
+        }
+    }
+
+    /**
+     * A capture of the recorded blocks of an undo which can be written from
+     * any thread.
+     */
+    public static final class Serializer {
+
+        private final UUID worldId;
+        private final String[] states;
+        private final List<UndoSection> sections;
+
+        Serializer(UUID worldId, String[] states, List<UndoSection> sections) {
+            this.worldId = worldId;
+            this.states = states;
+            this.sections = sections;
         }
 
-        for (BlockSnapshot blockState : this.dropdown) {
-            blockState.restore(true, BlockChangeFlag.NEIGHBOR);
+        public void write(DataOutputStream out) throws IOException {
+            out.writeLong(this.worldId.getMostSignificantBits());
+            out.writeLong(this.worldId.getLeastSignificantBits());
+            out.writeInt(this.states.length);
+            for (String state : this.states) {
+                out.writeUTF(state);
+            }
+            writeSections(out, this.sections);
         }
+
+    }
+
+    private static final class BiomeColumns {
+
+        final int minX;
+        final int minZ;
+        // indexed by z << 4 | x, the biomes before are captured for the
+        // whole chunk while the biomes after are only set for changed columns
+        final char[] before = new char[16 * 16];
+        final char[] after = new char[16 * 16];
+
+        BiomeColumns(int minX, int minZ) {
+            this.minX = minX;
+            this.minZ = minZ;
+            Arrays.fill(this.after, EMPTY);
+        }
+
     }
 }
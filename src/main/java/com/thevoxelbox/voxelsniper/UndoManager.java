@@ -0,0 +1,332 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper;
+
+import com.thevoxelbox.voxelsniper.util.LongHashSet;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.format.TextColors;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.LongPredicate;
+
+/**
+ * Keeps track of the undo history of all snipers and evicts entries once
+ * their estimated memory usage exceeds
+ * {@link VoxelSniperConfiguration#UNDO_MEMORY_BUDGET_MB}, the largest and
+ * oldest first. The most recent undo of every sniper is never evicted.
+ *
+ * <p>Undos of at least {@link VoxelSniperConfiguration#UNDO_SPILL_THRESHOLD}
+ * blocks are moved to disk and only count towards the budget with what they
+ * keep on the heap.</p>
+ *
+ * <p>All tracked undos are also indexed by the chunks they touch so that the
+ * edits of every sniper within an area can be rolled back at once.</p>
+ */
+public class UndoManager {
+
+    // added to the age of an undo so that undos made moments ago are still
+    // ranked by their size, in milliseconds
+    private static final long EVICTION_AGE_OFFSET = 60000;
+
+    private final Map<Undo, Entry> entries = Maps.newLinkedHashMap();
+    // the undos touching each chunk, ordered by time so that a rollback only
+    // visits the undos made since the requested time
+    private final Map<Long, NavigableSet<Entry>> chunkIndex = Maps.newHashMap();
+    private long nextSequence;
+    private long memoryUsage;
+    private Path spillDir;
+
+    UndoManager() {
+    }
+
+    /**
+     * Sets the directory large undos are written to. Any files left over from
+     * a previous run are removed.
+     */
+    public void setSpillDirectory(Path dir) {
+        this.spillDir = dir;
+        try {
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.undo")) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+        } catch (IOException e) {
+            VoxelSniper.getLogger().error("Error preparing undo directory " + dir, e);
+            this.spillDir = null;
+        }
+    }
+
+    /**
+     * Gets the estimated number of bytes used by all tracked undos.
+     */
+    public long getMemoryUsage() {
+        return this.memoryUsage;
+    }
+
+    /**
+     * Starts tracking the given undo which was just added to the history of
+     * the given sniper and evicts older entries if the budget is exceeded.
+     */
+    public void track(Sniper sniper, Undo undo) {
+        if (this.entries.containsKey(undo)) {
+            return;
+        }
+        Entry entry = new Entry(sniper, undo, undo.getMemoryUsage(), undo.getTimestamp(), this.nextSequence++);
+        this.entries.put(undo, entry);
+        this.memoryUsage += entry.bytes;
+        index(entry);
+        if (this.spillDir != null && undo.getSize() >= VoxelSniperConfiguration.UNDO_SPILL_THRESHOLD) {
+            undo.spill(this.spillDir.resolve(UUID.randomUUID() + ".undo"), () -> update(undo));
+        }
+        evict();
+    }
+
+    /**
+     * Updates the memory usage of the given undo after its storage changed.
+     */
+    void update(Undo undo) {
+        Entry entry = this.entries.get(undo);
+        if (entry != null) {
+            long bytes = undo.getMemoryUsage();
+            this.memoryUsage += bytes - entry.bytes;
+            entry.bytes = bytes;
+        }
+    }
+
+    /**
+     * Stops tracking the given undo because it was dropped from the history
+     * of its sniper.
+     */
+    public void untrack(Undo undo) {
+        Entry entry = this.entries.remove(undo);
+        if (entry != null) {
+            this.memoryUsage -= entry.bytes;
+            unindex(entry);
+        }
+    }
+
+    private void index(Entry entry) {
+        for (long chunk : entry.undo.getChunkKeys()) {
+            this.chunkIndex.computeIfAbsent(chunk, (k) -> Sets.newTreeSet(Entry.ORDER)).add(entry);
+        }
+    }
+
+    private void unindex(Entry entry) {
+        for (long chunk : entry.undo.getChunkKeys()) {
+            NavigableSet<Entry> bucket = this.chunkIndex.get(chunk);
+            if (bucket != null && bucket.remove(entry) && bucket.isEmpty()) {
+                this.chunkIndex.remove(chunk);
+            }
+        }
+    }
+
+    /**
+     * Rolls back the edits of all snipers within the given chunks of a world
+     * which were made since the given time, newest first. Only the blocks
+     * inside of the given chunks are restored, edits which lie completely
+     * inside of them are removed from the histories of their snipers and the
+     * others are trimmed to the blocks outside of them.
+     *
+     * <p>Nothing is rolled back while any edit within the chunks is still
+     * being computed or applied. Edits which were moved to disk are read back
+     * in the background first, so the rollback is started once they are
+     * read.</p>
+     *
+     * @param requester The sniper requesting the rollback
+     * @param worldId The world to roll back in
+     * @param chunks The keys of the chunks to roll back, in the format of
+     *        {@link EditSession#chunkKey(int, int)}
+     * @param since The earliest time of edits to roll back, in milliseconds
+     *        since the epoch
+     * @return The number of edits which are rolled back, or -1 if other
+     *         edits within the chunks are still in progress
+     */
+    public int rollback(Sniper requester, UUID worldId, long[] chunks, long since) {
+        Set<Undo> found = Sets.newIdentityHashSet();
+        Entry earliest = new Entry(null, null, 0, since, Long.MIN_VALUE);
+        for (long chunk : chunks) {
+            NavigableSet<Entry> bucket = this.chunkIndex.get(chunk);
+            if (bucket == null) {
+                continue;
+            }
+            for (Entry entry : bucket.tailSet(earliest, true)) {
+                if (worldId.equals(entry.undo.getWorldId()) && entry.sniper.hasUndo(entry.undo)) {
+                    found.add(entry.undo);
+                }
+            }
+        }
+        if (found.isEmpty()) {
+            return 0;
+        }
+        List<Undo> undos = Lists.newArrayList(found);
+        Collections.sort(undos, Comparator.comparingLong(Undo::getTimestamp).reversed());
+        LongHashSet area = new LongHashSet(chunks.length);
+        for (long chunk : chunks) {
+            area.add(chunk);
+        }
+        LongPredicate filter = area::contains;
+        if (EditQueue.get().isBusy(worldId, filter)) {
+            return -1;
+        }
+        // meanwhile the rollback counts as being computed so that no other
+        // restore starts in the world
+        EditQueue.get().startComputation(requester, worldId);
+        Undo.load(undos, () -> {
+            EditQueue.get().finishComputation(requester, worldId);
+            // edits which were undone or dropped meanwhile are left alone
+            undos.removeIf((undo) -> {
+                Entry entry = this.entries.get(undo);
+                if (entry == null || !entry.sniper.hasUndo(undo)) {
+                    undo.unload();
+                    return true;
+                }
+                return false;
+            });
+            if (EditQueue.get().isBusy(worldId, filter)) {
+                undos.forEach(Undo::unload);
+                EditQueue.sendMessage(requester.getPlayerId(),
+                        Text.of(TextColors.RED, "Another edit in this area is being applied, the rollback was cancelled."));
+            } else {
+                restore(requester, undos, area);
+            }
+        });
+        return undos.size();
+    }
+
+    private void restore(Sniper requester, List<Undo> undos, LongHashSet area) {
+        LongPredicate filter = area::contains;
+        List<EditSession> sessions = Lists.newArrayList();
+        int changes = 0;
+        for (Undo undo : undos) {
+            for (EditSession session : undo.prepareRestore(false, filter)) {
+                sessions.add(session);
+                changes += session.getChangeCount();
+            }
+        }
+        Runnable finish = () -> {
+            for (Undo undo : undos) {
+                undo.finishRestore(false, filter);
+                boolean contained = true;
+                for (long chunk : undo.getChunkKeys()) {
+                    contained &= area.contains(chunk);
+                }
+                Entry entry = this.entries.get(undo);
+                if (entry == null) {
+                    continue;
+                }
+                if (contained) {
+                    entry.sniper.dropUndo(undo);
+                    untrack(undo);
+                    undo.discard();
+                } else {
+                    // the rest of the edit stays in the history, undoing it
+                    // later must not restore the rolled back area again
+                    unindex(entry);
+                    long[] trimmed = undo.trim(filter);
+                    index(entry);
+                    update(undo);
+                    EditJournal.get().logTrim(entry.sniper, undo, trimmed);
+                }
+            }
+        };
+        if (changes >= VoxelSniperConfiguration.APPLY_QUEUE_THRESHOLD) {
+            EditQueue.get().submit(requester, sessions, finish);
+        } else {
+            for (EditSession session : sessions) {
+                session.flush();
+            }
+            finish.run();
+        }
+    }
+
+    private void evict() {
+        long budget = VoxelSniperConfiguration.UNDO_MEMORY_BUDGET_MB * 1024L * 1024L;
+        if (this.memoryUsage <= budget) {
+            return;
+        }
+        // entries are ranked by their size times their age, so a single large
+        // recent undo is evicted before many small old ones and the other way
+        // round if the old ones are large as well
+        long now = System.currentTimeMillis();
+        List<Map.Entry<Undo, Entry>> candidates = Lists.newArrayList();
+        for (Map.Entry<Undo, Entry> next : this.entries.entrySet()) {
+            if (next.getValue().sniper.getLatestUndo() != next.getKey()) {
+                candidates.add(next);
+            }
+        }
+        Collections.sort(candidates, Comparator.comparingDouble((Map.Entry<Undo, Entry> next) -> (double) next.getValue().bytes
+                * (now - next.getKey().getTimestamp() + EVICTION_AGE_OFFSET)).reversed());
+        for (Iterator<Map.Entry<Undo, Entry>> it = candidates.iterator(); this.memoryUsage > budget && it.hasNext();) {
+            Map.Entry<Undo, Entry> next = it.next();
+            Undo undo = next.getKey();
+            Entry entry = next.getValue();
+            this.entries.remove(undo);
+            this.memoryUsage -= entry.bytes;
+            unindex(entry);
+            entry.sniper.dropUndo(undo);
+            undo.discard();
+        }
+    }
+
+    private static final class Entry {
+
+        // undos made at the same time are kept apart by when they were tracked
+        static final Comparator<Entry> ORDER =
+                Comparator.<Entry>comparingLong((entry) -> entry.timestamp).thenComparingLong((entry) -> entry.sequence);
+
+        final Sniper sniper;
+        final Undo undo;
+        final long timestamp;
+        final long sequence;
+        long bytes;
+
+        Entry(Sniper sniper, Undo undo, long bytes, long timestamp, long sequence) {
+            this.sniper = sniper;
+            this.undo = undo;
+            this.bytes = bytes;
+            this.timestamp = timestamp;
+            this.sequence = sequence;
+        }
+
+    }
+
+}
@@ -0,0 +1,327 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The blocks recorded by an {@link Undo} within one chunk section, as palette
+ * ids keyed by {@link EditSession#sectionIndex(int, int, int)}.
+ *
+ * <p>Sections with few recorded blocks keep them as sorted index and id
+ * pairs so that sparse edits spread over many sections do not pay for whole
+ * sections. Once more than {@link #SPARSE_LIMIT} blocks are recorded they
+ * are moved into arrays covering the whole section.</p>
+ */
+final class UndoSection {
+
+    static final char EMPTY = Character.MAX_VALUE;
+    static final int VOLUME = 16 * 16 * 16;
+    // past this the pairs take about as much memory as the full arrays and
+    // inserting into them gets slow
+    static final int SPARSE_LIMIT = 1024;
+    private static final int HEADER_BYTES = 64;
+
+    final int minX;
+    final int minY;
+    final int minZ;
+    // the sorted indices of the recorded blocks, null once dense
+    private short[] indices = new short[8];
+    private char[] ids = new char[8];
+    private char[] after;
+    private int count;
+
+    UndoSection(int minX, int minY, int minZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+    }
+
+    boolean contains(int x, int y, int z) {
+        return x >= this.minX && x < this.minX + 16 && y >= this.minY && y < this.minY + 16 && z >= this.minZ && z < this.minZ + 16;
+    }
+
+    /**
+     * Gets the number of recorded blocks.
+     */
+    int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Gets whether any block has the state it was changed to recorded.
+     */
+    boolean hasAfter() {
+        return this.after != null;
+    }
+
+    /**
+     * Gets whether the sorted pairs are used rather than the full arrays.
+     */
+    boolean isSparse() {
+        return this.indices != null;
+    }
+
+    /**
+     * Gets the id recorded before the change at the given index, or
+     * {@link #EMPTY} if the block was not recorded.
+     */
+    char get(int index) {
+        if (this.indices == null) {
+            return this.ids[index];
+        }
+        int slot = find(index);
+        return slot < 0 ? EMPTY : this.ids[slot];
+    }
+
+    /**
+     * Gets the id recorded after the change at the given index, or
+     * {@link #EMPTY} if there is none.
+     */
+    char getAfter(int index) {
+        if (this.after == null) {
+            return EMPTY;
+        }
+        if (this.indices == null) {
+            return this.after[index];
+        }
+        int slot = find(index);
+        return slot < 0 ? EMPTY : this.after[slot];
+    }
+
+    /**
+     * Records the id of the block at the given index before the change,
+     * unless the block was recorded already.
+     *
+     * @return Whether the block was not recorded before
+     */
+    boolean put(int index, char id) {
+        if (this.indices == null) {
+            if (this.ids[index] != EMPTY) {
+                return false;
+            }
+            this.ids[index] = id;
+            this.count++;
+            return true;
+        }
+        int slot = find(index);
+        if (slot >= 0) {
+            return false;
+        }
+        if (this.count == SPARSE_LIMIT) {
+            inflate();
+            return put(index, id);
+        }
+        slot = -slot - 1;
+        if (this.count == this.ids.length) {
+            int capacity = Math.min(this.ids.length * 2, SPARSE_LIMIT);
+            this.indices = Arrays.copyOf(this.indices, capacity);
+            this.ids = Arrays.copyOf(this.ids, capacity);
+            if (this.after != null) {
+                this.after = Arrays.copyOf(this.after, capacity);
+                Arrays.fill(this.after, this.count, capacity, EMPTY);
+            }
+        }
+        int moved = this.count - slot;
+        System.arraycopy(this.indices, slot, this.indices, slot + 1, moved);
+        System.arraycopy(this.ids, slot, this.ids, slot + 1, moved);
+        this.indices[slot] = (short) index;
+        this.ids[slot] = id;
+        if (this.after != null) {
+            System.arraycopy(this.after, slot, this.after, slot + 1, moved);
+            this.after[slot] = EMPTY;
+        }
+        this.count++;
+        return true;
+    }
+
+    /**
+     * Records the id of the block at the given index after the change. The
+     * block must have been recorded with {@link #put(int, char)} first.
+     */
+    void setAfter(int index, char id) {
+        if (this.after == null) {
+            this.after = new char[this.ids.length];
+            Arrays.fill(this.after, EMPTY);
+        }
+        this.after[this.indices == null ? index : find(index)] = id;
+    }
+
+    /**
+     * Passes every recorded block with its id before or after the change to
+     * the given visitor in index order, blocks without an id after the
+     * change are skipped.
+     */
+    void forEach(boolean after, Visitor visitor) {
+        char[] ids = after ? this.after : this.ids;
+        if (ids == null) {
+            return;
+        }
+        if (this.indices == null) {
+            for (int index = 0; index < VOLUME; index++) {
+                if (ids[index] != EMPTY) {
+                    visitor.visit(index, ids[index]);
+                }
+            }
+        } else {
+            for (int slot = 0; slot < this.count; slot++) {
+                if (ids[slot] != EMPTY) {
+                    visitor.visit(this.indices[slot], ids[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces every recorded id by the entry at its position in the given
+     * table.
+     *
+     * @return Whether every recorded block has an id after the change
+     */
+    boolean remap(char[] table) {
+        boolean complete = true;
+        int length = this.indices == null ? VOLUME : this.count;
+        for (int slot = 0; slot < length; slot++) {
+            if (this.ids[slot] == EMPTY) {
+                continue;
+            }
+            this.ids[slot] = table[this.ids[slot]];
+            if (this.after != null && this.after[slot] != EMPTY) {
+                this.after[slot] = table[this.after[slot]];
+            } else {
+                complete = false;
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Gets a rough estimate of the number of bytes of heap used by this
+     * section.
+     */
+    long getMemoryUsage() {
+        long bytes = HEADER_BYTES + this.ids.length * 2L;
+        if (this.indices != null) {
+            bytes += this.indices.length * 2L;
+        }
+        if (this.after != null) {
+            bytes += this.after.length * 2L;
+        }
+        return bytes;
+    }
+
+    private int find(int index) {
+        return Arrays.binarySearch(this.indices, 0, this.count, (short) index);
+    }
+
+    private void inflate() {
+        char[] ids = new char[VOLUME];
+        Arrays.fill(ids, EMPTY);
+        char[] after = null;
+        if (this.after != null) {
+            after = new char[VOLUME];
+            Arrays.fill(after, EMPTY);
+        }
+        for (int slot = 0; slot < this.count; slot++) {
+            ids[this.indices[slot]] = this.ids[slot];
+            if (after != null) {
+                after[this.indices[slot]] = this.after[slot];
+            }
+        }
+        this.indices = null;
+        this.ids = ids;
+        this.after = after;
+    }
+
+    /**
+     * Writes the section, sparse sections are written as their pairs and
+     * dense ones as whole arrays. Either way the ids are written in index
+     * order, x first, so that runs of the same state along the x axis end up
+     * next to each other in the stream.
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(this.minX);
+        out.writeInt(this.minY);
+        out.writeInt(this.minZ);
+        out.writeInt(this.count);
+        out.writeBoolean(this.after != null);
+        int length = this.indices == null ? VOLUME : this.count;
+        if (this.indices != null) {
+            for (int slot = 0; slot < length; slot++) {
+                out.writeShort(this.indices[slot]);
+            }
+        }
+        for (int slot = 0; slot < length; slot++) {
+            out.writeChar(this.ids[slot]);
+        }
+        if (this.after != null) {
+            for (int slot = 0; slot < length; slot++) {
+                out.writeChar(this.after[slot]);
+            }
+        }
+    }
+
+    /**
+     * Reads a section written by {@link #write(DataOutputStream)}.
+     */
+    static UndoSection read(DataInputStream in) throws IOException {
+        UndoSection section = new UndoSection(in.readInt(), in.readInt(), in.readInt());
+        int count = in.readInt();
+        boolean after = in.readBoolean();
+        // the representation follows from the count just as when writing
+        int length = count > SPARSE_LIMIT ? VOLUME : count;
+        section.indices = count > SPARSE_LIMIT ? null : new short[Math.max(count, 1)];
+        section.ids = new char[Math.max(length, 1)];
+        section.after = after ? new char[section.ids.length] : null;
+        if (section.indices != null) {
+            for (int slot = 0; slot < length; slot++) {
+                section.indices[slot] = in.readShort();
+            }
+        }
+        for (int slot = 0; slot < length; slot++) {
+            section.ids[slot] = in.readChar();
+        }
+        if (after) {
+            for (int slot = 0; slot < length; slot++) {
+                section.after[slot] = in.readChar();
+            }
+        }
+        section.count = count;
+        return section;
+    }
+
+    /**
+     * Receives the recorded blocks of a section.
+     */
+    interface Visitor {
+
+        void visit(int index, char id);
+
+    }
+
+}
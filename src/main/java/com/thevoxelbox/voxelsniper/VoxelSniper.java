@@ -90,11 +90,14 @@ import com.thevoxelbox.voxelsniper.command.VoxelInkCommand;
 import com.thevoxelbox.voxelsniper.command.VoxelInkReplaceCommand;
 import com.thevoxelbox.voxelsniper.command.VoxelListCommand;
 import com.thevoxelbox.voxelsniper.command.VoxelPerformerCommand;
+import com.thevoxelbox.voxelsniper.command.VoxelRedoCommand;
 import com.thevoxelbox.voxelsniper.command.VoxelReplaceCommand;
+import com.thevoxelbox.voxelsniper.command.VoxelRollbackCommand;
 import com.thevoxelbox.voxelsniper.command.VoxelSniperCommand;
 import com.thevoxelbox.voxelsniper.command.VoxelUndoCommand;
 import com.thevoxelbox.voxelsniper.command.VoxelUndoUserCommand;
 import com.thevoxelbox.voxelsniper.command.VoxelVoxelCommand;
+import com.thevoxelbox.voxelsniper.util.BlockStateRegistry;
 import com.thevoxelbox.voxelsniper.util.SchematicHelper;
 import com.thevoxelbox.voxelsniper.util.SniperStats;
 import com.thevoxelbox.voxelsniper.util.StencilUpdater;
@@ -107,6 +110,7 @@ import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.cause.Cause;
 import org.spongepowered.api.event.cause.NamedCause;
 import org.spongepowered.api.event.game.state.GameInitializationEvent;
+import org.spongepowered.api.event.game.state.GameStoppingServerEvent;
 import org.spongepowered.api.plugin.Plugin;
 import org.spongepowered.api.plugin.PluginContainer;
 
@@ -142,6 +146,7 @@ public class VoxelSniper {
     public void onInit(GameInitializationEvent event) {
         VoxelSniper.instance = this;
         plugin_cause = Cause.of(NamedCause.of("VoxelSniper", this.container));
+        BlockStateRegistry.init();
         registerBrushes();
         this.logger.info("Registered " + Brushes.get().registeredSniperBrushes() + " Sniper Brushes with "
                 + Brushes.get().registeredSniperBrushHandles() + " handles.");
@@ -153,6 +158,10 @@ public class VoxelSniper {
         }
 
         SchematicHelper.setSchematicsDir(this.configDir.resolve("schematics"));
+        SniperManager.get().getUndoManager().setSpillDirectory(this.configDir.resolve("undo"));
+        if (VoxelSniperConfiguration.EDIT_JOURNAL_ENABLED) {
+            EditJournal.get().open(this.configDir.resolve("journal"));
+        }
         File stencils = this.configDir.resolve("stencils").toFile();
         if (stencils.exists() && stencils.isDirectory()) {
             this.logger.info("Found a stencils directory, porting all stencils inside to schematics.");
@@ -166,6 +175,11 @@ public class VoxelSniper {
         registerCommands();
     }
 
+    @Listener
+    public void onServerStopping(GameStoppingServerEvent event) {
+        EditJournal.get().close();
+    }
+
     private void registerCommands() {
         // @Cleanup auto detect and load these?
         VoxelBrushCommand.setup(this);
@@ -177,7 +191,9 @@ public class VoxelSniper {
         VoxelInkReplaceCommand.setup(this);
         VoxelListCommand.setup(this);
         VoxelPerformerCommand.setup(this);
+        VoxelRedoCommand.setup(this);
         VoxelReplaceCommand.setup(this);
+        VoxelRollbackCommand.setup(this);
         VoxelSniperCommand.setup(this);
         VoxelUndoCommand.setup(this);
         VoxelUndoUserCommand.setup(this);
@@ -39,12 +39,22 @@ public class VoxelSniperConfiguration {
     public static final String PERMISSION_IGNORE_SIZE_LIMITS = "voxelsniper.ignorelimitations";
     public static final String PERMISSION_COMMAND_ENABLE = "voxelsniper.command.vs.enable";
     public static final String PERMISSION_COMMAND_UNDO_OTHER = "voxelsniper.command.uu";
+    public static final String PERMISSION_COMMAND_ROLLBACK = "voxelsniper.command.rollback";
 
     // Config
     public static double LITESNIPER_MAX_BRUSH_SIZE = 10.5;
     public static int UNDO_CACHE_SIZE = 10;
+    public static int UNDO_MEMORY_BUDGET_MB = 256;
+    public static int UNDO_SPILL_THRESHOLD = 262144;
+    public static int UNDO_COMPRESS_AGE = 2;
+    public static boolean EDIT_JOURNAL_ENABLED = true;
+    public static int EDIT_JOURNAL_COMPACT_MB = 64;
     public static boolean LOGIN_MESSAGE_ENABLED = true;
     public static int BRUSH_SIZE_WARNING_THRESHOLD = 25;
+    public static int APPLY_QUEUE_THRESHOLD = 65536;
+    public static int APPLY_TICK_BUDGET_MS = 10;
+    public static boolean BULK_EDIT_MODE = true;
+    public static int WORKER_THREADS = Runtime.getRuntime().availableProcessors() - 1;
 
     // @Spongify load from hocon container
 }
@@ -24,21 +24,35 @@
  */
 package com.thevoxelbox.voxelsniper.brush;
 
+import com.thevoxelbox.voxelsniper.EditQueue;
+import com.thevoxelbox.voxelsniper.EditSession;
 import com.thevoxelbox.voxelsniper.Message;
 import com.thevoxelbox.voxelsniper.SnipeAction;
 import com.thevoxelbox.voxelsniper.SnipeData;
+import com.thevoxelbox.voxelsniper.Sniper;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.VoxelSniper;
+import com.thevoxelbox.voxelsniper.VoxelSniperConfiguration;
+import com.thevoxelbox.voxelsniper.util.BlockAccessor;
+import com.thevoxelbox.voxelsniper.util.PositionalRandom;
+import com.thevoxelbox.voxelsniper.util.Workers;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.event.cause.Cause;
 import org.spongepowered.api.event.cause.NamedCause;
+import org.spongepowered.api.text.Text;
 import org.spongepowered.api.text.format.TextColors;
 import org.spongepowered.api.world.BlockChangeFlag;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
 /**
  * Abstract implementation of the {@link IBrush} interface.
  */
@@ -58,18 +72,21 @@ public abstract class Brush implements IBrush {
     }
 
     protected World world;
+    // the world as it was before the snipe, reads which should see the
+    // changes of the snipe so far go through the session instead
+    protected BlockAccessor blocks;
     protected Location<World> targetBlock;
     protected Location<World> lastBlock;
     protected Cause cause;
+    protected EditSession session;
     protected Undo undo;
     private String name = "Undefined";
+    private long seed;
+    private boolean fixedSeed = false;
 
     @Override
     public void perform(SnipeAction action, SnipeData data, Location<World> targetBlock, Location<World> lastBlock) {
-        this.world = targetBlock.getExtent();
-        this.targetBlock = targetBlock;
-        this.lastBlock = lastBlock;
-        this.cause = VoxelSniper.plugin_cause.with(NamedCause.source(data.owner().getPlayer()));
+        begin(data, targetBlock, lastBlock);
         switch (action) {
             case ARROW:
                 this.arrow(data);
@@ -79,12 +96,91 @@ public abstract class Brush implements IBrush {
                 break;
             default:
         }
+        finish(data);
+    }
+
+    private void begin(SnipeData data, Location<World> targetBlock, Location<World> lastBlock) {
+        this.world = targetBlock.getExtent();
+        this.targetBlock = targetBlock;
+        this.lastBlock = lastBlock;
+        this.cause = VoxelSniper.plugin_cause.with(NamedCause.source(data.owner().getPlayer()));
+        this.blocks = new BlockAccessor(this.world);
+        this.session = new EditSession(this.blocks, this.cause);
+        // in bulk mode all blocks are written without physics, updates are
+        // only scheduled around the surface of the edit once it is written
+        this.session.setDeferNeighborUpdates(VoxelSniperConfiguration.BULK_EDIT_MODE && !requiresLivePhysics());
+        data.owner().setActiveBrushName(getName());
+    }
+
+    /**
+     * Gets whether every block written by this brush has to cause physics
+     * updates with the flag it was set with as it is written, rather than
+     * once the whole edit has been written.
+     */
+    protected boolean requiresLivePhysics() {
+        return false;
+    }
+
+    private void finish(SnipeData data) {
+        if (this.session.getChangeCount() >= VoxelSniperConfiguration.APPLY_QUEUE_THRESHOLD) {
+            // large edits are spread over several ticks to not stall the server
+            EditQueue.get().submit(data.owner(), this.session);
+        } else {
+            this.session.flush();
+        }
+        reset();
+    }
+
+    private void reset() {
+        this.session = null;
         this.cause = null;
         this.world = null;
+        this.blocks = null;
         this.targetBlock = null;
         this.lastBlock = null;
     }
 
+    /**
+     * Runs the given computation on a worker thread and passes its result to
+     * {@code commit} on the main thread. The computation must not access the
+     * world or the fields of this brush, anything it needs has to be read
+     * beforehand. The commit is run with the world and target blocks of the
+     * snipe which started the computation and may write blocks as usual. If
+     * the player has left by the time the computation finishes its result is
+     * dropped.
+     *
+     * @param v Sniper caller
+     * @param compute The computation to run off the main thread
+     * @param commit The callback applying the result to the world
+     */
+    protected final <T> void computeAsync(final SnipeData v, Supplier<T> compute, BiConsumer<SnipeData, T> commit) {
+        final Location<World> targetBlock = this.targetBlock;
+        final Location<World> lastBlock = this.lastBlock;
+        final Sniper sniper = v.owner();
+        final UUID worldId = this.world.getUniqueId();
+        EditQueue.get().startComputation(sniper, worldId);
+        CompletableFuture.supplyAsync(compute, Workers.getPool()).whenComplete((result, error) -> Workers.runOnMainThread(() -> {
+            EditQueue.get().finishComputation(sniper, worldId);
+            try {
+                if (error != null) {
+                    throw error;
+                }
+                if (!Sponge.getServer().getPlayer(sniper.getPlayerId()).isPresent()) {
+                    return;
+                }
+                begin(v, targetBlock, lastBlock);
+                commit.accept(v, result);
+                finish(v);
+            } catch (Throwable e) {
+                reset();
+                this.undo = null;
+                VoxelSniper.getLogger().error("Error performing brush " + getName(), e);
+                EditQueue.sendMessage(sniper.getPlayerId(),
+                        Text.of(TextColors.DARK_RED, "Error performing brush operation, see console for details."));
+            }
+        }));
+    }
+
     /**
      * The arrow action. Executed when a player RightClicks with an Arrow
      *
@@ -101,6 +197,50 @@ public abstract class Brush implements IBrush {
     protected void powder(final SnipeData v) {
     }
 
+    /**
+     * Gets the random source for the current snipe of a procedural brush.
+     * Every snipe draws a new seed unless one was fixed with the seed
+     * parameter, the last seed is shown by {@link #seedInfo} so a snipe can
+     * be repeated exactly.
+     */
+    protected final PositionalRandom newRandom() {
+        if (!this.fixedSeed) {
+            this.seed = ThreadLocalRandom.current().nextLong();
+        }
+        return new PositionalRandom(this.seed);
+    }
+
+    /**
+     * Handles the seed parameter of procedural brushes. {@code seed[number]}
+     * fixes the seed of all following snipes, {@code seed} alone goes back
+     * to a new seed per snipe.
+     *
+     * @return Whether the parameter was a seed parameter
+     */
+    protected final boolean parseSeed(final String parameter, final SnipeData v) {
+        if (!parameter.toLowerCase().startsWith("seed")) {
+            return false;
+        }
+        String value = parameter.substring(4);
+        if (value.isEmpty()) {
+            this.fixedSeed = false;
+            v.sendMessage(TextColors.AQUA, "Seed set to random.");
+            return true;
+        }
+        try {
+            this.seed = Long.parseLong(value);
+            this.fixedSeed = true;
+            v.sendMessage(TextColors.AQUA, "Seed set to: " + this.seed);
+        } catch (NumberFormatException e) {
+            v.sendMessage(TextColors.RED, "Invalid seed given.");
+        }
+        return true;
+    }
+
+    protected final void seedInfo(final Message vm) {
+        vm.custom(TextColors.BLUE, this.fixedSeed ? "Seed set to: " + this.seed : "Seed is random, last used: " + this.seed);
+    }
+
     @Override
     public abstract void info(Message vm);
 
@@ -131,13 +271,13 @@ public abstract class Brush implements IBrush {
 
     protected void setBlockType(int x, int y, int z, BlockType type, BlockChangeFlag flag) {
         // Don't store undos if we aren't changing the block
-        if (this.world.getBlockType(x, y, z) == type) {
+        if (this.session.getBlock(x, y, z).getType() == type) {
             return;
         }
         if (this.undo != null) {
-            this.undo.put(new Location<World>(this.world, x, y, z));
+            this.undo.put(this.blocks, x, y, z, type.getDefaultState());
         }
-        this.world.setBlockType(x, y, z, type, flag, this.cause);
+        this.session.setBlock(x, y, z, type.getDefaultState(), flag);
     }
 
     protected void setBlockState(int x, int y, int z, BlockState type) {
@@ -146,12 +286,12 @@ public abstract class Brush implements IBrush {
 
     protected void setBlockState(int x, int y, int z, BlockState type, BlockChangeFlag flag) {
         // Don't store undos if we aren't changing the block
-        if (this.world.getBlock(x, y, z) == type) {
+        if (this.session.getBlock(x, y, z) == type) {
             return;
         }
         if (this.undo != null) {
-            this.undo.put(new Location<World>(this.world, x, y, z));
+            this.undo.put(this.blocks, x, y, z, type);
         }
-        this.world.setBlock(x, y, z, type, flag, this.cause);
+        this.session.setBlock(x, y, z, type, flag);
     }
 }
@@ -29,8 +29,10 @@
 package com.thevoxelbox.voxelsniper.brush;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.data.key.Key;
 import org.spongepowered.api.text.format.TextColors;
 import org.spongepowered.api.world.Location;
@@ -106,7 +108,7 @@ public abstract class PerformBrush extends Brush {
             return false;
         }
         if (this.replace != PerformerType.NONE) {
-            BlockState current = this.world.getBlock(x, y, z);
+            BlockState current = this.session.getBlock(x, y, z);
             switch (this.replace) {
                 case TYPE:
                     if (current.getType() != v.getReplaceIdState().getType()) {
@@ -131,7 +133,7 @@ public abstract class PerformBrush extends Brush {
                 setBlockType(x, y, z, v.getVoxelIdState().getType());
                 break;
             case STATE:
-                BlockState current = this.world.getBlock(x, y, z);
+                BlockState current = this.session.getBlock(x, y, z);
                 @SuppressWarnings({"unchecked", "rawtypes"})
                 Optional<BlockState> place = current.with((Key) v.getVoxelInkKey(), v.getVoxelInkValue());
                 if (!place.isPresent()) {
@@ -149,6 +151,39 @@ public abstract class PerformBrush extends Brush {
         return true;
     }
 
+    /**
+     * Performs on every block of the given region, run by run.
+     */
+    protected void performRegion(SnipeData v, Region region) {
+        region.forEachSpan((y, z, minX, maxX) -> performSpan(v, minX, maxX, y, z));
+    }
+
+    /**
+     * Performs on the run of blocks from minX to maxX, inclusive, in the given
+     * row. Runs outside of the world are skipped as a whole and when nothing
+     * is replaced the placed block is resolved once for the entire run.
+     */
+    protected void performSpan(SnipeData v, int minX, int maxX, int y, int z) {
+        if (y < 0 || y >= Brush.WORLD_HEIGHT) {
+            return;
+        }
+        if (this.replace == PerformerType.NONE && this.place == PerformerType.TYPE) {
+            BlockType type = v.getVoxelIdState().getType();
+            for (int x = minX; x <= maxX; x++) {
+                setBlockType(x, y, z, type);
+            }
+        } else if (this.replace == PerformerType.NONE && this.place == PerformerType.COMBO) {
+            BlockState state = v.getVoxelIdState();
+            for (int x = minX; x <= maxX; x++) {
+                setBlockState(x, y, z, state);
+            }
+        } else {
+            for (int x = minX; x <= maxX; x++) {
+                perform(v, x, y, z);
+            }
+        }
+    }
+
     public static enum PerformerType {
         TYPE,
         STATE,
@@ -51,7 +51,7 @@ public class CanyonBrush extends ChunkBrush {
 
     @Override
     protected void createUndo(int chunks) {
-        this.undo = new Undo(chunks * 16384);
+        this.undo = new Undo();
     }
 
     @Override
@@ -80,7 +80,7 @@ public class CanyonBrush extends ChunkBrush {
                     } else if (srcy > WORLD_HEIGHT) {
                         setBlockType(minx + x, y, minz + z, BlockTypes.AIR);
                     } else {
-                        setBlockState(minx + x, y, minz + z, this.world.getBlock(minx + x, srcy, minz + z));
+                        setBlockState(minx + x, y, minz + z, this.session.getBlock(minx + x, srcy, minz + z));
                     }
                 }
             }
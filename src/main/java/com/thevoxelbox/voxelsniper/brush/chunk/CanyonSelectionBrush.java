@@ -53,7 +53,7 @@ public class CanyonSelectionBrush extends CanyonBrush {
             v.sendMessage(TextColors.YELLOW, "Second point selected!");
             Vector3i min = other.min(this.pos);
             Vector3i max = other.max(this.pos);
-            this.undo = new Undo((max.getX() - min.getX()) * (max.getZ() - min.getZ()) * 16 * 4 * 256);
+            this.undo = new Undo();
             for (int x = min.getX(); x <= max.getX(); x++) {
                 for (int z = min.getZ(); z <= max.getZ(); z++) {
                     Optional<Chunk> chunk = this.world.getChunk(x, 0, z);
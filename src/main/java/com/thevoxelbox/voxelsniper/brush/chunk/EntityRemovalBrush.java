@@ -27,6 +27,7 @@ package com.thevoxelbox.voxelsniper.brush.chunk;
 import com.google.common.collect.Sets;
 import com.thevoxelbox.voxelsniper.Message;
 import com.thevoxelbox.voxelsniper.SnipeData;
+import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.Brush;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.entity.Entity;
@@ -61,6 +62,7 @@ public class EntityRemovalBrush extends Brush {
         int cz = this.targetBlock.getChunkPosition().getZ();
         int entityCount = 0;
         int chunkCount = 0;
+        this.undo = new Undo();
 
         if (v.getBrushSize() < 16) {
             Optional<Chunk> chunk = this.world.getChunk(cx, 0, cz);
@@ -83,6 +85,8 @@ public class EntityRemovalBrush extends Brush {
                 }
             }
         }
+        v.owner().storeUndo(this.undo);
+        this.undo = null;
 
         v.sendMessage(TextColors.GREEN, "Removed ", TextColors.RED, entityCount, TextColors.GREEN, " entities out of ", TextColors.BLUE,
                 chunkCount, TextColors.GREEN, (chunkCount == 1 ? " chunk." : " chunks."));
@@ -99,6 +103,7 @@ public class EntityRemovalBrush extends Brush {
             if (exempt.contains(type)) {
                 continue;
             }
+            this.undo.putEntity(entity);
             entity.remove();
             entityCount++;
         }
@@ -48,7 +48,7 @@ public class FlatOceanBrush extends ChunkBrush {
 
     @Override
     protected void createUndo(int chunks) {
-        this.undo = new Undo(chunks * 16384);
+        this.undo = new Undo();
     }
 
     @Override
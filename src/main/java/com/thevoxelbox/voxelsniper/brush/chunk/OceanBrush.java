@@ -29,6 +29,7 @@ import com.thevoxelbox.voxelsniper.Message;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.util.BlockHelper;
+import com.thevoxelbox.voxelsniper.util.BlockStateRegistry;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.block.BlockTypes;
@@ -55,6 +56,9 @@ public class OceanBrush extends ChunkBrush {
         EXCLUDED_MATERIALS.add(BlockTypes.PUMPKIN);
     }
 
+    private static final BlockStateRegistry.Table FLOOR = BlockStateRegistry.table((state) -> !BlockHelper.isLiquidOrGas(state)
+            && (BlockHelper.isSolid(state) || EXCLUDED_MATERIALS.contains(state.getType())));
+
     private int waterLevel = WATER_LEVEL_DEFAULT;
     private boolean coverFloor = false;
 
@@ -64,7 +68,7 @@ public class OceanBrush extends ChunkBrush {
 
     @Override
     protected void createUndo(int chunks) {
-        this.undo = new Undo(chunks * 16384);
+        this.undo = new Undo();
     }
 
     @Override
@@ -75,7 +79,7 @@ public class OceanBrush extends ChunkBrush {
 
     private int getActualHeight(final int bx, final int bz) {
         for (int y = WORLD_HEIGHT; y > 0; y--) {
-            BlockState state = this.world.getBlock(bx, y, bz);
+            BlockState state = this.session.getBlock(bx, y, bz);
             if (state.getType() == BlockTypes.AIR) {
                 return y;
             }
@@ -85,14 +89,8 @@ public class OceanBrush extends ChunkBrush {
 
     private int getHeight(final int bx, final int bz, int start) {
         for (int y = start; y > 0; y--) {
-            BlockState state = this.world.getBlock(bx, y, bz);
-            if (!BlockHelper.isLiquidOrGas(state)) {
-                if (BlockHelper.isSolid(state)) {
-                    return y;
-                }
-                if (EXCLUDED_MATERIALS.contains(state.getType())) {
-                    return y;
-                }
+            if (FLOOR.test(this.session.getBlock(bx, y, bz))) {
+                return y;
             }
         }
         return 0;
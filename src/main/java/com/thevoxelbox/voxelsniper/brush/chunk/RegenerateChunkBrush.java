@@ -41,7 +41,7 @@ public class RegenerateChunkBrush extends ChunkBrush {
 
     @Override
     protected void createUndo(int chunks) {
-        this.undo = new Undo(chunks * 16384);
+        this.undo = new Undo();
     }
 
     @Override
@@ -27,6 +27,7 @@ package com.thevoxelbox.voxelsniper.brush.misc;
 import com.flowpowered.math.GenericMath;
 import com.thevoxelbox.voxelsniper.Message;
 import com.thevoxelbox.voxelsniper.SnipeData;
+import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.Brush;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.text.format.TextColors;
@@ -59,17 +60,19 @@ public class BiomeBrush extends Brush {
         int minz = GenericMath.floor(this.targetBlock.getBlockZ() - brushSize);
         int maxz = GenericMath.floor(this.targetBlock.getBlockZ() + brushSize) + 1;
 
-        // @Robustness undo capturing for biome changes
-
+        this.undo = new Undo();
         for (int x = minx; x <= maxx; x++) {
             double xs = (tx - x) * (tx - x);
             for (int z = minz; z <= maxz; z++) {
                 double zs = (tz - z) * (tz - z);
                 if ((xs + zs) <= brushSizeSquared) {
+                    this.undo.putBiome(this.world, x, z, this.selectedBiome);
                     this.world.setBiome(x, z, this.selectedBiome);
                 }
             }
         }
+        v.owner().storeUndo(this.undo);
+        this.undo = null;
     }
 
     @Override
@@ -29,6 +29,8 @@ import com.thevoxelbox.voxelsniper.Message;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.Brush;
+import com.thevoxelbox.voxelsniper.util.ShapeMask;
+import com.thevoxelbox.voxelsniper.util.VolumeIterator;
 import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.world.Location;
@@ -45,7 +47,7 @@ public class CleanSnowBrush extends Brush {
 
     private void cleanSnow(SnipeData v, Location<World> targetBlock) {
         double brushSize = v.getBrushSize();
-        double brushSizeSquared = brushSize * brushSize;
+        ShapeMask mask = ShapeMask.sphere(brushSize);
 
         int tx = targetBlock.getBlockX();
         int ty = targetBlock.getBlockY();
@@ -60,27 +62,20 @@ public class CleanSnowBrush extends Brush {
             miny = 1;
         }
         // Approximate the size of the undo
-        this.undo = new Undo(GenericMath.floor(Math.PI * (brushSize + 1) * (brushSize + 1) * (brushSize + 1) / 3));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = minx; x <= maxx; x++) {
-            double xs = (tx - x) * (tx - x);
-            for (int z = minz; z <= maxz; z++) {
-                double zs = (tz - z) * (tz - z);
-                for (int y = maxy; y >= miny; y--) {
-                    double ys = (ty - y) * (ty - y);
-                    if (xs + ys + zs < brushSizeSquared) {
-                        if(this.world.getBlockType(x, y, z) == BlockTypes.SNOW_LAYER) {
-                            BlockType below = this.world.getBlockType(x, y - 1, z);
-                            if (below == BlockTypes.SNOW_LAYER || below == BlockTypes.AIR) {
-                                setBlockType(x, y, z, BlockTypes.AIR);
-                            }
-                        }
+        VolumeIterator.forEach(minx, miny, minz, maxx, maxy, maxz, (x, y, z) -> {
+            if (mask.contains(x - tx, y - ty, z - tz)) {
+                if(this.session.getBlockType(x, y, z) == BlockTypes.SNOW_LAYER) {
+                    BlockType below = this.session.getBlockType(x, y - 1, z);
+                    if (below == BlockTypes.SNOW_LAYER || below == BlockTypes.AIR) {
+                        setBlockType(x, y, z, BlockTypes.AIR);
                     }
                 }
             }
-        }
+        });
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
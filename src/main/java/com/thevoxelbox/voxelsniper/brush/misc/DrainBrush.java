@@ -29,6 +29,7 @@ import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.Brush;
 import com.thevoxelbox.voxelsniper.util.BlockHelper;
+import com.thevoxelbox.voxelsniper.util.VolumeIterator;
 
 import com.flowpowered.math.GenericMath;
 import org.spongepowered.api.block.BlockState;
@@ -55,20 +56,16 @@ public class DrainBrush extends Brush {
         int minz = GenericMath.floor(targetBlock.getBlockZ() - brushSize);
         int maxz = GenericMath.floor(targetBlock.getBlockZ() + brushSize) + 1;
 
-        this.undo = new Undo(GenericMath.floor(8 * (brushSize + 1) * (brushSize + 1) * (brushSize + 1)));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = minx; x <= maxx; x++) {
-            for (int z = minz; z <= maxz; z++) {
-                for (int y = maxy; y >= miny; y--) {
-                    BlockState block = this.world.getBlock(x, y, z);
-                    if (BlockHelper.isLiquid(block)) {
-                        setBlockType(x, y, z, BlockTypes.AIR);
-                    }
-                }
+        VolumeIterator.forEach(minx, miny, minz, maxx, maxy, maxz, (x, y, z) -> {
+            BlockState block = this.session.getBlock(x, y, z);
+            if (BlockHelper.isLiquid(block)) {
+                setBlockType(x, y, z, BlockTypes.AIR);
             }
-        }
+        });
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
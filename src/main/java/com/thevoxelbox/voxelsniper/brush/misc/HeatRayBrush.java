@@ -29,6 +29,10 @@ import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.Brush;
 import com.thevoxelbox.voxelsniper.util.BlockHelper;
+import com.thevoxelbox.voxelsniper.util.BlockStateRegistry;
+import com.thevoxelbox.voxelsniper.util.PositionalRandom;
+import com.thevoxelbox.voxelsniper.util.ShapeMask;
+import com.thevoxelbox.voxelsniper.util.VolumeIterator;
 
 import com.flowpowered.math.GenericMath;
 import com.flowpowered.noise.NoiseQuality;
@@ -53,6 +57,7 @@ public class HeatRayBrush extends Brush {
     private static final double REQUIRED_FIRE_DENSITY = 0.1;
 
     private static final Set<BlockType> FLAMABLE_BLOCKS = new HashSet<BlockType>();
+    private static final BlockStateRegistry.Table FLAMABLE;
 
     static {
         FLAMABLE_BLOCKS.add(BlockTypes.WALL_SIGN);
@@ -99,6 +104,8 @@ public class HeatRayBrush extends Brush {
         FLAMABLE_BLOCKS.add(BlockTypes.SPRUCE_FENCE);
         FLAMABLE_BLOCKS.add(BlockTypes.SPRUCE_FENCE_GATE);
         FLAMABLE_BLOCKS.add(BlockTypes.SPRUCE_STAIRS);
+
+        FLAMABLE = BlockStateRegistry.table((state) -> FLAMABLE_BLOCKS.contains(state.getType()));
     }
 
     private Perlin perlin = new Perlin();
@@ -113,9 +120,15 @@ public class HeatRayBrush extends Brush {
         this.perlin.setNoiseQuality(NoiseQuality.STANDARD);
     }
 
+    @Override
+    protected boolean requiresLivePhysics() {
+        // the placed fire has to be scheduled to burn
+        return true;
+    }
+
     public void heatRay(SnipeData v, Location<World> targetBlock) {
         double brushSize = v.getBrushSize();
-        double brushSizeSquared = brushSize * brushSize;
+        ShapeMask mask = ShapeMask.sphere(brushSize);
 
         int tx = targetBlock.getBlockX();
         int ty = targetBlock.getBlockY();
@@ -127,44 +140,43 @@ public class HeatRayBrush extends Brush {
         int minz = GenericMath.floor(targetBlock.getBlockZ() - brushSize);
         int maxz = GenericMath.floor(targetBlock.getBlockZ() + brushSize) + 1;
 
+        // The noise is a pure function of position, so the seed alone decides
+        // the pattern. It only takes an int, so the seed is mixed first to
+        // keep both halves of it.
+        this.perlin.setSeed((int) PositionalRandom.mix(newRandom().getSeed()));
+
         // Approximate the size of the undo to the volume of a one larger sphere
-        this.undo = new Undo(GenericMath.floor(4 * Math.PI * (brushSize + 1) * (brushSize + 1) * (brushSize + 1) / 3));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = minx; x <= maxx; x++) {
-            double xs = (tx - x) * (tx - x);
-            for (int y = miny; y <= maxy; y++) {
-                double ys = (ty - y) * (ty - y);
-                for (int z = minz; z <= maxz; z++) {
-                    double zs = (tz - z) * (tz - z);
-                    if (xs + ys + zs < brushSizeSquared) {
-                        BlockState current = this.world.getBlock(x, y, z);
-                        if (current.getType() == BlockTypes.AIR) {
-                            continue;
-                        }
-                        if (BlockHelper.isLiquid(current)) {
-                            setBlockType(x, y, z, BlockTypes.AIR);
-                            continue;
-                        }
-                        if (FLAMABLE_BLOCKS.contains(current.getType())) {
-                            setBlockType(x, y, z, BlockTypes.FIRE);
-                            continue;
-                        }
-                        double noise = this.perlin.getValue(x, y, z);
-                        if (noise >= REQUIRED_OBSIDIAN_DENSITY) {
-                            setBlockType(x, y, z, BlockTypes.OBSIDIAN);
-                        } else if (noise >= REQUIRED_COBBLE_DENSITY) {
-                            setBlockType(x, y, z, BlockTypes.COBBLESTONE);
-                        } else if (noise >= REQUIRED_FIRE_DENSITY) {
-                            setBlockType(x, y, z, BlockTypes.FIRE);
-                        } else {
-                            setBlockType(x, y, z, BlockTypes.AIR);
-                        }
-                    }
+        VolumeIterator.forEach(minx, miny, minz, maxx, maxy, maxz, (x, y, z) -> {
+            if (mask.contains(x - tx, y - ty, z - tz)) {
+                BlockState current = this.session.getBlock(x, y, z);
+                if (current.getType() == BlockTypes.AIR) {
+                    return;
+                }
+                int id = BlockStateRegistry.getId(current);
+                if (BlockHelper.LIQUID.test(id)) {
+                    setBlockType(x, y, z, BlockTypes.AIR);
+                    return;
+                }
+                if (FLAMABLE.test(id)) {
+                    setBlockType(x, y, z, BlockTypes.FIRE);
+                    return;
+                }
+                double noise = this.perlin.getValue(x, y, z);
+                if (noise >= REQUIRED_OBSIDIAN_DENSITY) {
+                    setBlockType(x, y, z, BlockTypes.OBSIDIAN);
+                } else if (noise >= REQUIRED_COBBLE_DENSITY) {
+                    setBlockType(x, y, z, BlockTypes.COBBLESTONE);
+                } else if (noise >= REQUIRED_FIRE_DENSITY) {
+                    setBlockType(x, y, z, BlockTypes.FIRE);
+                } else {
+                    setBlockType(x, y, z, BlockTypes.AIR);
                 }
             }
-        }
+        });
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -186,6 +198,7 @@ public class HeatRayBrush extends Brush {
         vm.custom(TextColors.GREEN, "Octaves: " + this.octaves);
         vm.custom(TextColors.GREEN, "Persistence: " + this.persistence);
         vm.custom(TextColors.GREEN, "Frequency: " + this.frequency);
+        seedInfo(vm);
         vm.size();
     }
 
@@ -199,8 +212,11 @@ public class HeatRayBrush extends Brush {
                 v.sendMessage(TextColors.AQUA + "/b hr oct[int] -- Octaves parameter for the noise generator.");
                 v.sendMessage(TextColors.AQUA + "/b hr pers[float] -- Persistence parameter for the noise generator.");
                 v.sendMessage(TextColors.AQUA + "/b hr freq[float] -- Frequency parameter for the noise generator.");
+                v.sendMessage(TextColors.AQUA + "/b hr seed[long] -- fix the noise seed, seed alone picks a new one per snipe.");
             }
-            if (parameter.startsWith("oct")) {
+            if (parseSeed(parameter, v)) {
+                continue;
+            } else if (parameter.startsWith("oct")) {
                 try {
                     this.octaves = Integer.valueOf(parameter.replace("oct", ""));
                     this.perlin.setOctaveCount(this.octaves);
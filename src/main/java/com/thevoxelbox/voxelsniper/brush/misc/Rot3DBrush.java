@@ -30,6 +30,8 @@ import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.Brush;
 import com.thevoxelbox.voxelsniper.util.BlockBuffer;
 import com.thevoxelbox.voxelsniper.util.Rot3d;
+import com.thevoxelbox.voxelsniper.util.VolumeIterator;
+import com.thevoxelbox.voxelsniper.util.WorldSnapshot;
 
 import com.flowpowered.math.GenericMath;
 import com.flowpowered.math.vector.Vector3d;
@@ -118,37 +120,40 @@ public class Rot3DBrush extends Brush {
         int ty = targetBlock.getBlockY();
         int tz = targetBlock.getBlockZ();
 
-        BlockBuffer buffer = new BlockBuffer(new Vector3i(-brushSize, -brushSize, -brushSize), new Vector3i(brushSize, brushSize, brushSize));
-
-        for (int x = -brushSize; x <= brushSize; x++) {
-            int x0 = tx + x;
-            for (int y = -brushSize; y <= brushSize; y++) {
-                int y0 = ty + y;
-                for (int z = -brushSize; z <= brushSize; z++) {
-                    int z0 = tz + z;
-                    if (x * x + y * y + z * z >= brushSizeSquared) {
-                        continue;
+        WorldSnapshot snapshot = WorldSnapshot.capture(this.world, new Vector3i(tx - brushSize, ty - brushSize, tz - brushSize),
+                new Vector3i(tx + brushSize, ty + brushSize, tz + brushSize));
+
+        // the rotation only works on the snapshot so it is run off the main
+        // thread
+        final Rot3d rotUtil = this.rotUtil;
+        computeAsync(v, () -> {
+            BlockBuffer buffer = new BlockBuffer(new Vector3i(-brushSize, -brushSize, -brushSize), new Vector3i(brushSize, brushSize, brushSize));
+            for (int x = -brushSize; x <= brushSize; x++) {
+                for (int y = -brushSize; y <= brushSize; y++) {
+                    for (int z = -brushSize; z <= brushSize; z++) {
+                        if (x * x + y * y + z * z >= brushSizeSquared) {
+                            continue;
+                        }
+                        Vector3d rot = rotUtil.rotate(x, y, z);
+                        buffer.set(x + rot.getFloorX(), y + rot.getFloorY(), z + rot.getFloorZ(), snapshot.getBlock(tx + x, ty + y, tz + z));
                     }
-                    Vector3d rot = this.rotUtil.rotate(x, y, z);
-                    buffer.set(x + rot.getFloorX(), y + rot.getFloorY(), z + rot.getFloorZ(), this.world.getBlock(x0, y0, z0));
                 }
             }
-        }
+            return buffer;
+        }, (data, buffer) -> applyRotation(data, buffer, brushSize, tx, ty, tz));
+    }
 
-        this.undo = new Undo(buffer.getBlockCount());
+    private void applyRotation(final SnipeData v, BlockBuffer buffer, int brushSize, int tx, int ty, int tz) {
+        this.undo = new Undo();
         // apply the buffer to the world
-        for (int x = -brushSize; x <= brushSize; x++) {
-            int x0 = x + tx;
-            for (int y = -brushSize; y <= brushSize; y++) {
-                int y0 = y + ty;
-                for (int z = -brushSize; z <= brushSize; z++) {
-                    int z0 = z + tz;
-                    if (buffer.contains(x, y, z)) {
-                        setBlockState(x0, y0, z0, buffer.get(x, y, z));
-                    }
-                }
+        VolumeIterator.forEach(tx - brushSize, ty - brushSize, tz - brushSize, tx + brushSize, ty + brushSize, tz + brushSize, (x0, y0, z0) -> {
+            int x = x0 - tx;
+            int y = y0 - ty;
+            int z = z0 - tz;
+            if (buffer.contains(x, y, z)) {
+                setBlockState(x0, y0, z0, buffer.get(x, y, z));
             }
-        }
+        });
         v.owner().storeUndo(this.undo);
         this.undo = null;
     }
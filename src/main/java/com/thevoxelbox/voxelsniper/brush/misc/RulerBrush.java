@@ -54,9 +54,9 @@ public class RulerBrush extends Brush {
             v.sendMessage(TextColors.DARK_PURPLE + "First point selected.");
             this.pos = this.targetBlock.getBlockPosition();
         } else {
-            final Undo undo = new Undo(1);
+            final Undo undo = new Undo();
             Location<World> target = this.targetBlock.add(this.xOff, this.yOff, this.zOff);
-            undo.put(target);
+            undo.put(target, v.getVoxelIdState());
             target.setBlock(v.getVoxelIdState(), this.cause);
             v.owner().storeUndo(undo);
         }
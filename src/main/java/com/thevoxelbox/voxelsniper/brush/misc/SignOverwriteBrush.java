@@ -28,7 +28,10 @@ import com.flowpowered.math.GenericMath;
 import com.google.common.collect.Lists;
 import com.thevoxelbox.voxelsniper.Message;
 import com.thevoxelbox.voxelsniper.SnipeData;
+import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.Brush;
+import com.thevoxelbox.voxelsniper.util.ShapeMask;
+import com.thevoxelbox.voxelsniper.util.VolumeIterator;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.block.tileentity.Sign;
@@ -56,7 +59,7 @@ public class SignOverwriteBrush extends Brush {
 
     private void setRanged(final SnipeData v, Location<World> targetBlock) {
         double brushSize = v.getBrushSize();
-        double brushSizeSquared = brushSize * brushSize;
+        ShapeMask mask = ShapeMask.sphere(brushSize);
 
         int tx = targetBlock.getBlockX();
         int ty = targetBlock.getBlockY();
@@ -68,29 +71,27 @@ public class SignOverwriteBrush extends Brush {
         int minz = GenericMath.floor(targetBlock.getBlockZ() - brushSize);
         int maxz = GenericMath.floor(targetBlock.getBlockZ() + brushSize) + 1;
 
-        boolean signFound = false;
-        for (int x = minx; x <= maxx; x++) {
-            double xs = (tx - x) * (tx - x);
-            for (int y = miny; y <= maxy; y++) {
-                double ys = (ty - y) * (ty - y);
-                for (int z = minz; z <= maxz; z++) {
-                    double zs = (tz - z) * (tz - z);
-                    if (xs + ys + zs < brushSizeSquared) {
-                        BlockState block = this.world.getBlock(x, y, z);
-                        if (block.getType() == BlockTypes.STANDING_SIGN || block.getType() == BlockTypes.WALL_SIGN) {
-                            Optional<TileEntity> te = this.world.getTileEntity(x, y, z);
-                            if (te.isPresent()) {
-                                Sign sign = (Sign) te.get();
-                                SignData data = sign.getSignData();
-                                data.set(Keys.SIGN_LINES, this.signTextLines);
-                                sign.offer(data);
-                                signFound = true;
-                            }
-                        }
+        this.undo = new Undo();
+        VolumeIterator.forEach(minx, miny, minz, maxx, maxy, maxz, (x, y, z) -> {
+            if (mask.contains(x - tx, y - ty, z - tz)) {
+                BlockState block = this.session.getBlock(x, y, z);
+                if (block.getType() == BlockTypes.STANDING_SIGN || block.getType() == BlockTypes.WALL_SIGN) {
+                    Optional<TileEntity> te = this.world.getTileEntity(x, y, z);
+                    if (te.isPresent()) {
+                        Sign sign = (Sign) te.get();
+                        this.undo.put(this.world, x, y, z, block);
+                        SignData data = sign.getSignData();
+                        data.set(Keys.SIGN_LINES, this.signTextLines);
+                        sign.offer(data);
+                        this.undo.putAfter(this.world, x, y, z);
                     }
                 }
             }
-        }
+        });
+        // only signs are recorded
+        boolean signFound = this.undo.getSize() > 0;
+        v.owner().storeUndo(this.undo);
+        this.undo = null;
 
         if (!signFound) {
             v.sendMessage(TextColors.RED + "Did not found any sign in selection box.");
@@ -56,7 +56,7 @@ public class SnowConeBrush extends Brush {
         int minz = GenericMath.floor(targetBlock.getBlockZ() - brushSize);
         int maxz = GenericMath.floor(targetBlock.getBlockZ() + brushSize) + 1;
 
-        this.undo = new Undo(GenericMath.floor((brushSize + 1) * (brushSize + 1)));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
@@ -68,19 +68,19 @@ public class SnowConeBrush extends Brush {
                     int y = maxy;
                     boolean topFound = false;
                     for (; y >= miny; y--) {
-                        if (this.world.getBlockType(x, y, z) != BlockTypes.AIR) {
+                        if (this.session.getBlockType(x, y, z) != BlockTypes.AIR) {
                             topFound = true;
                             break;
                         }
                     }
                     if (topFound) {
                         if (y == maxy) {
-                            BlockType above = this.world.getBlock(x, y + 1, z).getType();
+                            BlockType above = this.session.getBlock(x, y + 1, z).getType();
                             if (above != BlockTypes.AIR) {
                                 continue;
                             }
                         }
-                        BlockState block = this.world.getBlock(x, y, z);
+                        BlockState block = this.session.getBlock(x, y, z);
                         if (block.getType() != BlockTypes.SNOW_LAYER) {
                             setBlockType(x, y + 1, z, BlockTypes.SNOW_LAYER);
                         } else {
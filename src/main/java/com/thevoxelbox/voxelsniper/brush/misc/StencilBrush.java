@@ -136,7 +136,7 @@ public class StencilBrush extends Brush {
             }
             this.lastMod = this.file.lastModified();
         }
-        this.undo = new Undo(this.schematic.getBlockSize().getX() * this.schematic.getBlockSize().getY() * this.schematic.getBlockSize().getZ());
+        this.undo = new Undo();
         if (this.pasteOption == PasteOption.FULL) {
             this.schematic.getBlockWorker(this.cause).iterate((e, x, y, z) -> {
                 setBlockState(x + this.targetBlock.getBlockX(), y + this.targetBlock.getBlockY(),
@@ -71,7 +71,7 @@ public class TreeSnipeBrush extends Brush {
     private int getYOffset() {
         int y = 1;
         for (int y0 = this.targetBlock.getBlockY() + y; y0 < Brush.WORLD_HEIGHT; y0 = this.targetBlock.getBlockY() + (++y)) {
-            if (this.world.getBlockType(this.targetBlock.getBlockX(), y0, this.targetBlock.getBlockZ()) == BlockTypes.AIR) {
+            if (this.session.getBlockType(this.targetBlock.getBlockX(), y0, this.targetBlock.getBlockZ()) == BlockTypes.AIR) {
                 break;
             }
         }
@@ -25,10 +25,10 @@
 package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
-import com.flowpowered.math.GenericMath;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
@@ -43,35 +43,13 @@ public class BallBrush extends PerformBrush {
 
     private void ball(SnipeData v, Location<World> targetBlock) {
         double brushSize = v.getBrushSize();
-        double brushSizeSquared = brushSize * brushSize;
-
-        int tx = targetBlock.getBlockX();
-        int ty = targetBlock.getBlockY();
-        int tz = targetBlock.getBlockZ();
-        int minx = GenericMath.floor(targetBlock.getBlockX() - brushSize);
-        int maxx = GenericMath.floor(targetBlock.getBlockX() + brushSize) + 1;
-        int miny = Math.max(GenericMath.floor(targetBlock.getBlockY() - brushSize), 0);
-        int maxy = Math.min(GenericMath.floor(targetBlock.getBlockY() + brushSize) + 1, WORLD_HEIGHT);
-        int minz = GenericMath.floor(targetBlock.getBlockZ() - brushSize);
-        int maxz = GenericMath.floor(targetBlock.getBlockZ() + brushSize) + 1;
 
         // Approximate the size of the undo to the volume of a one larger sphere
-        this.undo = new Undo(GenericMath.floor(4 * Math.PI * (brushSize + 1) * (brushSize + 1) * (brushSize + 1) / 3));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = maxx; x >= minx; x--) {
-            double xs = (tx - x) * (tx - x);
-            for (int y = maxy; y >= miny; y--) {
-                double ys = (ty - y) * (ty - y);
-                for (int z = maxz; z >= minz; z--) {
-                    double zs = (tz - z) * (tz - z);
-                    if (xs + ys + zs < brushSizeSquared) {
-                        perform(v, x, y, z);
-                    }
-                }
-            }
-        }
+        performRegion(v, Region.sphere(targetBlock.getBlockX(), targetBlock.getBlockY(), targetBlock.getBlockZ(), brushSize));
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
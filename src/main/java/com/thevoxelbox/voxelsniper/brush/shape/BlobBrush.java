@@ -25,44 +25,38 @@
 package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
+import com.thevoxelbox.voxelsniper.util.CellularAutomaton;
+import com.thevoxelbox.voxelsniper.util.PositionalRandom;
 import org.spongepowered.api.text.format.TextColors;
 
-import java.util.Random;
-
 public class BlobBrush extends PerformBrush {
 
     private static final double GROW_PERCENT_DEFAULT = 0.1;
     private static final double GROW_PERCENT_MIN = 0.0;
     private static final double GROW_PERCENT_MAX = 1.0;
 
-    private Random randomGenerator = new Random();
     private double growPercent = GROW_PERCENT_DEFAULT;
 
     public BlobBrush() {
         this.setName("Blob");
     }
 
-    private void digBlob(final SnipeData v) {
-        // @Cleanup change these 3d arrays to BlockBuffers
-        final int brushSize = (int) v.getBrushSize();
+    private static CellularAutomaton digBlob(final int brushSize, final double growPercent, final PositionalRandom random) {
         final int brushSizeDoubled = 2 * brushSize;
-        final int[][][] splat = new int[brushSizeDoubled + 1][brushSizeDoubled + 1][brushSizeDoubled + 1];
-        final int[][][] tempSplat = new int[brushSizeDoubled + 1][brushSizeDoubled + 1][brushSizeDoubled + 1];
-
-        this.undo = new Undo(brushSizeDoubled * brushSizeDoubled * brushSizeDoubled);
+        final CellularAutomaton splat = new CellularAutomaton(brushSizeDoubled + 1, brushSizeDoubled + 1, brushSizeDoubled + 1);
 
-        // Seed the array
+        // Seed the array, with a separate stream from the growth steps
+        final PositionalRandom border = random.split(0);
         for (int x = brushSizeDoubled; x >= 0; x--) {
             for (int y = brushSizeDoubled; y >= 0; y--) {
                 for (int z = brushSizeDoubled; z >= 0; z--) {
-                    if ((x == 0 || y == 0 | z == 0 || x == brushSizeDoubled || y == brushSizeDoubled || z == brushSizeDoubled)
-                            && this.randomGenerator.nextDouble() <= this.growPercent) {
-                        splat[x][y][z] = 0;
-                    } else {
-                        splat[x][y][z] = 1;
+                    if (!(x == 0 || y == 0 | z == 0 || x == brushSizeDoubled || y == brushSizeDoubled || z == brushSizeDoubled)
+                            || border.nextDouble(x, y, z, 0) > growPercent) {
+                        splat.set(x, y, z, true);
                     }
                 }
             }
@@ -70,146 +64,44 @@ public class BlobBrush extends PerformBrush {
 
         // Grow the seed
         for (int r = 0; r < brushSize; r++) {
-            for (int x = brushSizeDoubled; x >= 0; x--) {
-                for (int y = brushSizeDoubled; y >= 0; y--) {
-                    for (int z = brushSizeDoubled; z >= 0; z--) {
-                        tempSplat[x][y][z] = splat[x][y][z];
-                        double growCheck = 0;
-                        if (splat[x][y][z] == 1) {
-                            if (x != 0 && splat[x - 1][y][z] == 0) {
-                                growCheck++;
-                            }
-                            if (y != 0 && splat[x][y - 1][z] == 0) {
-                                growCheck++;
-                            }
-                            if (z != 0 && splat[x][y][z - 1] == 0) {
-                                growCheck++;
-                            }
-                            if (x != 2 * brushSize && splat[x + 1][y][z] == 0) {
-                                growCheck++;
-                            }
-                            if (y != 2 * brushSize && splat[x][y + 1][z] == 0) {
-                                growCheck++;
-                            }
-                            if (z != 2 * brushSize && splat[x][y][z + 1] == 0) {
-                                growCheck++;
-                            }
-                        }
-
-                        if (growCheck >= 1 && this.randomGenerator.nextDouble() <= this.growPercent) {
-                            tempSplat[x][y][z] = 0; // prevent bleed into splat
-                        }
-                    }
-                }
-            }
-
-            // integrate tempsplat back into splat at end of iteration
-            for (int x = brushSizeDoubled; x >= 0; x--) {
-                for (int y = brushSizeDoubled; y >= 0; y--) {
-                    for (int z = brushSizeDoubled; z >= 0; z--) {
-                        splat[x][y][z] = tempSplat[x][y][z];
-                    }
-                }
-            }
+            splat.shrink(growPercent, random);
         }
-
-        final double rSquared = Math.pow(brushSize + 1, 2);
-
-        // Make the changes
-        for (int x = brushSizeDoubled; x >= 0; x--) {
-            final double xSquared = Math.pow(x - brushSize - 1, 2);
-
-            for (int y = brushSizeDoubled; y >= 0; y--) {
-                final double ySquared = Math.pow(y - brushSize - 1, 2);
-
-                for (int z = brushSizeDoubled; z >= 0; z--) {
-                    if (splat[x][y][z] == 1 && xSquared + ySquared + Math.pow(z - brushSize - 1, 2) <= rSquared) {
-                        perform(v, this.targetBlock.getBlockX() - brushSize + x, this.targetBlock.getBlockY() - brushSize + z,
-                                this.targetBlock.getBlockZ() - brushSize + y);
-                    }
-                }
-            }
-        }
-
-        v.owner().storeUndo(this.undo);
-        this.undo = null;
+        return splat;
     }
 
-    private void growBlob(final SnipeData v) {
-        final int brushSize = (int) v.getBrushSize();
+    private static CellularAutomaton growBlob(final int brushSize, final double growPercent, final PositionalRandom random) {
         final int brushSizeDoubled = 2 * brushSize;
-        final int[][][] splat = new int[brushSizeDoubled + 1][brushSizeDoubled + 1][brushSizeDoubled + 1];
-        final int[][][] tempSplat = new int[brushSizeDoubled + 1][brushSizeDoubled + 1][brushSizeDoubled + 1];
-
-        this.undo = new Undo(brushSizeDoubled * brushSizeDoubled * brushSizeDoubled);
+        final CellularAutomaton splat = new CellularAutomaton(brushSizeDoubled + 1, brushSizeDoubled + 1, brushSizeDoubled + 1);
 
         // Seed the array
-        splat[brushSize][brushSize][brushSize] = 1;
+        splat.set(brushSize, brushSize, brushSize, true);
 
         // Grow the seed
         for (int r = 0; r < brushSize; r++) {
-
-            for (int x = brushSizeDoubled; x >= 0; x--) {
-                for (int y = brushSizeDoubled; y >= 0; y--) {
-                    for (int z = brushSizeDoubled; z >= 0; z--) {
-                        tempSplat[x][y][z] = splat[x][y][z];
-                        int growCheck = 0;
-                        if (splat[x][y][z] == 0) {
-                            if (x != 0 && splat[x - 1][y][z] == 1) {
-                                growCheck++;
-                            }
-                            if (y != 0 && splat[x][y - 1][z] == 1) {
-                                growCheck++;
-                            }
-                            if (z != 0 && splat[x][y][z - 1] == 1) {
-                                growCheck++;
-                            }
-                            if (x != 2 * brushSize && splat[x + 1][y][z] == 1) {
-                                growCheck++;
-                            }
-                            if (y != 2 * brushSize && splat[x][y + 1][z] == 1) {
-                                growCheck++;
-                            }
-                            if (z != 2 * brushSize && splat[x][y][z + 1] == 1) {
-                                growCheck++;
-                            }
-                        }
-
-                        if (growCheck >= 1 && this.randomGenerator.nextDouble() <= this.growPercent) {
-                            // prevent bleed into splat
-                            tempSplat[x][y][z] = 1;
-                        }
-                    }
-                }
-            }
-
-            // integrate tempsplat back into splat at end of iteration
-            for (int x = brushSizeDoubled; x >= 0; x--) {
-                for (int y = brushSizeDoubled; y >= 0; y--) {
-                    for (int z = brushSizeDoubled; z >= 0; z--) {
-                        splat[x][y][z] = tempSplat[x][y][z];
-                    }
-                }
-            }
+            splat.grow(growPercent, random);
         }
+        return splat;
+    }
 
-        final double rSquared = Math.pow(brushSize + 1, 2);
+    private void applyBlob(final SnipeData v, final CellularAutomaton splat) {
+        final int brushSize = (splat.getSizeX() - 1) / 2;
+        final int tx = this.targetBlock.getBlockX();
+        final int ty = this.targetBlock.getBlockY();
+        final int tz = this.targetBlock.getBlockZ();
 
-        // Make the changes
-        for (int x = brushSizeDoubled; x >= 0; x--) {
-            final double xSquared = Math.pow(x - brushSize - 1, 2);
+        this.undo = new Undo();
 
-            for (int y = brushSizeDoubled; y >= 0; y--) {
-                final double ySquared = Math.pow(y - brushSize - 1, 2);
+        // The ball has always been centered one block off the splat, keep it
+        // that way so blobs look the same as before
+        Region region = Region.sphere(tx + 1, ty + 1, tz + 1, brushSize + 1, true)
+                .intersect(Region.cuboid(tx - brushSize, ty - brushSize, tz - brushSize, tx + brushSize, ty + brushSize, tz + brushSize));
 
-                for (int z = brushSizeDoubled; z >= 0; z--) {
-                    if (splat[x][y][z] == 1 && xSquared + ySquared + Math.pow(z - brushSize - 1, 2) <= rSquared) {
-                        perform(v, this.targetBlock.getBlockX() - brushSize + x, this.targetBlock.getBlockY() - brushSize + z,
-                                this.targetBlock.getBlockZ() - brushSize + y);
-                    }
-                }
+        // Make the changes, the splat is stored with its y and z axes swapped
+        region.forEach((x0, y0, z0) -> {
+            if (splat.get(x0 - tx + brushSize, z0 - tz + brushSize, y0 - ty + brushSize)) {
+                perform(v, x0, y0, z0);
             }
-        }
+        });
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -217,12 +109,18 @@ public class BlobBrush extends PerformBrush {
 
     @Override
     protected final void arrow(final SnipeData v) {
-        this.growBlob(v);
+        final int brushSize = (int) v.getBrushSize();
+        final double growPercent = this.growPercent;
+        final PositionalRandom random = newRandom();
+        computeAsync(v, () -> growBlob(brushSize, growPercent, random), this::applyBlob);
     }
 
     @Override
     protected final void powder(final SnipeData v) {
-        this.digBlob(v);
+        final int brushSize = (int) v.getBrushSize();
+        final double growPercent = this.growPercent;
+        final PositionalRandom random = newRandom();
+        computeAsync(v, () -> digBlob(brushSize, growPercent, random), this::applyBlob);
     }
 
     @Override
@@ -230,6 +128,7 @@ public class BlobBrush extends PerformBrush {
         vm.brushName(this.getName());
         vm.size();
         vm.custom(TextColors.BLUE, "Growth percent set to: " + this.growPercent + "%");
+        seedInfo(vm);
     }
 
     @Override
@@ -239,6 +138,10 @@ public class BlobBrush extends PerformBrush {
             v.sendMessage(TextColors.GOLD, "Blob brush Parameters:");
             v.sendMessage(TextColors.AQUA, "/b blob g[double] -- set a growth percentage (" + GROW_PERCENT_MIN + "-" + GROW_PERCENT_MAX
                     + "). Default is " + GROW_PERCENT_DEFAULT);
+            v.sendMessage(TextColors.AQUA, "/b blob seed[long] -- fix the random seed, seed alone picks a new one per snipe.");
+            return;
+        }
+        if (parseSeed(par[0], v)) {
             return;
         }
         if (par[0].startsWith("g")) {
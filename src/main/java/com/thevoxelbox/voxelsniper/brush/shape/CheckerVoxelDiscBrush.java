@@ -26,6 +26,7 @@ package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.flowpowered.math.GenericMath;
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
@@ -51,18 +52,16 @@ public class CheckerVoxelDiscBrush extends PerformBrush {
         int minz = GenericMath.floor(targetBlock.getBlockZ() - brushSize);
         int maxz = GenericMath.floor(targetBlock.getBlockZ() + brushSize) + 1;
 
-        this.undo = new Undo(GenericMath.floor(Math.PI * (brushSize + 1) * (brushSize + 1)));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = minx; x <= maxx; x++) {
-            for (int z = minz; z <= maxz; z++) {
-                final int sum = this.useWorldCoordinates ? x + z : x - tx + z - tz;
-                if (sum % 2 != 0) {
-                    perform(v, x, targetBlock.getBlockY(), z);
-                }
+        Region.cuboid(minx, targetBlock.getBlockY(), minz, maxx, targetBlock.getBlockY(), maxz).forEach((x, y, z) -> {
+            final int sum = this.useWorldCoordinates ? x + z : x - tx + z - tz;
+            if (sum % 2 != 0) {
+                perform(v, x, y, z);
             }
-        }
+        });
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -24,8 +24,8 @@
  */
 package com.thevoxelbox.voxelsniper.brush.shape;
 
-import com.flowpowered.math.GenericMath;
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
@@ -61,30 +61,12 @@ public class CylinderBrush extends PerformBrush {
         }
 
         double brushSize = v.getBrushSize();
-        double brushSizeSquared = brushSize * brushSize;
 
-        int tx = targetBlock.getBlockX();
-        int tz = targetBlock.getBlockZ();
-        int minx = GenericMath.floor(targetBlock.getBlockX() - brushSize);
-        int maxx = GenericMath.floor(targetBlock.getBlockX() + brushSize) + 1;
-        int minz = GenericMath.floor(targetBlock.getBlockZ() - brushSize);
-        int maxz = GenericMath.floor(targetBlock.getBlockZ() + brushSize) + 1;
-
-        this.undo = new Undo(GenericMath.floor(Math.PI * (brushSize + 1) * (brushSize + 1)));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = minx; x <= maxx; x++) {
-            double xs = (tx - x) * (tx - x);
-            for (int z = minz; z <= maxz; z++) {
-                double zs = (tz - z) * (tz - z);
-                if (xs + zs < brushSizeSquared) {
-                    for (int y = yEndPoint; y >= yStartingPoint; y--) {
-                        perform(v, x, y, z);
-                    }
-                }
-            }
-        }
+        performRegion(v, Region.cylinder(targetBlock.getBlockX(), targetBlock.getBlockZ(), yStartingPoint, yEndPoint, brushSize));
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -25,10 +25,10 @@
 package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
-import com.flowpowered.math.GenericMath;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
@@ -43,28 +43,12 @@ public class DiscBrush extends PerformBrush {
 
     private void disc(final SnipeData v, final Location<World> targetBlock) {
         double brushSize = v.getBrushSize();
-        double brushSizeSquared = brushSize * brushSize;
 
-        int tx = targetBlock.getBlockX();
-        int tz = targetBlock.getBlockZ();
-        int minx = GenericMath.floor(targetBlock.getBlockX() - brushSize);
-        int maxx = GenericMath.floor(targetBlock.getBlockX() + brushSize) + 1;
-        int minz = GenericMath.floor(targetBlock.getBlockZ() - brushSize);
-        int maxz = GenericMath.floor(targetBlock.getBlockZ() + brushSize) + 1;
-
-        this.undo = new Undo(GenericMath.floor(Math.PI * (brushSize + 1) * (brushSize + 1)));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = minx; x <= maxx; x++) {
-            double xs = (tx - x) * (tx - x);
-            for (int z = minz; z <= maxz; z++) {
-                double zs = (tz - z) * (tz - z);
-                if (xs + zs < brushSizeSquared) {
-                    perform(v, x, targetBlock.getBlockY(), z);
-                }
-            }
-        }
+        performRegion(v, Region.disc(targetBlock.getBlockX(), targetBlock.getBlockY(), targetBlock.getBlockZ(), brushSize));
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -24,12 +24,11 @@
  */
 package com.thevoxelbox.voxelsniper.brush.shape;
 
-import com.flowpowered.math.GenericMath;
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
-import org.spongepowered.api.util.Direction;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
@@ -42,31 +41,12 @@ public class DiscFaceBrush extends PerformBrush {
         this.setName("Disc Face");
     }
 
-    private void disc(final SnipeData v, Location<World> targetBlock, Direction axis) {
-        double brushSize = v.getBrushSize();
-        double brushSizeSquared = brushSize * brushSize;
+    private void disc(final SnipeData v, Location<World> targetBlock, Region.Axis normal) {
+        this.undo = new Undo();
 
-        int tx = targetBlock.getBlockX();
-        int ty = targetBlock.getBlockY();
-        int tz = targetBlock.getBlockZ();
-
-        this.undo = new Undo(GenericMath.floor(Math.PI * (brushSize + 1) * (brushSize + 1)));
-        int size = GenericMath.floor(brushSize) + 1;
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = -size; x <= size; x++) {
-            for (int z = -size; z <= size; z++) {
-                if (x * x + z * z < brushSizeSquared) {
-                    if (axis == Direction.UP) {
-                        perform(v, x + tx, targetBlock.getBlockY(), z + tz);
-                    } else if (axis == Direction.NORTH) {
-                        perform(v, x + tx, z + ty, targetBlock.getBlockZ());
-                    } else if (axis == Direction.EAST) {
-                        perform(v, targetBlock.getBlockX(), x + ty, z + tz);
-                    }
-                }
-            }
-        }
+        performRegion(v, Region.disc(targetBlock.getBlockX(), targetBlock.getBlockY(), targetBlock.getBlockZ(), v.getBrushSize(), normal));
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -74,11 +54,11 @@ public class DiscFaceBrush extends PerformBrush {
 
     private void pre(final SnipeData v, Location<World> target) {
         if (this.lastBlock.getBlockY() != this.targetBlock.getBlockY()) {
-            disc(v, target, Direction.UP);
+            disc(v, target, Region.Axis.Y);
         } else if (this.lastBlock.getBlockX() != this.targetBlock.getBlockX()) {
-            disc(v, target, Direction.EAST);
+            disc(v, target, Region.Axis.X);
         } else if (this.lastBlock.getBlockZ() != this.targetBlock.getBlockZ()) {
-            disc(v, target, Direction.NORTH);
+            disc(v, target, Region.Axis.Z);
         }
     }
 
@@ -24,13 +24,12 @@
  */
 package com.thevoxelbox.voxelsniper.brush.shape;
 
-import com.flowpowered.math.GenericMath;
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
 import org.spongepowered.api.text.format.TextColors;
-import org.spongepowered.api.util.Direction;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
@@ -46,35 +45,14 @@ public class EllipseBrush extends PerformBrush {
         this.setName("Ellipse");
     }
 
-    private void ellipse(final SnipeData v, Location<World> targetBlock, Direction axis) {
-        double xrads = this.xrad * this.xrad;
-        double yrads = this.yrad * this.yrad;
-        int tx = targetBlock.getBlockX();
-        int tz = targetBlock.getBlockZ();
-        int minx = GenericMath.floor(targetBlock.getBlockX() - this.xrad);
-        int maxx = (int) Math.ceil(targetBlock.getBlockX() + this.xrad);
-        int minz = GenericMath.floor(targetBlock.getBlockZ() - this.yrad);
-        int maxz = (int) Math.ceil(targetBlock.getBlockZ() + this.yrad);
-
-        this.undo = new Undo(GenericMath.floor(Math.PI * (this.xrad + 1) * (this.yrad + 1)));
+    private void ellipse(final SnipeData v, Location<World> targetBlock, Region.Axis normal) {
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = minx; x <= maxx; x++) {
-            double xs = (tx - x) * (tx - x);
-            for (int z = minz; z <= maxz; z++) {
-                double zs = (tz - z) * (tz - z);
-                if (xs / xrads + zs / yrads < 1) {
-                    if (axis == Direction.UP) {
-                        perform(v, x, targetBlock.getBlockY(), z);
-                    } else if (axis == Direction.NORTH) {
-                        perform(v, x, z, targetBlock.getBlockZ());
-                    } else if (axis == Direction.EAST) {
-                        perform(v, targetBlock.getBlockX(), x, z);
-                    }
-                }
-            }
-        }
+        Region region = Region.ellipse(targetBlock.getBlockX(), targetBlock.getBlockY(), targetBlock.getBlockZ(), this.xrad, this.yrad,
+                normal);
+        performRegion(v, region);
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -82,11 +60,11 @@ public class EllipseBrush extends PerformBrush {
 
     private void pre(final SnipeData v, Location<World> target) {
         if (this.lastBlock.getBlockY() != this.targetBlock.getBlockY()) {
-            ellipse(v, target, Direction.UP);
+            ellipse(v, target, Region.Axis.Y);
         } else if (this.lastBlock.getBlockX() != this.targetBlock.getBlockX()) {
-            ellipse(v, target, Direction.EAST);
+            ellipse(v, target, Region.Axis.X);
         } else if (this.lastBlock.getBlockZ() != this.targetBlock.getBlockZ()) {
-            ellipse(v, target, Direction.NORTH);
+            ellipse(v, target, Region.Axis.Z);
         }
     }
 
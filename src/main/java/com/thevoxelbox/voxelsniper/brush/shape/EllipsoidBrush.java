@@ -24,8 +24,8 @@
  */
 package com.thevoxelbox.voxelsniper.brush.shape;
 
-import com.flowpowered.math.GenericMath;
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
@@ -47,36 +47,15 @@ public class EllipsoidBrush extends PerformBrush {
     }
 
     private void ellipsoid(final SnipeData v, Location<World> targetBlock) {
-        double xrads = this.xrad * this.xrad;
-        double yrads = this.yrad * this.yrad;
-        double zrads = this.zrad * this.zrad;
-
         int tx = targetBlock.getBlockX();
         int ty = targetBlock.getBlockY();
         int tz = targetBlock.getBlockZ();
-        int minx = GenericMath.floor(targetBlock.getBlockX() - this.xrad);
-        int maxx = GenericMath.floor(targetBlock.getBlockX() + this.xrad) + 1;
-        int miny = Math.max(GenericMath.floor(targetBlock.getBlockY() - this.yrad), 0);
-        int maxy = Math.min(GenericMath.floor(targetBlock.getBlockY() + this.yrad) + 1, WORLD_HEIGHT);
-        int minz = GenericMath.floor(targetBlock.getBlockZ() - this.zrad);
-        int maxz = GenericMath.floor(targetBlock.getBlockZ() + this.zrad) + 1;
 
-        this.undo = new Undo(GenericMath.floor(4 * Math.PI * (this.xrad + 1) * (this.yrad + 1) * (this.zrad + 1) / 3));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = maxx; x >= minx; x--) {
-            double xs = (tx - x) * (tx - x);
-            for (int y = maxy; y >= miny; y--) {
-                double ys = (ty - y) * (ty - y);
-                for (int z = maxz; z >= minz; z--) {
-                    double zs = (tz - z) * (tz - z);
-                    if (xs / xrads + ys / yrads + zs / zrads < 1) {
-                        perform(v, x, y, z);
-                    }
-                }
-            }
-        }
+        performRegion(v, Region.ellipsoid(tx, ty, tz, this.xrad, this.yrad, this.zrad));
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -25,11 +25,10 @@
 package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.Brush;
-import com.flowpowered.math.GenericMath;
-import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.util.Direction;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
@@ -44,56 +43,27 @@ public class ExtrudeBrush extends Brush {
     }
 
     private void extrude(final SnipeData v, Location<World> targetBlock, Direction axis) {
-        double brushSize = v.getBrushSize();
-        double brushSizeSquared = brushSize * brushSize;
+        Region.Axis normal = axis == Direction.UP || axis == Direction.DOWN ? Region.Axis.Y
+                : axis == Direction.EAST || axis == Direction.WEST ? Region.Axis.X : Region.Axis.Z;
+        int stepX = axis == Direction.EAST ? -1 : axis == Direction.WEST ? 1 : 0;
+        int stepY = axis == Direction.DOWN ? -1 : axis == Direction.UP ? 1 : 0;
+        int stepZ = axis == Direction.NORTH ? -1 : axis == Direction.SOUTH ? 1 : 0;
         // @Safety there is no bounds checks done here
-        this.undo = new Undo(GenericMath.floor(Math.PI * (brushSize + 1) * (brushSize + 1) * v.getVoxelHeight()));
-        int size = GenericMath.floor(brushSize) + 1;
+        this.undo = new Undo();
 
-        for (int x = -size; x <= size; x++) {
-            for (int z = -size; z <= size; z++) {
-                if (x * x + z * z < brushSizeSquared) {
-                    if (v.getVoxelList().contains(get(x, z, axis, targetBlock))) {
-                        for (int y = 0; y < v.getVoxelHeight(); y++) {
-                            set(x, z, axis, targetBlock, v.getVoxelIdState(), y);
-                        }
-                    }
+        Region region = Region.disc(targetBlock.getBlockX(), targetBlock.getBlockY(), targetBlock.getBlockZ(), v.getBrushSize(), normal);
+        region.forEach((x, y, z) -> {
+            if (v.getVoxelList().contains(this.session.getBlock(x, y, z))) {
+                for (int i = 0; i < v.getVoxelHeight(); i++) {
+                    setBlockState(x + i * stepX, y + i * stepY, z + i * stepZ, v.getVoxelIdState());
                 }
             }
-        }
+        });
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
     }
 
-    private BlockState get(int x, int y, Direction axis, Location<World> target) {
-        if (axis == Direction.UP || axis == Direction.DOWN) {
-            return this.world.getBlock(x + target.getBlockX(), target.getBlockY(), y + target.getBlockZ());
-        } else if (axis == Direction.EAST || axis == Direction.WEST) {
-            return this.world.getBlock(target.getBlockX(), x + target.getBlockY(), y + target.getBlockZ());
-        }
-        return this.world.getBlock(x + target.getBlockX(), y + target.getBlockY(), target.getBlockZ());
-    }
-
-    private void set(int x, int y, Direction axis, Location<World> target, BlockState state, int offs) {
-        if (axis == Direction.UP || axis == Direction.DOWN) {
-            if (axis == Direction.DOWN) {
-                offs *= -1;
-            }
-            setBlockState(x + target.getBlockX(), target.getBlockY() + offs, y + target.getBlockZ(), state);
-        } else if (axis == Direction.EAST || axis == Direction.WEST) {
-            if (axis == Direction.EAST) {
-                offs *= -1;
-            }
-            setBlockState(target.getBlockX() + offs, x + target.getBlockY(), y + target.getBlockZ(), state);
-        } else {
-            if (axis == Direction.NORTH) {
-                offs *= -1;
-            }
-            setBlockState(x + target.getBlockX(), y + target.getBlockY(), target.getBlockZ() + offs, state);
-        }
-    }
-
     private void pre(final SnipeData v, Location<World> target, boolean towards) {
         if (this.lastBlock.getBlockY() != this.targetBlock.getBlockY()) {
             extrude(v, target, this.lastBlock.getBlockY() > this.targetBlock.getBlockY() ^ towards ? Direction.DOWN : Direction.UP);
@@ -25,13 +25,13 @@
 package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush.PerformerType;
 import com.thevoxelbox.voxelsniper.util.BlockHelper;
 
-import com.flowpowered.math.GenericMath;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.text.format.TextColors;
@@ -48,51 +48,36 @@ public class FillDownBrush extends PerformBrush {
     }
 
     private void fillDown(SnipeData v, Location<World> targetBlock) {
-        double brushSize = v.getBrushSize();
-        double brushSizeSquared = brushSize * brushSize;
+        this.undo = new Undo();
 
-        int tx = targetBlock.getBlockX();
-        int tz = targetBlock.getBlockZ();
-        int minx = GenericMath.floor(targetBlock.getBlockX() - brushSize);
-        int maxx = GenericMath.floor(targetBlock.getBlockX() + brushSize) + 1;
-        int minz = GenericMath.floor(targetBlock.getBlockZ() - brushSize);
-        int maxz = GenericMath.floor(targetBlock.getBlockZ() + brushSize) + 1;
-
-        this.undo = new Undo(GenericMath.floor(4 * Math.PI * (brushSize + 1) * (brushSize + 1) * (brushSize + 1) / 3));
-
-        for (int x = minx; x <= maxx; x++) {
-            double xs = (tx - x) * (tx - x);
-            for (int z = minz; z <= maxz; z++) {
-                double zs = (tz - z) * (tz - z);
-                if (xs + zs < brushSizeSquared) {
-                    int y = targetBlock.getBlockY();
-                    if (this.fromExisting) {
-                        for (int y0 = -v.getVoxelHeight(); y0 < v.getVoxelHeight(); y0++) {
-                            if (this.world.getBlock(x, y + y0, z) != v.getReplaceIdState()) {
-                                y += y0 - 1;
-                                break;
-                            }
-                        }
+        // each column of the disc is filled down from the target height
+        Region.disc(targetBlock.getBlockX(), targetBlock.getBlockY(), targetBlock.getBlockZ(), v.getBrushSize()).forEach((x, top, z) -> {
+            int y = top;
+            if (this.fromExisting) {
+                for (int y0 = -v.getVoxelHeight(); y0 < v.getVoxelHeight(); y0++) {
+                    if (this.session.getBlock(x, y + y0, z) != v.getReplaceIdState()) {
+                        y += y0 - 1;
+                        break;
                     }
-                    for (; y >= 0; y--) {
-                        if (this.replace != PerformerType.NONE) {
-                            if (!perform(v, x, y, z)) {
-                                break;
-                            }
-                        } else {
-                            BlockState current = this.world.getBlock(x, y, z);
-                            if (current.getType() == BlockTypes.AIR) {
-                                perform(v, x, y, z);
-                            } else if (this.fillLiquid) {
-                                if (BlockHelper.isLiquid(current)) {
-                                    perform(v, x, y, z);
-                                }
-                            }
+                }
+            }
+            for (; y >= 0; y--) {
+                if (this.replace != PerformerType.NONE) {
+                    if (!perform(v, x, y, z)) {
+                        break;
+                    }
+                } else {
+                    BlockState current = this.session.getBlock(x, y, z);
+                    if (current.getType() == BlockTypes.AIR) {
+                        perform(v, x, y, z);
+                    } else if (this.fillLiquid) {
+                        if (BlockHelper.isLiquid(current)) {
+                            perform(v, x, y, z);
                         }
                     }
                 }
             }
-        }
+        });
     }
 
     @Override
@@ -53,7 +53,7 @@ public class LineBrush extends PerformBrush {
         Vector3d target = this.targetBlock.getBlockPosition().toDouble().add(0.5, 0.5, 0.5);
         Vector3d dir = target.sub(this.origin);
         double dist = target.distance(this.origin);
-        this.undo = new Undo((int) (dist + 2));
+        this.undo = new Undo();
 
         BlockRay<World> ray = BlockRay.from(this.world, this.origin).filter(BlockRay.maxDistanceFilter(this.origin, dist)).direction(dir).build();
         perform(v, this.origin.getFloorX(), this.origin.getFloorY(), this.origin.getFloorZ());
@@ -24,8 +24,8 @@
  */
 package com.thevoxelbox.voxelsniper.brush.shape;
 
-import com.flowpowered.math.GenericMath;
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
@@ -48,47 +48,30 @@ public class OverlayBrush extends PerformBrush {
     }
 
     private void overlay(SnipeData v, Location<World> targetBlock) {
-        double brushSize = v.getBrushSize();
-        double brushSizeSquared = brushSize * brushSize;
-        
-        int tx = this.targetBlock.getBlockX();
-        int tz = this.targetBlock.getBlockZ();
-
-        int minx = GenericMath.floor(targetBlock.getBlockX() - brushSize);
-        int maxx = GenericMath.floor(targetBlock.getBlockX() + brushSize) + 1;
-        int minz = GenericMath.floor(targetBlock.getBlockZ() - brushSize);
-        int maxz = GenericMath.floor(targetBlock.getBlockZ() + brushSize) + 1;
-
-        this.undo = new Undo(GenericMath.floor(Math.PI * (brushSize + 1) * (brushSize + 1)));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = minx; x <= maxx; x++) {
-            double xs = (tx - x) * (tx - x);
-            for (int z = minz; z <= maxz; z++) {
-                double zs = (tz - z) * (tz - z);
-                if (xs + zs < brushSizeSquared) {
-                    int y = targetBlock.getBlockY();
-                    for (; y >= 0; y--) {
-                        if (this.world.getBlockType(x, y, z) != BlockTypes.AIR) {
-                            break;
-                        }
-                    }
-                    if (y == targetBlock.getBlockY() && y < WORLD_HEIGHT) {
-                        if (this.world.getBlockType(x, y + 1, z) != BlockTypes.AIR) {
-                            // if theres no air above our start block then don't
-                            // perform
-                            continue;
-                        }
-                    }
-                    for (int y0 = y; y0 > y - this.depth; y0--) {
-                        if (this.world.getBlockType(x, y0, z) != BlockTypes.AIR) {
-                            perform(v, x, y0, z);
-                        }
-                    }
+        Region.disc(targetBlock.getBlockX(), targetBlock.getBlockY(), targetBlock.getBlockZ(), v.getBrushSize()).forEach((x, top, z) -> {
+            int y = top;
+            for (; y >= 0; y--) {
+                if (this.session.getBlockType(x, y, z) != BlockTypes.AIR) {
+                    break;
                 }
             }
-        }
+            if (y == top && y < WORLD_HEIGHT) {
+                if (this.session.getBlockType(x, y + 1, z) != BlockTypes.AIR) {
+                    // if theres no air above our start block then don't
+                    // perform
+                    return;
+                }
+            }
+            for (int y0 = y; y0 > y - this.depth; y0--) {
+                if (this.session.getBlockType(x, y0, z) != BlockTypes.AIR) {
+                    perform(v, x, y0, z);
+                }
+            }
+        });
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -25,10 +25,10 @@
 package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
-import com.flowpowered.math.GenericMath;
 import org.spongepowered.api.text.format.TextColors;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
@@ -46,27 +46,14 @@ public class RingBrush extends PerformBrush {
 
     private void ring(final SnipeData v, Location<World> targetBlock) {
         double brushSize = v.getBrushSize();
-        double brushSizeSquared = brushSize * brushSize;
-        double innerRadiusSquared = this.innerSize * this.innerSize;
 
         int tx = targetBlock.getBlockX();
+        int ty = targetBlock.getBlockY();
         int tz = targetBlock.getBlockZ();
-        int minx = GenericMath.floor(targetBlock.getBlockX() - brushSize);
-        int maxx = GenericMath.floor(targetBlock.getBlockX() + brushSize) + 1;
-        int minz = GenericMath.floor(targetBlock.getBlockZ() - brushSize);
-        int maxz = GenericMath.floor(targetBlock.getBlockZ() + brushSize) + 1;
 
-        this.undo = new Undo(GenericMath.floor(Math.PI * (brushSize + 1) * (brushSize + 1)));
+        this.undo = new Undo();
 
-        for (int x = minx; x <= maxx; x++) {
-            double xs = (tx - x) * (tx - x);
-            for (int z = minz; z <= maxz; z++) {
-                double zs = (tz - z) * (tz - z);
-                if (xs + zs < brushSizeSquared && xs + zs >= innerRadiusSquared) {
-                    perform(v, x, targetBlock.getBlockY(), z);
-                }
-            }
-        }
+        performRegion(v, Region.ring(tx, ty, tz, brushSize, this.innerSize));
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -26,6 +26,7 @@ package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.flowpowered.math.vector.Vector3i;
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
@@ -67,14 +68,8 @@ public class SetBrush extends PerformBrush {
             v.sendMessage(TextColors.RED + "Selection size above hardcoded limit, please use a smaller selection.");
             return;
         }
-        this.undo = new Undo(size);
-        for (int y = lowY; y <= highY; y++) {
-            for (int x = lowX; x <= highX; x++) {
-                for (int z = lowZ; z <= highZ; z++) {
-                    perform(v, x, y, z);
-                }
-            }
-        }
+        this.undo = new Undo();
+        performRegion(v, Region.cuboid(lowX, lowY, lowZ, highX, highY, highZ));
         v.owner().storeUndo(this.undo);
         this.undo = null;
 
@@ -25,12 +25,12 @@
 package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.Brush;
 import com.thevoxelbox.voxelsniper.util.BlockBuffer;
 
-import com.flowpowered.math.GenericMath;
 import com.flowpowered.math.vector.Vector3i;
 import org.spongepowered.api.text.format.TextColors;
 import org.spongepowered.api.world.Location;
@@ -59,52 +59,45 @@ public class ShellSetBrush extends Brush {
 
         BlockBuffer buffer = new BlockBuffer(new Vector3i(minx, miny, minz), new Vector3i(maxx, maxy, maxz));
 
-        for (int x = minx; x <= maxx; x++) {
-            for (int y = miny; y <= maxy; y++) {
-                for (int z = minz; z <= maxz; z++) {
-                    if (y <= 0 || y >= WORLD_HEIGHT) {
-                        continue;
-                    }
-                    if (this.world.getBlock(x, y, z) != v.getReplaceIdState()) {
-                        continue;
-                    }
-                    int blocks = 0;
-                    if (this.world.getBlock(x + 1, y, z) == v.getReplaceIdState()) {
-                        blocks++;
-                    }
-                    if (this.world.getBlock(x - 1, y, z) == v.getReplaceIdState()) {
-                        blocks++;
-                    }
-                    if (this.world.getBlock(x, y + 1, z) == v.getReplaceIdState()) {
-                        blocks++;
-                    }
-                    if (this.world.getBlock(x, y - 1, z) == v.getReplaceIdState()) {
-                        blocks++;
-                    }
-                    if (this.world.getBlock(x, y, z + 1) == v.getReplaceIdState()) {
-                        blocks++;
-                    }
-                    if (this.world.getBlock(x, y, z - 1) == v.getReplaceIdState()) {
-                        blocks++;
-                    }
-                    if (blocks == 6) {
-                        buffer.set(x, y, z, v.getVoxelIdState());
-                    }
-                }
+        // the outermost layers of the world have no neighbours on both sides
+        Region region = Region.cuboid(minx, miny, minz, maxx, maxy, maxz)
+                .intersect(Region.cuboid(minx, 1, minz, maxx, WORLD_HEIGHT - 1, maxz));
+
+        region.forEach((x, y, z) -> {
+            if (this.session.getBlock(x, y, z) != v.getReplaceIdState()) {
+                return;
             }
-        }
+            int blocks = 0;
+            if (this.session.getBlock(x + 1, y, z) == v.getReplaceIdState()) {
+                blocks++;
+            }
+            if (this.session.getBlock(x - 1, y, z) == v.getReplaceIdState()) {
+                blocks++;
+            }
+            if (this.session.getBlock(x, y + 1, z) == v.getReplaceIdState()) {
+                blocks++;
+            }
+            if (this.session.getBlock(x, y - 1, z) == v.getReplaceIdState()) {
+                blocks++;
+            }
+            if (this.session.getBlock(x, y, z + 1) == v.getReplaceIdState()) {
+                blocks++;
+            }
+            if (this.session.getBlock(x, y, z - 1) == v.getReplaceIdState()) {
+                blocks++;
+            }
+            if (blocks == 6) {
+                buffer.set(x, y, z, v.getVoxelIdState());
+            }
+        });
 
-        this.undo = new Undo(buffer.getBlockCount());
+        this.undo = new Undo();
         // apply the buffer to the world
-        for (int x = minx; x <= maxx; x++) {
-            for (int y = miny; y <= maxy; y++) {
-                for (int z = minz; z <= maxz; z++) {
-                    if (buffer.contains(x, y, z)) {
-                        setBlockState(x, y, z, buffer.get(x, y, z));
-                    }
-                }
+        region.forEach((x, y, z) -> {
+            if (buffer.contains(x, y, z)) {
+                setBlockState(x, y, z, buffer.get(x, y, z));
             }
-        }
+        });
         v.owner().storeUndo(this.undo);
         this.undo = null;
     }
@@ -25,6 +25,7 @@
 package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.Brush;
@@ -51,58 +52,45 @@ public class ShellVoxelBrush extends Brush {
 
         BlockBuffer buffer = new BlockBuffer(new Vector3i(-brushSize, -brushSize, -brushSize), new Vector3i(brushSize, brushSize, brushSize));
 
-        for (int x = -brushSize; x <= brushSize; x++) {
-            int x0 = tx + x;
-            for (int y = -brushSize; y <= brushSize; y++) {
-                int y0 = ty + y;
-                for (int z = -brushSize; z <= brushSize; z++) {
-                    int z0 = tz + z;
-                    if (y <= 0 || y >= WORLD_HEIGHT) {
-                        continue;
-                    }
-                    if (this.world.getBlock(x0, y0, z0) != v.getReplaceIdState()) {
-                        continue;
-                    }
-                    int blocks = 0;
-                    if (this.world.getBlock(x0 + 1, y0, z0) == v.getReplaceIdState()) {
-                        blocks++;
-                    }
-                    if (this.world.getBlock(x0 - 1, y0, z0) == v.getReplaceIdState()) {
-                        blocks++;
-                    }
-                    if (this.world.getBlock(x0, y0 + 1, z0) == v.getReplaceIdState()) {
-                        blocks++;
-                    }
-                    if (this.world.getBlock(x0, y0 - 1, z0) == v.getReplaceIdState()) {
-                        blocks++;
-                    }
-                    if (this.world.getBlock(x0, y0, z0 + 1) == v.getReplaceIdState()) {
-                        blocks++;
-                    }
-                    if (this.world.getBlock(x0, y0, z0 - 1) == v.getReplaceIdState()) {
-                        blocks++;
-                    }
-                    if (blocks == 6) {
-                        buffer.set(x, y, z, v.getVoxelIdState());
-                    }
-                }
+        // the outermost layers of the world have no neighbours on both sides
+        Region region = Region.cuboid(tx - brushSize, ty - brushSize, tz - brushSize, tx + brushSize, ty + brushSize, tz + brushSize)
+                .intersect(Region.cuboid(tx - brushSize, 1, tz - brushSize, tx + brushSize, WORLD_HEIGHT - 1, tz + brushSize));
+
+        region.forEach((x, y, z) -> {
+            if (this.session.getBlock(x, y, z) != v.getReplaceIdState()) {
+                return;
+            }
+            int blocks = 0;
+            if (this.session.getBlock(x + 1, y, z) == v.getReplaceIdState()) {
+                blocks++;
+            }
+            if (this.session.getBlock(x - 1, y, z) == v.getReplaceIdState()) {
+                blocks++;
+            }
+            if (this.session.getBlock(x, y + 1, z) == v.getReplaceIdState()) {
+                blocks++;
+            }
+            if (this.session.getBlock(x, y - 1, z) == v.getReplaceIdState()) {
+                blocks++;
+            }
+            if (this.session.getBlock(x, y, z + 1) == v.getReplaceIdState()) {
+                blocks++;
+            }
+            if (this.session.getBlock(x, y, z - 1) == v.getReplaceIdState()) {
+                blocks++;
+            }
+            if (blocks == 6) {
+                buffer.set(x - tx, y - ty, z - tz, v.getVoxelIdState());
             }
-        }
+        });
 
-        this.undo = new Undo(buffer.getBlockCount());
+        this.undo = new Undo();
         // apply the buffer to the world
-        for (int x = -brushSize; x <= brushSize; x++) {
-            int x0 = x + tx;
-            for (int y = -brushSize; y <= brushSize; y++) {
-                int y0 = y + ty;
-                for (int z = -brushSize; z <= brushSize; z++) {
-                    int z0 = z + tz;
-                    if (buffer.contains(x, y, z)) {
-                        setBlockState(x0, y0, z0, buffer.get(x, y, z));
-                    }
-                }
+        region.forEach((x, y, z) -> {
+            if (buffer.contains(x - tx, y - ty, z - tz)) {
+                setBlockState(x, y, z, buffer.get(x - tx, y - ty, z - tz));
             }
-        }
+        });
         v.owner().storeUndo(this.undo);
         this.undo = null;
     }
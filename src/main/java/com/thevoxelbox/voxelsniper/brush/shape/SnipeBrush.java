@@ -40,7 +40,7 @@ public class SnipeBrush extends PerformBrush {
 
     @Override
     protected final void arrow(final SnipeData v) {
-        this.undo = new Undo(1);
+        this.undo = new Undo();
         perform(v, this.targetBlock);
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -48,7 +48,7 @@ public class SnipeBrush extends PerformBrush {
 
     @Override
     protected final void powder(final SnipeData v) {
-        this.undo = new Undo(1);
+        this.undo = new Undo();
         perform(v, this.lastBlock);
         v.owner().storeUndo(this.undo);
         this.undo = null;
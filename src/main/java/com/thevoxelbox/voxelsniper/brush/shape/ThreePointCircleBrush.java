@@ -25,6 +25,7 @@
 package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
@@ -112,32 +113,30 @@ public class ThreePointCircleBrush extends PerformBrush {
 
         // Calculate radius of circumcircle and determine brushsize
         final double radius = circumcenter.distance(this.coordsOne);
-        final int brushSize = (int) (Math.ceil(radius) + 1);
-        this.undo = new Undo((int) (4 * v.getBrushSize() * v.getBrushSize()));
-        for (int x = -brushSize; x <= brushSize; x++) {
-            for (int y = -brushSize; y <= brushSize; y++) {
-                for (int z = -brushSize; z <= brushSize; z++) {
-                    // Calculate distance from center
-                    final double tempDistance = Math.pow(Math.pow(x, 2) + Math.pow(y, 2) + Math.pow(z, 2), .5);
-
-                    // gets corner-on blocks
-                    final double cornerConstant = normalVector.getX() * (circumcenter.getX() + x) + normalVector.getY() * (circumcenter.getY() + y)
-                            + normalVector.getZ() * (circumcenter.getZ() + z);
-
-                    // gets center-on blocks
-                    final double centerConstant = normalVector.getX() * (circumcenter.getX() + x + .5)
-                            + normalVector.getY() * (circumcenter.getY() + y + .5) + normalVector.getZ() * (circumcenter.getZ() + z + .5);
-
-                    // Check if point is within sphere and on plane (some
-                    // tolerance given)
-                    if (tempDistance <= radius && (Math.abs(cornerConstant - planeConstant) < this.tolerance.getValue()
-                            || Math.abs(centerConstant - planeConstant) < this.tolerance.getValue())) {
-                        perform(v, brushCenter.getFloorX() + x, brushCenter.getFloorY() + y, brushCenter.getFloorZ() + z);
-                    }
-
-                }
+        final int cx = brushCenter.getFloorX();
+        final int cy = brushCenter.getFloorY();
+        final int cz = brushCenter.getFloorZ();
+        this.undo = new Undo();
+        Region.sphere(cx, cy, cz, radius, true).forEach((x0, y0, z0) -> {
+            final int x = x0 - cx;
+            final int y = y0 - cy;
+            final int z = z0 - cz;
+
+            // gets corner-on blocks
+            final double cornerConstant = normalVector.getX() * (circumcenter.getX() + x) + normalVector.getY() * (circumcenter.getY() + y)
+                    + normalVector.getZ() * (circumcenter.getZ() + z);
+
+            // gets center-on blocks
+            final double centerConstant = normalVector.getX() * (circumcenter.getX() + x + .5)
+                    + normalVector.getY() * (circumcenter.getY() + y + .5) + normalVector.getZ() * (circumcenter.getZ() + z + .5);
+
+            // Check if point is on plane (some tolerance given), the sphere
+            // already keeps it within the radius
+            if (Math.abs(cornerConstant - planeConstant) < this.tolerance.getValue()
+                    || Math.abs(centerConstant - planeConstant) < this.tolerance.getValue()) {
+                perform(v, x0, y0, z0);
             }
-        }
+        });
 
         v.sendMessage(TextColors.GREEN + "Done.");
         v.owner().storeUndo(this.undo);
@@ -25,11 +25,11 @@
 package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.Brush;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
-import com.flowpowered.math.GenericMath;
 import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.text.format.TextColors;
 import org.spongepowered.api.world.Location;
@@ -49,44 +49,30 @@ public class UnderlayBrush extends PerformBrush {
     }
 
     private void underlay(SnipeData v, Location<World> targetBlock) {
-        double brushSize = v.getBrushSize();
-        double brushSizeSquared = brushSize * brushSize;
-
-        int minx = GenericMath.floor(targetBlock.getBlockX() - brushSize);
-        int maxx = GenericMath.floor(targetBlock.getBlockX() + brushSize) + 1;
-        int minz = GenericMath.floor(targetBlock.getBlockZ() - brushSize);
-        int maxz = GenericMath.floor(targetBlock.getBlockZ() + brushSize) + 1;
-
-        this.undo = new Undo(GenericMath.floor(Math.PI * (brushSize + 1) * (brushSize + 1)));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = minx; x <= maxx; x++) {
-            double xs = (minx - x) * (minx - x);
-            for (int z = minz; z <= maxz; z++) {
-                double zs = (minz - z) * (minz - z);
-                if (xs + zs < brushSizeSquared) {
-                    int y = targetBlock.getBlockY();
-                    for (; y <= Brush.WORLD_HEIGHT; y++) {
-                        if (this.world.getBlockType(x, y, z) != BlockTypes.AIR) {
-                            break;
-                        }
-                    }
-                    if (y == targetBlock.getBlockY() && y > 0) {
-                        if (this.world.getBlockType(x, y - 1, z) != BlockTypes.AIR) {
-                            // if theres no air below our start block then don't
-                            // perform
-                            continue;
-                        }
-                    }
-                    for (int y0 = y; y0 < y + this.depth; y0++) {
-                        if (this.world.getBlockType(x, y0, z) != BlockTypes.AIR) {
-                            perform(v, x, y0, z);
-                        }
-                    }
+        Region.disc(targetBlock.getBlockX(), targetBlock.getBlockY(), targetBlock.getBlockZ(), v.getBrushSize()).forEach((x, bottom, z) -> {
+            int y = bottom;
+            for (; y <= Brush.WORLD_HEIGHT; y++) {
+                if (this.session.getBlockType(x, y, z) != BlockTypes.AIR) {
+                    break;
                 }
             }
-        }
+            if (y == bottom && y > 0) {
+                if (this.session.getBlockType(x, y - 1, z) != BlockTypes.AIR) {
+                    // if theres no air below our start block then don't
+                    // perform
+                    return;
+                }
+            }
+            for (int y0 = y; y0 < y + this.depth; y0++) {
+                if (this.session.getBlockType(x, y0, z) != BlockTypes.AIR) {
+                    perform(v, x, y0, z);
+                }
+            }
+        });
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
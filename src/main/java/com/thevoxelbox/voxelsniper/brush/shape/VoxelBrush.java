@@ -25,10 +25,10 @@
 package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
-import com.flowpowered.math.GenericMath;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
@@ -51,17 +51,11 @@ public class VoxelBrush extends PerformBrush {
         int minz = (int) Math.round(targetBlock.getBlockZ() - brushSize);
         int maxz = (int) Math.round(targetBlock.getBlockZ() + brushSize);
 
-        this.undo = new Undo(GenericMath.floor(8 * (brushSize + 1) * (brushSize + 1) * (brushSize + 1)));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = minx; x <= maxx; x++) {
-            for (int y = miny; y <= maxy; y++) {
-                for (int z = minz; z <= maxz; z++) {
-                    perform(v, x, y, z);
-                }
-            }
-        }
+        performRegion(v, Region.cuboid(minx, miny, minz, maxx, maxy, maxz));
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -25,10 +25,10 @@
 package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
-import com.flowpowered.math.GenericMath;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
@@ -49,15 +49,11 @@ public class VoxelDiscBrush extends PerformBrush {
         int minz = (int) Math.round(targetBlock.getBlockZ() - brushSize);
         int maxz = (int) Math.round(targetBlock.getBlockZ() + brushSize);
 
-        this.undo = new Undo(GenericMath.floor(4 * brushSize * brushSize));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = minx; x <= maxx; x++) {
-            for (int z = minz; z <= maxz; z++) {
-                perform(v, x, targetBlock.getBlockY(), z);
-            }
-        }
+        performRegion(v, Region.cuboid(minx, targetBlock.getBlockY(), minz, maxx, targetBlock.getBlockY(), maxz));
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -25,11 +25,11 @@
 package com.thevoxelbox.voxelsniper.brush.shape;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
 import com.flowpowered.math.GenericMath;
-import org.spongepowered.api.util.Direction;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
@@ -42,29 +42,24 @@ public class VoxelDiscFaceBrush extends PerformBrush {
         this.setName("Voxel Disc Face");
     }
 
-    private void disc(final SnipeData v, Location<World> targetBlock, Direction axis) {
+    private void disc(final SnipeData v, Location<World> targetBlock, Region.Axis normal) {
         double brushSize = v.getBrushSize();
+        int tx = targetBlock.getBlockX();
+        int ty = targetBlock.getBlockY();
+        int tz = targetBlock.getBlockZ();
+        // the square extends along both axes of the plane
+        int minx = normal == Region.Axis.X ? tx : GenericMath.floor(tx - brushSize);
+        int maxx = normal == Region.Axis.X ? tx : GenericMath.floor(tx + brushSize) + 1;
+        int miny = normal == Region.Axis.Y ? ty : GenericMath.floor(ty - brushSize);
+        int maxy = normal == Region.Axis.Y ? ty : GenericMath.floor(ty + brushSize) + 1;
+        int minz = normal == Region.Axis.Z ? tz : GenericMath.floor(tz - brushSize);
+        int maxz = normal == Region.Axis.Z ? tz : GenericMath.floor(tz + brushSize) + 1;
 
-        int minx = GenericMath.floor(targetBlock.getBlockX() - brushSize);
-        int maxx = GenericMath.floor(targetBlock.getBlockX() + brushSize) + 1;
-        int minz = GenericMath.floor(targetBlock.getBlockZ() - brushSize);
-        int maxz = GenericMath.floor(targetBlock.getBlockZ() + brushSize) + 1;
-
-        this.undo = new Undo(GenericMath.floor(Math.PI * (brushSize + 1) * (brushSize + 1)));
+        this.undo = new Undo();
 
         // @Cleanup Should wrap this within a block worker so that it works
         // better with the cause tracker
-        for (int x = minx; x <= maxx; x++) {
-            for (int z = minz; z <= maxz; z++) {
-                if (axis == Direction.UP) {
-                    perform(v, x, targetBlock.getBlockY(), z);
-                } else if (axis == Direction.NORTH) {
-                    perform(v, x, z, targetBlock.getBlockZ());
-                } else if (axis == Direction.EAST) {
-                    perform(v, targetBlock.getBlockX(), x, z);
-                }
-            }
-        }
+        performRegion(v, Region.cuboid(minx, miny, minz, maxx, maxy, maxz));
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -72,11 +67,11 @@ public class VoxelDiscFaceBrush extends PerformBrush {
 
     private void pre(final SnipeData v, Location<World> target) {
         if (this.lastBlock.getBlockY() != this.targetBlock.getBlockY()) {
-            disc(v, target, Direction.UP);
+            disc(v, target, Region.Axis.Y);
         } else if (this.lastBlock.getBlockX() != this.targetBlock.getBlockX()) {
-            disc(v, target, Direction.EAST);
+            disc(v, target, Region.Axis.X);
         } else if (this.lastBlock.getBlockZ() != this.targetBlock.getBlockZ()) {
-            disc(v, target, Direction.NORTH);
+            disc(v, target, Region.Axis.Z);
         }
     }
 
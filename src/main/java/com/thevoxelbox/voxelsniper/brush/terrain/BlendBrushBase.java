@@ -25,13 +25,90 @@
 package com.thevoxelbox.voxelsniper.brush.terrain;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
+import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.Brush;
+import com.thevoxelbox.voxelsniper.util.PaletteGrid;
+
+import com.flowpowered.math.vector.Vector3i;
 
 public abstract class BlendBrushBase extends Brush {
 
     protected abstract void blend(final SnipeData v);
 
+    /**
+     * Sets each block of the region to the most common block in the 3x3x3
+     * box around it, or the 3x3 square for flat areas, unless there is a tie.
+     *
+     * @param v Sniper caller
+     * @param region The blocks to blend
+     * @param flat Whether only the layer of each block is counted
+     */
+    protected final void blend(final SnipeData v, Region region, final boolean flat) {
+        final int margin = flat ? 0 : 1;
+        region = region.intersect(Region.cuboid(region.getMinX(), 0, region.getMinZ(), region.getMaxX(), WORLD_HEIGHT, region.getMaxZ()));
+        if (region.isEmpty()) {
+            return;
+        }
+
+        // read the area and its border once into palette ids, all blocks are
+        // then counted from the grid which also keeps the results from
+        // bleeding into each other
+        final PaletteGrid grid = new PaletteGrid(new Vector3i(region.getMinX() - 1, region.getMinY() - margin, region.getMinZ() - 1),
+                new Vector3i(region.getMaxX() + 1, region.getMaxY() + margin, region.getMaxZ() + 1));
+        Region.cuboid(region.getMinX() - 1, Math.max(region.getMinY() - margin, 0), region.getMinZ() - 1, region.getMaxX() + 1,
+                Math.min(region.getMaxY() + margin, WORLD_HEIGHT), region.getMaxZ() + 1)
+                .forEach((x, y, z) -> grid.set(x, y, z, this.session.getBlock(x, y, z)));
+
+        final int[] neighbors = new int[flat ? 9 : 27];
+        int n = 0;
+        for (int ox = -1; ox <= 1; ox++) {
+            for (int oz = -1; oz <= 1; oz++) {
+                for (int oy = -margin; oy <= margin; oy++) {
+                    neighbors[n++] = ox + oy * grid.getStrideY() + oz * grid.getStrideZ();
+                }
+            }
+        }
+        // counts per palette id, only the entries of the neighbors of a block
+        // are touched and reset again afterwards
+        final int[] counts = new int[grid.getPaletteSize()];
+
+        this.undo = new Undo();
+        region.forEach((x, y, z) -> {
+            int index = grid.index(x, y, z);
+            char current = grid.getId(index);
+            int highest = 1;
+            char highestId = current;
+            boolean tie = false;
+            for (int offset : neighbors) {
+                char id = grid.getId(index + offset);
+                if (id == PaletteGrid.EMPTY) {
+                    continue;
+                }
+                int count = ++counts[id];
+                if (count > highest) {
+                    highest = count;
+                    highestId = id;
+                    tie = false;
+                } else if (count == highest) {
+                    tie = true;
+                }
+            }
+            for (int offset : neighbors) {
+                char id = grid.getId(index + offset);
+                if (id != PaletteGrid.EMPTY) {
+                    counts[id] = 0;
+                }
+            }
+            if (!tie && current != highestId) {
+                setBlockState(x, y, z, grid.getState(highestId));
+            }
+        });
+        v.owner().storeUndo(this.undo);
+        this.undo = null;
+    }
+
     @Override
     protected final void arrow(final SnipeData v) {
         this.blend(v);
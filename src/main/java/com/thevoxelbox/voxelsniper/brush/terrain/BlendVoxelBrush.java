@@ -24,15 +24,8 @@
  */
 package com.thevoxelbox.voxelsniper.brush.terrain;
 
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
-import com.thevoxelbox.voxelsniper.Undo;
-import com.thevoxelbox.voxelsniper.util.BlockBuffer;
-
-import com.flowpowered.math.vector.Vector3i;
-import com.google.common.collect.Maps;
-import org.spongepowered.api.block.BlockState;
-
-import java.util.Map;
 
 /**
  * http://www.voxelwiki.com/minecraft/Voxelsniper#Blend_Brushes
@@ -45,75 +38,11 @@ public class BlendVoxelBrush extends BlendBrushBase {
 
     @Override
     protected final void blend(final SnipeData v) {
-        final int brushSize = (int) Math.round(v.getBrushSize());
-        // all changes are initially performed into a buffer to prevent the
-        // results bleeding into each other
-        BlockBuffer buffer = new BlockBuffer(new Vector3i(-brushSize, -brushSize, -brushSize), new Vector3i(brushSize, brushSize, brushSize));
-
-        int tx = this.targetBlock.getBlockX();
-        int ty = this.targetBlock.getBlockY();
-        int tz = this.targetBlock.getBlockZ();
-
-        Map<BlockState, Integer> frequency = Maps.newHashMap();
-
-        for (int x = -brushSize; x <= brushSize; x++) {
-            int x0 = x + tx;
-            for (int y = -brushSize; y <= brushSize; y++) {
-                int y0 = y + ty;
-                for (int z = -brushSize; z <= brushSize; z++) {
-                    int z0 = z + tz;
-                    int highest = 1;
-                    BlockState currentState = this.world.getBlock(x0, y0, z0);
-                    BlockState highestState = currentState;
-                    frequency.clear();
-                    boolean tie = false;
-                    for (int ox = -1; ox <= 1; ox++) {
-                        for (int oz = -1; oz <= 1; oz++) {
-                            for (int oy = -1; oy <= 1; oy++) {
-                                if (oy + y0 < 0 || oy + y0 > WORLD_HEIGHT) {
-                                    continue;
-                                }
-                                BlockState state = this.world.getBlock(x0 + ox, y0 + oy, z0 + oz);
-                                Integer count = frequency.get(state);
-                                if (count == null) {
-                                    count = 1;
-                                } else {
-                                    count++;
-                                }
-                                if (count > highest) {
-                                    highest = count;
-                                    highestState = state;
-                                    tie = false;
-                                } else if (count == highest) {
-                                    tie = true;
-                                }
-                                frequency.put(state, count);
-                            }
-                        }
-                    }
-                    if (!tie && currentState != highestState) {
-                        buffer.set(x, y, z, highestState);
-                    }
-                }
-            }
-        }
-
-        this.undo = new Undo(buffer.getBlockCount());
-        // apply the buffer to the world
-        for (int x = -brushSize; x <= brushSize; x++) {
-            int x0 = x + tx;
-            for (int y = -brushSize; y <= brushSize; y++) {
-                int y0 = y + ty;
-                for (int z = -brushSize; z <= brushSize; z++) {
-                    int z0 = z + tz;
-                    if (buffer.contains(x, y, z)) {
-                        setBlockState(x0, y0, z0, buffer.get(x, y, z));
-                    }
-                }
-            }
-        }
-        v.owner().storeUndo(this.undo);
-        this.undo = null;
+        final int radius = (int) Math.round(v.getBrushSize());
+        final int tx = this.targetBlock.getBlockX();
+        final int ty = this.targetBlock.getBlockY();
+        final int tz = this.targetBlock.getBlockZ();
+        this.blend(v, Region.cuboid(tx - radius, ty - radius, tz - radius, tx + radius, ty + radius, tz + radius), false);
     }
 
     @Override
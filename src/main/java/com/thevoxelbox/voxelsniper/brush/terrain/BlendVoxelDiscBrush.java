@@ -24,15 +24,8 @@
  */
 package com.thevoxelbox.voxelsniper.brush.terrain;
 
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
-import com.thevoxelbox.voxelsniper.Undo;
-import com.thevoxelbox.voxelsniper.util.BlockBuffer;
-
-import com.flowpowered.math.vector.Vector3i;
-import com.google.common.collect.Maps;
-import org.spongepowered.api.block.BlockState;
-
-import java.util.Map;
 
 /**
  * http://www.voxelwiki.com/minecraft/Voxelsniper#Blend_Brushes
@@ -45,64 +38,11 @@ public class BlendVoxelDiscBrush extends BlendBrushBase {
 
     @Override
     protected final void blend(final SnipeData v) {
-        final int brushSize = (int) v.getBrushSize() + 1;
-        // all changes are initially performed into a buffer to prevent the
-        // results bleeding into each other
-        BlockBuffer buffer = new BlockBuffer(new Vector3i(-brushSize, 0, -brushSize), new Vector3i(brushSize, 0, brushSize));
-
-        int tx = this.targetBlock.getBlockX();
-        int ty = this.targetBlock.getBlockY();
-        int tz = this.targetBlock.getBlockZ();
-
-        Map<BlockState, Integer> frequency = Maps.newHashMap();
-
-        for (int x = -brushSize; x <= brushSize; x++) {
-            int x0 = x + tx;
-            for (int z = -brushSize; z <= brushSize; z++) {
-                int z0 = z + tz;
-                int highest = 1;
-                BlockState currentState = this.world.getBlock(x0, ty, z0);
-                BlockState highestState = currentState;
-                frequency.clear();
-                boolean tie = false;
-                for (int ox = -1; ox <= 1; ox++) {
-                    for (int oz = -1; oz <= 1; oz++) {
-                        BlockState state = this.world.getBlock(x0 + ox, ty, z0 + oz);
-                        Integer count = frequency.get(state);
-                        if (count == null) {
-                            count = 1;
-                        } else {
-                            count++;
-                        }
-                        if (count > highest) {
-                            highest = count;
-                            highestState = state;
-                            tie = false;
-                        } else if (count == highest) {
-                            tie = true;
-                        }
-                        frequency.put(state, count);
-                    }
-                }
-                if (!tie && currentState != highestState) {
-                    buffer.set(x, 0, z, highestState);
-                }
-            }
-        }
-
-        this.undo = new Undo(buffer.getBlockCount());
-        // apply the buffer to the world
-        for (int x = -brushSize; x <= brushSize; x++) {
-            int x0 = x + tx;
-            for (int z = -brushSize; z <= brushSize; z++) {
-                int z0 = z + tz;
-                if (buffer.contains(x, 0, z)) {
-                    setBlockState(x0, ty, z0, buffer.get(x, ty, z));
-                }
-            }
-        }
-        v.owner().storeUndo(this.undo);
-        this.undo = null;
+        final int radius = (int) v.getBrushSize() + 1;
+        final int tx = this.targetBlock.getBlockX();
+        final int ty = this.targetBlock.getBlockY();
+        final int tz = this.targetBlock.getBlockZ();
+        this.blend(v, Region.cuboid(tx - radius, ty, tz - radius, tx + radius, ty, tz + radius), true);
     }
 
     @Override
@@ -25,27 +25,40 @@
 package com.thevoxelbox.voxelsniper.brush.terrain;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.Brush;
-import com.thevoxelbox.voxelsniper.util.BlockBuffer;
 import com.thevoxelbox.voxelsniper.util.BlockHelper;
+import com.thevoxelbox.voxelsniper.util.PaletteGrid;
+import com.thevoxelbox.voxelsniper.util.ShapeMask;
+import com.thevoxelbox.voxelsniper.util.Workers;
+import com.thevoxelbox.voxelsniper.util.WorldSnapshot;
 
 import com.flowpowered.math.vector.Vector3i;
 import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.primitives.Chars;
+import com.google.common.primitives.Ints;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.text.Text;
 import org.spongepowered.api.text.format.TextColors;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RecursiveAction;
 
 public class ErodeBrush extends Brush {
 
     private static final Vector3i[] FACES_TO_CHECK = {new Vector3i(0, 0, 1), new Vector3i(0, 0, -1), new Vector3i(0, 1, 0), new Vector3i(0, -1, 0),
             new Vector3i(1, 0, 0), new Vector3i(-1, 0, 0)};
 
+    // split every iteration into a few slabs per thread to balance the
+    // load, the slabs near the edges of the sphere are cheaper
+    private static final int SLABS_PER_THREAD = 4;
+
     private ErosionParameters currentPreset = Preset.MELT.getParameters();
 
     public ErodeBrush() {
@@ -53,153 +66,241 @@ public class ErodeBrush extends Brush {
     }
 
     protected void erosion(SnipeData v, int erodeFaces, int erodeRec, int fillFaces, int fillRec) {
-        int brushSize = (int) Math.ceil(v.getBrushSize());
-        double brushSizeSquared = v.getBrushSize() * v.getBrushSize();
+        final double size = v.getBrushSize();
+        int brushSize = (int) Math.ceil(size);
 
-        int tx = this.targetBlock.getBlockX();
-        int ty = this.targetBlock.getBlockY();
-        int tz = this.targetBlock.getBlockZ();
+        Vector3i target = this.targetBlock.getBlockPosition();
+        Vector3i min = new Vector3i(-brushSize - 1, -brushSize - 1, -brushSize - 1);
+        Vector3i max = new Vector3i(brushSize + 1, brushSize + 1, brushSize + 1);
 
         // @Safety there is no bounds checks done here
 
-        // writes cycle back and fourth between these two buffers to prevent
-        // bleeding between iterations
-        BlockBuffer buffer1 = new BlockBuffer(new Vector3i(-brushSize - 1, -brushSize - 1, -brushSize - 1),
-                new Vector3i(brushSize + 1, brushSize + 1, brushSize + 1));
-        BlockBuffer buffer2 = new BlockBuffer(new Vector3i(-brushSize - 1, -brushSize - 1, -brushSize - 1),
-                new Vector3i(brushSize + 1, brushSize + 1, brushSize + 1));
-
-        for (int x = -brushSize - 1; x <= brushSize + 1; x++) {
-            int x0 = x + tx;
-            for (int y = -brushSize - 1; y <= brushSize + 1; y++) {
-                int y0 = y + ty;
-                for (int z = -brushSize - 1; z <= brushSize + 1; z++) {
-                    int z0 = z + tz;
-                    BlockState state = this.world.getBlock(x0, y0, z0);
-                    buffer1.set(x, y, z, state);
-                    buffer2.set(x, y, z, state);
-                }
+        WorldSnapshot snapshot = WorldSnapshot.capture(this.world, target.add(min), target.add(max));
+        // the iterations only work on the snapshot so they are run off the
+        // main thread
+        computeAsync(v, () -> {
+            // writes cycle back and fourth between these two grids to
+            // prevent bleeding between iterations
+            PaletteGrid grid1 = snapshot.toGrid(target, min, max);
+            ErosionTables tables = new ErosionTables(grid1);
+            PaletteGrid grid2 = grid1.copy();
+            int swap = 0;
+            for (int i = 0; i < erodeRec; ++i) {
+                erosionIteration(size, erodeFaces, tables, swap % 2 == 0 ? grid1 : grid2, swap % 2 == 1 ? grid1 : grid2);
+                swap++;
             }
-        }
-        int swap = 0;
-        for (int i = 0; i < erodeRec; ++i) {
-            erosionIteration(v, erodeFaces, swap % 2 == 0 ? buffer1 : buffer2, swap % 2 == 1 ? buffer1 : buffer2);
-            swap++;
-        }
 
-        for (int i = 0; i < fillRec; ++i) {
-            fillIteration(v, fillFaces, swap % 2 == 0 ? buffer1 : buffer2, swap % 2 == 1 ? buffer1 : buffer2);
-            swap++;
-        }
-        BlockBuffer finalBuffer = swap % 2 == 0 ? buffer1 : buffer2;
-        this.undo = new Undo(finalBuffer.getBlockCount());
-        // apply the buffer to the world
-        for (int x = -brushSize; x <= brushSize; x++) {
-            int x0 = x + tx;
-            for (int y = -brushSize; y <= brushSize; y++) {
-                int y0 = y + ty;
-                for (int z = -brushSize; z <= brushSize; z++) {
-                    int z0 = z + tz;
-                    if (x * x + y * y + z * z <= brushSizeSquared && finalBuffer.contains(x, y, z)) {
-                        setBlockState(x0, y0, z0, finalBuffer.get(x, y, z));
-                    }
-                }
+            for (int i = 0; i < fillRec; ++i) {
+                fillIteration(size, fillFaces, tables, swap % 2 == 0 ? grid1 : grid2, swap % 2 == 1 ? grid1 : grid2);
+                swap++;
             }
-        }
+            return swap % 2 == 0 ? grid1 : grid2;
+        }, (data, finalGrid) -> applyErosion(data, finalGrid, size));
+    }
+
+    private void applyErosion(SnipeData v, PaletteGrid finalGrid, double size) {
+        int tx = this.targetBlock.getBlockX();
+        int ty = this.targetBlock.getBlockY();
+        int tz = this.targetBlock.getBlockZ();
+
+        this.undo = new Undo();
+        // apply the grid to the world
+        Region.sphere(tx, ty, tz, size, true).forEach((x, y, z) -> {
+            BlockState state = finalGrid.get(x - tx, y - ty, z - tz);
+            if (state != null) {
+                setBlockState(x, y, z, state);
+            }
+        });
         v.owner().storeUndo(this.undo);
         this.undo = null;
     }
 
-    private void fillIteration(SnipeData v, int fillFaces, BlockBuffer current, BlockBuffer target) {
-        int brushSize = (int) v.getBrushSize() + 1;
-        double brushSizeSquared = v.getBrushSize() * v.getBrushSize();
-        Map<BlockState, Integer> frequency = Maps.newHashMap();
-
-        for (int x = -brushSize; x <= brushSize; x++) {
-            for (int y = -brushSize; y <= brushSize; y++) {
-                for (int z = -brushSize; z <= brushSize; z++) {
-                    target.set(x, y, z, current.get(x, y, z));
-                    if (x * x + y * y + z * z >= brushSizeSquared) {
-                        continue;
-                    }
-                    BlockState state = current.get(x, y, z);
-                    if (!BlockHelper.isLiquidOrGas(state)) {
-                        continue;
-                    }
-                    int total = 0;
-                    int highest = 1;
-                    BlockState highestState = state;
-                    frequency.clear();
-                    for (Vector3i offs : FACES_TO_CHECK) {
-                        BlockState next = current.get(x + offs.getX(), y + offs.getY(), z + offs.getZ());
-                        if (BlockHelper.isLiquidOrGas(next)) {
+    private static void fillIteration(double size, int fillFaces, ErosionTables tables, PaletteGrid current, PaletteGrid target) {
+        ShapeMask mask = ShapeMask.sphere(size);
+        int[] faces = faceOffsets(current);
+        iterate(size, (minZ, maxZ, brushSize) -> {
+            // counts per palette id, only the entries of the neighbors of a
+            // cell are touched and reset again afterwards
+            int[] counts = new int[current.getPaletteSize()];
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = -brushSize; y <= brushSize; y++) {
+                    for (int x = -brushSize; x <= brushSize; x++) {
+                        int index = current.index(x, y, z);
+                        char id = current.getId(index);
+                        target.setId(index, id);
+                        if (!mask.contains(x, y, z) || id == PaletteGrid.EMPTY || !tables.fluid[id]) {
                             continue;
                         }
-                        total++;
-                        Integer count = frequency.get(next);
-                        if (count == null) {
-                            count = 1;
-                        } else {
-                            count++;
+                        int total = 0;
+                        int highest = 1;
+                        char highestId = id;
+                        for (int face : faces) {
+                            char next = current.getId(index + face);
+                            if (next == PaletteGrid.EMPTY || tables.fluid[next]) {
+                                continue;
+                            }
+                            total++;
+                            int count = ++counts[next];
+                            if (count > highest) {
+                                highest = count;
+                                highestId = next;
+                            }
                         }
-                        if (count > highest) {
-                            highest = count;
-                            highestState = next;
+                        for (int face : faces) {
+                            char next = current.getId(index + face);
+                            if (next != PaletteGrid.EMPTY) {
+                                counts[next] = 0;
+                            }
+                        }
+                        if (total > fillFaces) {
+                            target.setId(index, highestId);
                         }
-                        frequency.put(next, count);
-                    }
-                    if (total > fillFaces) {
-                        target.set(x, y, z, highestState);
                     }
                 }
             }
-        }
+        });
     }
 
-    private void erosionIteration(SnipeData v, int erodeFaces, BlockBuffer current, BlockBuffer target) {
-        int brushSize = (int) v.getBrushSize() + 1;
-        double brushSizeSquared = v.getBrushSize() * v.getBrushSize();
-        Map<BlockType, Integer> frequency = Maps.newHashMap();
-
-        for (int x = -brushSize; x <= brushSize; x++) {
-            for (int y = -brushSize; y <= brushSize; y++) {
-                for (int z = -brushSize; z <= brushSize; z++) {
-                    target.set(x, y, z, current.get(x, y, z));
-                    if (x * x + y * y + z * z >= brushSizeSquared) {
-                        continue;
-                    }
-                    BlockState state = current.get(x, y, z);
-                    if (BlockHelper.isLiquidOrGas(state)) {
-                        continue;
-                    }
-                    int total = 0;
-                    int highest = 1;
-                    BlockType highestState = state.getType();
-                    frequency.clear();
-                    for (Vector3i offs : FACES_TO_CHECK) {
-                        BlockState next = current.get(x + offs.getX(), y + offs.getY(), z + offs.getZ());
-                        if (!BlockHelper.isLiquidOrGas(next)) {
+    private static void erosionIteration(double size, int erodeFaces, ErosionTables tables, PaletteGrid current, PaletteGrid target) {
+        ShapeMask mask = ShapeMask.sphere(size);
+        int[] faces = faceOffsets(current);
+        iterate(size, (minZ, maxZ, brushSize) -> {
+            // erosion counts block types rather than states
+            int[] counts = new int[tables.typeDefault.length];
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = -brushSize; y <= brushSize; y++) {
+                    for (int x = -brushSize; x <= brushSize; x++) {
+                        int index = current.index(x, y, z);
+                        char id = current.getId(index);
+                        target.setId(index, id);
+                        if (!mask.contains(x, y, z) || id == PaletteGrid.EMPTY || tables.fluid[id]) {
                             continue;
                         }
-                        total++;
-                        Integer count = frequency.get(next.getType());
-                        if (count == null) {
-                            count = 1;
-                        } else {
-                            count++;
+                        int total = 0;
+                        int highest = 1;
+                        int highestType = tables.type[id];
+                        for (int face : faces) {
+                            char next = current.getId(index + face);
+                            if (next == PaletteGrid.EMPTY || !tables.fluid[next]) {
+                                continue;
+                            }
+                            total++;
+                            int count = ++counts[tables.type[next]];
+                            if (count > highest) {
+                                highest = count;
+                                highestType = tables.type[next];
+                            }
                         }
-                        if (count > highest) {
-                            highest = count;
-                            highestState = next.getType();
+                        for (int face : faces) {
+                            char next = current.getId(index + face);
+                            if (next != PaletteGrid.EMPTY) {
+                                counts[tables.type[next]] = 0;
+                            }
+                        }
+                        if (total > erodeFaces) {
+                            target.setId(index, tables.typeDefault[highestType]);
                         }
-                        frequency.put(next.getType(), count);
-                    }
-                    if (total > erodeFaces) {
-                        target.set(x, y, z, highestState.getDefaultState());
                     }
                 }
             }
+        });
+    }
+
+    /**
+     * Gets the offsets of the indices of the neighbors in
+     * {@link #FACES_TO_CHECK} within the given grid.
+     */
+    private static int[] faceOffsets(PaletteGrid grid) {
+        int[] faces = new int[FACES_TO_CHECK.length];
+        for (int i = 0; i < faces.length; i++) {
+            Vector3i face = FACES_TO_CHECK[i];
+            faces[i] = face.getX() + face.getY() * grid.getStrideY() + face.getZ() * grid.getStrideZ();
         }
+        return faces;
+    }
+
+    /**
+     * Runs one iteration over the cube of the brush. Every cell of an
+     * iteration only reads the previous grid, so the cube is split into slabs
+     * along the z axis which are computed in parallel on the worker pool,
+     * each writing its own cells of the target grid. The result does not
+     * depend on the number of threads.
+     */
+    private static void iterate(double size, SlabIteration iteration) {
+        final int brushSize = (int) size + 1;
+        final int width = 2 * brushSize + 1;
+
+        int slabs = Math.min(width, Workers.getPool().getParallelism() * SLABS_PER_THREAD);
+        List<RecursiveAction> tasks = Lists.newArrayListWithCapacity(slabs);
+        for (int i = 0; i < slabs; i++) {
+            final int minZ = -brushSize + width * i / slabs;
+            final int maxZ = -brushSize + width * (i + 1) / slabs - 1;
+            tasks.add(new RecursiveAction() {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    iteration.run(minZ, maxZ, brushSize);
+                }
+            });
+        }
+        Workers.getPool().invoke(new RecursiveAction() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * Computes the cells of one slab of an iteration.
+     */
+    @FunctionalInterface
+    private interface SlabIteration {
+
+        /**
+         * Computes the cells with a z between minZ and maxZ, inclusive.
+         */
+        void run(int minZ, int maxZ, int brushSize);
+
+    }
+
+    /**
+     * The properties of the states in the palette of a snipe, looked up once
+     * before the iterations start.
+     */
+    private static final class ErosionTables {
+
+        final boolean[] fluid;
+        final int[] type;
+        final char[] typeDefault;
+
+        ErosionTables(PaletteGrid grid) {
+            // eroded blocks are replaced by the default state of a type, so
+            // those are added to the palette first. Their types are already
+            // known, which stops the loop at the end of the palette.
+            Map<BlockType, Integer> types = Maps.newHashMap();
+            List<Integer> type = Lists.newArrayList();
+            List<Character> typeDefault = Lists.newArrayList();
+            for (int id = 0; id < grid.getPaletteSize(); id++) {
+                BlockType blockType = grid.getState((char) id).getType();
+                Integer index = types.get(blockType);
+                if (index == null) {
+                    index = types.size();
+                    types.put(blockType, index);
+                    typeDefault.add(grid.getId(blockType.getDefaultState()));
+                }
+                type.add(index);
+            }
+            this.fluid = grid.computeFlags(BlockHelper.LIQUID_OR_GAS);
+            this.type = Ints.toArray(type);
+            this.typeDefault = Chars.toArray(typeDefault);
+        }
+
     }
 
     @Override
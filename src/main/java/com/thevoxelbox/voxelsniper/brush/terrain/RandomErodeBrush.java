@@ -26,34 +26,33 @@ package com.thevoxelbox.voxelsniper.brush.terrain;
 
 import com.thevoxelbox.voxelsniper.Message;
 import com.thevoxelbox.voxelsniper.SnipeData;
+import com.thevoxelbox.voxelsniper.util.PositionalRandom;
 import com.flowpowered.math.GenericMath;
 import org.spongepowered.api.text.format.TextColors;
 
-import java.util.Random;
-
 public class RandomErodeBrush extends ErodeBrush {
 
-    private Random rand = new Random();
-    
     public RandomErodeBrush() {
         this.setName("RandomErode");
     }
 
     @Override
     protected void arrow(final SnipeData v) {
-        int erodeFaces = this.rand.nextInt(5) + 1;
-        int erodeRec = this.rand.nextInt(4) + 1;
-        int fillFaces = GenericMath.floor(this.rand.nextDouble() * this.rand.nextDouble() * 5) + 1;
-        int fillRec = this.rand.nextInt(3) + 1;
+        PositionalRandom random = newRandom();
+        int erodeFaces = random.nextInt(0, 0, 0, 0, 5) + 1;
+        int erodeRec = random.nextInt(0, 0, 0, 1, 4) + 1;
+        int fillFaces = GenericMath.floor(random.nextDouble(0, 0, 0, 2) * random.nextDouble(0, 0, 0, 3) * 5) + 1;
+        int fillRec = random.nextInt(0, 0, 0, 4, 3) + 1;
         this.erosion(v, erodeFaces, erodeRec, fillFaces, fillRec);
     }
 
     @Override
     protected void powder(final SnipeData v) {
-        int erodeFaces = GenericMath.floor(this.rand.nextDouble() * this.rand.nextDouble() * 5) + 1;
-        int erodeRec = this.rand.nextInt(3) + 1;
-        int fillFaces = this.rand.nextInt(5) + 1;
-        int fillRec = this.rand.nextInt(4) + 1;
+        PositionalRandom random = newRandom();
+        int erodeFaces = GenericMath.floor(random.nextDouble(0, 0, 0, 0) * random.nextDouble(0, 0, 0, 1) * 5) + 1;
+        int erodeRec = random.nextInt(0, 0, 0, 2, 3) + 1;
+        int fillFaces = random.nextInt(0, 0, 0, 3, 5) + 1;
+        int fillRec = random.nextInt(0, 0, 0, 4, 4) + 1;
         this.erosion(v, erodeFaces, erodeRec, fillFaces, fillRec);
     }
 
@@ -61,11 +60,19 @@ public class RandomErodeBrush extends ErodeBrush {
     public void info(final Message vm) {
         vm.brushName(this.getName());
         vm.size();
+        seedInfo(vm);
     }
 
     @Override
     public void parameters(final String[] par, final SnipeData v) {
-        v.sendMessage(TextColors.RED, "This brush does not accept additional parameters.");
+        for (int i = 1; i < par.length; i++) {
+            if (par[i].equalsIgnoreCase("info")) {
+                v.sendMessage(TextColors.GOLD, "Random Erode brush parameters:");
+                v.sendMessage(TextColors.AQUA, "/b re seed[long] -- fix the random seed, seed alone picks a new one per snipe.");
+            } else if (!parseSeed(par[i], v)) {
+                v.sendMessage(TextColors.RED, "Invalid brush parameters! use the info parameter to display parameter info.");
+            }
+        }
     }
 
     @Override
@@ -24,16 +24,18 @@
  */
 package com.thevoxelbox.voxelsniper.brush.terrain;
 
-import com.flowpowered.math.GenericMath;
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
+import com.thevoxelbox.voxelsniper.util.CellularAutomaton;
+import com.thevoxelbox.voxelsniper.util.PositionalRandom;
 import org.spongepowered.api.text.format.TextColors;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
-import java.util.Random;
+import java.util.function.Supplier;
 
 /**
  * Places a number of seeds in the area and then grows them over a number of
@@ -49,109 +51,40 @@ public class SplatterBallBrush extends PerformBrush {
     private double seedPercent = SEED_PERCENT_DEFAULT;
     private double growPercent = GROW_PERCENT_DEFAULT;
     private int splatterRecursions = RECURSIONS_DEFAULT;
-    private Random generator = new Random();
 
     public SplatterBallBrush() {
         this.setName("Splatter Ball");
     }
 
-    private void splatterBall(final SnipeData v, Location<World> targetBlock) {
-        int size = (int) Math.round(v.getBrushSize());
-        final boolean[][][] splat = new boolean[2 * size][2 * size][2 * size];
-
-        // @Cleanup: a 3d bitset would make this a lot smaller in memory
-        // footprint
+    private static CellularAutomaton splatterBall(final int size, final double seedPercent, final double growPercent, final int splatterRecursions,
+            final PositionalRandom random) {
+        final CellularAutomaton splat = new CellularAutomaton(2 * size + 1, 2 * size + 1, 2 * size + 1);
 
         // Seed the array
-        for (int x = 2 * size; x >= 0; x--) {
-            for (int y = 2 * size; y >= 0; y--) {
-                for (int z = 2 * size; z >= 0; z--) {
-                    if (this.generator.nextDouble() <= this.seedPercent) {
-                        splat[x][y][z] = true;
-                    }
-                }
-            }
-        }
+        splat.seed(seedPercent, random);
         // Grow the seeds
-        final boolean[][][] tempSplat = new boolean[2 * size][2 * size][2 * size];
-        int growcheck;
-
-        for (int r = 0; r < this.splatterRecursions; r++) {
-            double grow = this.growPercent - ((this.growPercent / this.splatterRecursions) * (r));
-            for (int x = 2 * size; x >= 0; x--) {
-                for (int y = 2 * size; y >= 0; y--) {
-                    for (int z = 2 * size; z >= 0; z--) {
-                        tempSplat[x][y][z] = splat[x][y][z]; // prime tempsplat
-
-                        growcheck = 0;
-                        if (!splat[x][y][z]) {
-                            if (x != 0 && splat[x - 1][y][z]) {
-                                growcheck++;
-                            }
-                            if (y != 0 && splat[x][y - 1][z]) {
-                                growcheck++;
-                            }
-                            if (z != 0 && splat[x][y][z - 1]) {
-                                growcheck++;
-                            }
-                            if (x != 2 * size && splat[x + 1][y][z]) {
-                                growcheck++;
-                            }
-                            if (y != 2 * size && splat[x][y + 1][z]) {
-                                growcheck++;
-                            }
-                            if (z != 2 * size && splat[x][y][z + 1]) {
-                                growcheck++;
-                            }
-                        }
-
-                        if (growcheck >= 0 && this.generator.nextDouble() <= grow) {
-                            tempSplat[x][y][z] = true;
-                        }
-
-                    }
-                }
-            }
-            // integrate tempsplat back into splat at end of iteration
-            for (int x = 2 * size; x >= 0; x--) {
-                for (int y = 2 * size; y >= 0; y--) {
-                    for (int z = 2 * size; z >= 0; z--) {
-                        splat[x][y][z] = tempSplat[x][y][z];
-                    }
-                }
-            }
+        for (int r = 0; r < splatterRecursions; r++) {
+            splat.grow(growPercent - ((growPercent / splatterRecursions) * (r)), random);
         }
         // Fill 1x1x1 holes
-        for (int x = 2 * size - 2; x >= 1; x--) {
-            for (int y = 2 * size - 2; y >= 1; y--) {
-                for (int z = 2 * size - 2; z >= 1; z--) {
-                    if (splat[x - 1][y][z] && splat[x + 1][y][z] && splat[x][y - 1][z] && splat[x][y + 1][z] && splat[x][y][z - 1]
-                            && splat[x][y][z + 1]) {
-                        splat[x][y][z] = true;
-                    }
-                }
-            }
-        }
+        splat.fillHoles();
+        return splat;
+    }
 
-        this.undo = new Undo(GenericMath.floor(4 * Math.PI * (v.getBrushSize() + 1) * (v.getBrushSize() + 1) * (v.getBrushSize() + 1) / 3));
+    private void applySplatter(final SnipeData v, final CellularAutomaton splat, final double brushSize, Location<World> targetBlock) {
+        final int size = (splat.getSizeX() - 1) / 2;
+        this.undo = new Undo();
         // Make the changes
-        final double rSquared = v.getBrushSize() * v.getBrushSize();
-
-        for (int x = 2 * size; x >= 0; x--) {
-            final double xSquared = (x - size) * (x - size);
-            int x0 = x - size + targetBlock.getBlockX();
-            for (int y = 2 * size; y >= 0; y--) {
-                final double ySquared = (y - size) * (y - size);
-                int y0 = y - size + targetBlock.getBlockY();
-                for (int z = 2 * size; z >= 0; z--) {
-                    final double zSquared = (z - size) * (z - size);
-                    int z0 = z - size + targetBlock.getBlockZ();
-                    if (splat[x][y][z] && xSquared + ySquared + zSquared <= rSquared) {
-                        perform(v, x0, y0, z0);
-                    }
-                }
+        final int tx = targetBlock.getBlockX();
+        final int ty = targetBlock.getBlockY();
+        final int tz = targetBlock.getBlockZ();
+        Region region = Region.sphere(tx, ty, tz, brushSize, true)
+                .intersect(Region.cuboid(tx - size, ty - size, tz - size, tx + size, ty + size, tz + size));
+        region.forEach((x, y, z) -> {
+            if (splat.get(x - tx + size, y - ty + size, z - tz + size)) {
+                perform(v, x, y, z);
             }
-        }
+        });
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -159,12 +92,23 @@ public class SplatterBallBrush extends PerformBrush {
 
     @Override
     protected final void arrow(final SnipeData v) {
-        this.splatterBall(v, this.targetBlock);
+        final double brushSize = v.getBrushSize();
+        computeAsync(v, splatterTask(brushSize), (d, splat) -> this.applySplatter(d, splat, brushSize, this.targetBlock));
     }
 
     @Override
     protected final void powder(final SnipeData v) {
-        this.splatterBall(v, this.lastBlock);
+        final double brushSize = v.getBrushSize();
+        computeAsync(v, splatterTask(brushSize), (d, splat) -> this.applySplatter(d, splat, brushSize, this.lastBlock));
+    }
+
+    private Supplier<CellularAutomaton> splatterTask(final double brushSize) {
+        final int size = (int) Math.round(brushSize);
+        final double seedPercent = this.seedPercent;
+        final double growPercent = this.growPercent;
+        final int splatterRecursions = this.splatterRecursions;
+        final PositionalRandom random = newRandom();
+        return () -> splatterBall(size, seedPercent, growPercent, splatterRecursions, random);
     }
 
     @Override
@@ -174,6 +118,7 @@ public class SplatterBallBrush extends PerformBrush {
         vm.custom(TextColors.BLUE, "Seed percent set to: " + this.seedPercent * 100 + "%");
         vm.custom(TextColors.BLUE, "Growth percent set to: " + this.growPercent * 100 + "%");
         vm.custom(TextColors.BLUE, "Recursions set to: " + this.splatterRecursions);
+        seedInfo(vm);
     }
 
     @Override
@@ -186,7 +131,10 @@ public class SplatterBallBrush extends PerformBrush {
                 v.sendMessage(TextColors.AQUA, "/b sb s[float] -- set a seed percentage (0-1). Default is 0.1");
                 v.sendMessage(TextColors.AQUA, "/b sb g[float] -- set a growth percentage (0-1). Default is 0.1");
                 v.sendMessage(TextColors.AQUA, "/b sb r[int] -- set a recursion (1-10).  Default is 3");
+                v.sendMessage(TextColors.AQUA, "/b sb seed[long] -- fix the random seed, seed alone picks a new one per snipe.");
                 return;
+            } else if (parseSeed(parameter, v)) {
+                continue;
             } else if (parameter.startsWith("s")) {
                 try {
                     final double temp = Double.parseDouble(parameter.replace("s", ""));
@@ -25,6 +25,7 @@
 package com.thevoxelbox.voxelsniper.brush.terrain;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
@@ -55,7 +56,6 @@ public class SplatterOverlayBrush extends PerformBrush {
 
     private void splatterOverlay(final SnipeData v, Location<World> targetBlock) {
         int size = GenericMath.floor(v.getBrushSize()) + 1;
-        double sizeSquared = v.getBrushSize() * v.getBrushSize();
 
         int tx = targetBlock.getBlockX();
         int ty = targetBlock.getBlockY();
@@ -67,36 +67,32 @@ public class SplatterOverlayBrush extends PerformBrush {
         final byte[][][] splat = new byte[2 * size + 1][ty][2 * size + 1];
 
         // Seed the array
-        int miny = WORLD_HEIGHT;
-        for (int x = -size; x <= size; x++) {
-            int x0 = tx + x;
-            for (int z = -size; z <= size; z++) {
-                int z0 = tx + z;
-                if (x * x + z * z >= sizeSquared) {
-                    continue;
-                }
-                y_search: for (int y = ty; y >= 0; y--) {
-                    if (this.world.getBlockType(x0, y, z0) != BlockTypes.AIR) {
-                        if (y == ty) {
-                            break;
+        final int[] lowest = {WORLD_HEIGHT};
+        Region.disc(tx, ty, tz, v.getBrushSize()).forEach((x0, top, z0) -> {
+            int x = x0 - tx;
+            int z = z0 - tz;
+            y_search: for (int y = top; y >= 0; y--) {
+                if (this.session.getBlockType(x0, y, z0) != BlockTypes.AIR) {
+                    if (y == top) {
+                        break;
+                    }
+                    for (int y0 = y; y0 >= y - this.depth; y0--) {
+                        if (this.session.getBlockType(x0, y, z0) == BlockTypes.AIR) {
+                            break y_search;
+                        }
+                        if (this.generator.nextDouble() < this.growPercent) {
+                            splat[x + size][y0][z + size] = 2;
+                        } else {
+                            splat[x + size][y0][z + size] = 1;
                         }
-                        for (int y0 = y; y0 >= y - this.depth; y0--) {
-                            if (this.world.getBlockType(x0, y, z0) == BlockTypes.AIR) {
-                                break y_search;
-                            }
-                            if (this.generator.nextDouble() < this.growPercent) {
-                                splat[x + size][y0][z + size] = 2;
-                            } else {
-                                splat[x + size][y0][z + size] = 1;
-                            }
-                            if (y0 < miny) {
-                                miny = y0;
-                            }
+                        if (y0 < lowest[0]) {
+                            lowest[0] = y0;
                         }
                     }
                 }
             }
-        }
+        });
+        int miny = lowest[0];
         int y_range = ty - miny + 1;
         // Grow the seeds
         final byte[][][] tempSplat = new byte[2 * size + 1][y_range][2 * size + 1];
@@ -170,7 +166,7 @@ public class SplatterOverlayBrush extends PerformBrush {
             }
         }
 
-        this.undo = new Undo(GenericMath.floor(4 * Math.PI * (v.getBrushSize() + 1) * (v.getBrushSize() + 1) * (v.getBrushSize() + 1) / 3));
+        this.undo = new Undo();
         // Make the changes
         for (int x = -size; x <= size; x++) {
             int xi = x + size;
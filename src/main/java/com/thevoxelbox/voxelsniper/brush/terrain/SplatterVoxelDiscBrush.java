@@ -25,16 +25,16 @@
 package com.thevoxelbox.voxelsniper.brush.terrain;
 
 import com.thevoxelbox.voxelsniper.Message;
+import com.thevoxelbox.voxelsniper.Region;
 import com.thevoxelbox.voxelsniper.SnipeData;
 import com.thevoxelbox.voxelsniper.Undo;
 import com.thevoxelbox.voxelsniper.brush.PerformBrush;
-import com.flowpowered.math.GenericMath;
+import com.thevoxelbox.voxelsniper.util.CellularAutomaton;
+import com.thevoxelbox.voxelsniper.util.PositionalRandom;
 import org.spongepowered.api.text.format.TextColors;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
-import java.util.Random;
-
 public class SplatterVoxelDiscBrush extends PerformBrush {
 
     private static final double GROW_PERCENT_DEFAULT = 0.1;
@@ -45,7 +45,6 @@ public class SplatterVoxelDiscBrush extends PerformBrush {
     private double seedPercent = SEED_PERCENT_DEFAULT;
     private double growPercent = GROW_PERCENT_DEFAULT;
     private int splatterRecursions = RECURSIONS_DEFAULT;
-    private Random generator = new Random();
 
     public SplatterVoxelDiscBrush() {
         this.setName("Splatter VoxelDisc");
@@ -53,78 +52,29 @@ public class SplatterVoxelDiscBrush extends PerformBrush {
 
     private void splatterVoxelDisc(final SnipeData v, Location<World> targetBlock) {
         int size = (int) Math.round(v.getBrushSize());
-        final boolean[][] splat = new boolean[2 * size][2 * size];
-
-        // @Cleanup: a 3d bitset would make this a lot smaller in memory
-        // footprint
+        final PositionalRandom random = newRandom();
+        final CellularAutomaton splat = new CellularAutomaton(2 * size + 1, 1, 2 * size + 1);
 
         // Seed the array
-        for (int x = 2 * size; x >= 0; x--) {
-            for (int z = 2 * size; z >= 0; z--) {
-                if (this.generator.nextDouble() <= this.seedPercent) {
-                    splat[x][z] = true;
-                }
-            }
-        }
+        splat.seed(this.seedPercent, random);
         // Grow the seeds
-        final boolean[][] tempSplat = new boolean[2 * size][2 * size];
-        int growcheck;
-
         for (int r = 0; r < this.splatterRecursions; r++) {
-            double grow = this.growPercent - ((this.growPercent / this.splatterRecursions) * (r));
-            for (int x = 2 * size; x >= 0; x--) {
-                for (int z = 2 * size; z >= 0; z--) {
-                    tempSplat[x][z] = splat[x][z]; // prime tempsplat
-
-                    growcheck = 0;
-                    if (!splat[x][z]) {
-                        if (x != 0 && splat[x - 1][z]) {
-                            growcheck++;
-                        }
-                        if (z != 0 && splat[x][z - 1]) {
-                            growcheck++;
-                        }
-                        if (x != 2 * size && splat[x + 1][z]) {
-                            growcheck++;
-                        }
-                        if (z != 2 * size && splat[x][z + 1]) {
-                            growcheck++;
-                        }
-                    }
-
-                    if (growcheck >= 0 && this.generator.nextDouble() <= grow) {
-                        tempSplat[x][z] = true;
-                    }
-                }
-            }
-            // integrate tempsplat back into splat at end of iteration
-            for (int x = 2 * size; x >= 0; x--) {
-                for (int z = 2 * size; z >= 0; z--) {
-                    splat[x][z] = tempSplat[x][z];
-                }
-            }
+            splat.grow(this.growPercent - ((this.growPercent / this.splatterRecursions) * (r)), random);
         }
         // Fill 1x1 holes
-        for (int x = 2 * size - 1; x >= 1; x--) {
-            for (int z = size - 1; z >= 1; z--) {
-                if (splat[x - 1][z] && splat[x + 1][z] && splat[x][z - 1] && splat[x][z + 1]) {
-                    splat[x][z] = true;
-                }
-            }
-        }
+        splat.fillHoles();
 
-        this.undo = new Undo(GenericMath.floor(2 * Math.PI * (v.getBrushSize() + 1) * (v.getBrushSize() + 1)));
+        this.undo = new Undo();
 
         // Make the changes
-        for (int x = 2 * size; x >= 0; x--) {
-            int x0 = x - size + targetBlock.getBlockX();
-            for (int z = 2 * size; z >= 0; z--) {
-                int z0 = z - size + targetBlock.getBlockZ();
-                if (splat[x][z]) {
-                    perform(v, x0, targetBlock.getBlockY(), z0);
-                }
+        final int tx = targetBlock.getBlockX();
+        final int ty = targetBlock.getBlockY();
+        final int tz = targetBlock.getBlockZ();
+        Region.cuboid(tx - size, ty, tz - size, tx + size, ty, tz + size).forEach((x, y, z) -> {
+            if (splat.get(x - tx + size, 0, z - tz + size)) {
+                perform(v, x, y, z);
             }
-        }
+        });
 
         v.owner().storeUndo(this.undo);
         this.undo = null;
@@ -148,6 +98,7 @@ public class SplatterVoxelDiscBrush extends PerformBrush {
         vm.custom(TextColors.BLUE, "Seed percent set to: " + this.seedPercent * 100 + "%");
         vm.custom(TextColors.BLUE, "Growth percent set to: " + this.growPercent * 100 + "%");
         vm.custom(TextColors.BLUE, "Recursions set to: " + this.splatterRecursions);
+        seedInfo(vm);
     }
 
     @Override
@@ -160,7 +111,10 @@ public class SplatterVoxelDiscBrush extends PerformBrush {
                 v.sendMessage(TextColors.AQUA, "/b svd s[float] -- set a seed percentage (0 - 1). Default is 0.1");
                 v.sendMessage(TextColors.AQUA, "/b svd g[float] -- set a growth percentage (0 - 1). Default is 0.1");
                 v.sendMessage(TextColors.AQUA, "/b svd r[int] -- set a recursion (1-10).  Default is 3");
+                v.sendMessage(TextColors.AQUA, "/b svd seed[long] -- fix the random seed, seed alone picks a new one per snipe.");
                 return;
+            } else if (parseSeed(parameter, v)) {
+                continue;
             } else if (parameter.startsWith("s")) {
                 try {
                     final double temp = Double.parseDouble(parameter.replace("s", ""));
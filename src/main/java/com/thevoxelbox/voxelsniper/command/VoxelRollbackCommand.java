@@ -0,0 +1,96 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.command;
+
+import com.thevoxelbox.voxelsniper.EditSession;
+import com.thevoxelbox.voxelsniper.Sniper;
+import com.thevoxelbox.voxelsniper.SniperManager;
+import com.thevoxelbox.voxelsniper.VoxelSniperConfiguration;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.command.CommandException;
+import org.spongepowered.api.command.CommandResult;
+import org.spongepowered.api.command.CommandSource;
+import org.spongepowered.api.command.args.CommandContext;
+import org.spongepowered.api.command.args.GenericArguments;
+import org.spongepowered.api.command.spec.CommandExecutor;
+import org.spongepowered.api.command.spec.CommandSpec;
+import org.spongepowered.api.entity.living.player.Player;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.format.TextColors;
+
+import java.util.concurrent.TimeUnit;
+
+public class VoxelRollbackCommand implements CommandExecutor {
+
+    private static final int RADIUS_MAX = 32;
+    private static final int RADIUS_DEFAULT = 2;
+    private static final int MINUTES_DEFAULT = 30;
+
+    public static void setup(Object plugin) {
+        Sponge.getCommandManager().register(plugin,
+                CommandSpec.builder()
+                        .arguments(GenericArguments.playerOrSource(Text.of("sniper")),
+                                GenericArguments.optional(GenericArguments.integer(Text.of("radius")), RADIUS_DEFAULT),
+                                GenericArguments.optional(GenericArguments.integer(Text.of("minutes")), MINUTES_DEFAULT))
+                        .executor(new VoxelRollbackCommand()).permission(VoxelSniperConfiguration.PERMISSION_COMMAND_ROLLBACK)
+                        .description(Text.of("VoxelSniper rollback of all snipers within an area")).build(),
+                "vrb", "vrollback");
+    }
+
+    @Override
+    public CommandResult execute(CommandSource src, CommandContext gargs) throws CommandException {
+        Player player = (Player) gargs.getOne("sniper").get();
+        int radius = gargs.<Integer>getOne("radius").get();
+        int minutes = gargs.<Integer>getOne("minutes").get();
+        if (radius < 0 || radius > RADIUS_MAX) {
+            player.sendMessage(Text.of(TextColors.RED, "Radius must be between 0 and " + RADIUS_MAX + " chunks."));
+            return CommandResult.empty();
+        }
+        if (minutes <= 0) {
+            player.sendMessage(Text.of(TextColors.RED, "Minutes must be greater than 0."));
+            return CommandResult.empty();
+        }
+        Vector3i center = player.getLocation().getChunkPosition();
+        int diameter = radius * 2 + 1;
+        long[] chunks = new long[diameter * diameter];
+        for (int x = 0; x < diameter; x++) {
+            for (int z = 0; z < diameter; z++) {
+                chunks[x * diameter + z] = EditSession.chunkKey(center.getX() - radius + x, center.getZ() - radius + z);
+            }
+        }
+        Sniper sniper = SniperManager.get().getSniperForPlayer(player);
+        long since = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(minutes);
+        int count = SniperManager.get().getUndoManager().rollback(sniper, player.getWorld().getUniqueId(), chunks, since);
+        if (count < 0) {
+            player.sendMessage(Text.of(TextColors.RED, "Edits within this area are still being applied, please wait."));
+            return CommandResult.empty();
+        }
+        player.sendMessage(Text.of(TextColors.GREEN, "Rolling back ", TextColors.RED, count, TextColors.GREEN, " edits within " + radius
+                + " chunks of the last " + minutes + " minutes."));
+        return CommandResult.success();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+import com.thevoxelbox.voxelsniper.EditSession;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockType;
+import org.spongepowered.api.block.tileentity.TileEntity;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.Chunk;
+import org.spongepowered.api.world.World;
+import org.spongepowered.api.world.extent.Extent;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads blocks from a world while remembering every block read, so repeated
+ * reads of the same position, as done by brushes looking at the neighbors of
+ * each block, are served from a section local array.
+ *
+ * <p>Reads go through the chunk of the section rather than the world so the
+ * chunk is only resolved once per section. The accessor does not notice
+ * changes made to the world after a block was read, it is meant to live for
+ * a single snipe or has to be {@link #clear() cleared}.</p>
+ */
+public final class BlockAccessor {
+
+    private static final char EMPTY = Character.MAX_VALUE;
+
+    private final World world;
+    private final int minY;
+    private final int maxY;
+    private final Map<BlockState, Character> ids = Maps.newHashMap();
+    private final List<BlockState> palette = Lists.newArrayList();
+    private final Map<Long, Section> sections = Maps.newHashMap();
+    private final Map<Long, LongHashSet> tileEntities = Maps.newHashMap();
+    private Section lastSection;
+
+    public BlockAccessor(World world) {
+        this.world = world;
+        this.minY = world.getBlockMin().getY();
+        this.maxY = world.getBlockMax().getY();
+    }
+
+    public World getWorld() {
+        return this.world;
+    }
+
+    /**
+     * Gets the block state at the given position.
+     */
+    public BlockState getBlock(int x, int y, int z) {
+        if (y < this.minY || y > this.maxY) {
+            // let the world decide how to handle positions out of bounds
+            return this.world.getBlock(x, y, z);
+        }
+        Section section = getSection(x, y, z);
+        int index = EditSession.sectionIndex(x, y, z);
+        char id = section.ids[index];
+        if (id == EMPTY) {
+            BlockState state = section.source.getBlock(x, y, z);
+            Character known = this.ids.get(state);
+            if (known == null) {
+                known = (char) this.palette.size();
+                this.ids.put(state, known);
+                this.palette.add(state);
+            }
+            id = known;
+            section.ids[index] = id;
+        }
+        return this.palette.get(id);
+    }
+
+    /**
+     * Gets the type of the block at the given position.
+     */
+    public BlockType getBlockType(int x, int y, int z) {
+        return getBlock(x, y, z).getType();
+    }
+
+    /**
+     * Gets whether there is a tile entity at the given position. The
+     * positions of all tile entities of a chunk are collected on the first
+     * query within it.
+     */
+    public boolean hasTileEntity(int x, int y, int z) {
+        if (y < this.minY || y > this.maxY) {
+            return false;
+        }
+        Extent source = getSection(x, y, z).source;
+        if (!(source instanceof Chunk)) {
+            return this.world.getTileEntity(x, y, z).isPresent();
+        }
+        Long key = EditSession.chunkKey(x >> 4, z >> 4);
+        LongHashSet positions = this.tileEntities.get(key);
+        if (positions == null) {
+            positions = new LongHashSet();
+            for (TileEntity tile : source.getTileEntities()) {
+                Location<World> location = tile.getLocation();
+                positions.add(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+            }
+            this.tileEntities.put(key, positions);
+        }
+        return positions.contains(x, y, z);
+    }
+
+    /**
+     * Forgets all blocks read so far, to be called after the world was
+     * changed.
+     */
+    public void clear() {
+        this.sections.clear();
+        this.tileEntities.clear();
+        this.lastSection = null;
+    }
+
+    private Section getSection(int x, int y, int z) {
+        Section section = this.lastSection;
+        if (section != null && (x & ~15) == section.minX && (y & ~15) == section.minY && (z & ~15) == section.minZ) {
+            return section;
+        }
+        Long key = EditSession.sectionKey(x, y, z);
+        section = this.sections.get(key);
+        if (section == null) {
+            Optional<Chunk> chunk = this.world.getChunk(x >> 4, 0, z >> 4);
+            section = new Section(x & ~15, y & ~15, z & ~15, chunk.isPresent() ? chunk.get() : this.world);
+            this.sections.put(key, section);
+        }
+        this.lastSection = section;
+        return section;
+    }
+
+    private static final class Section {
+
+        final int minX;
+        final int minY;
+        final int minZ;
+        final Extent source;
+        final char[] ids = new char[16 * 16 * 16];
+
+        Section(int minX, int minY, int minZ, Extent source) {
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.source = source;
+            Arrays.fill(this.ids, EMPTY);
+        }
+
+    }
+
+}
@@ -33,7 +33,23 @@ import java.util.Optional;
 
 public class BlockHelper {
 
+    public static final BlockStateRegistry.Table LIQUID = BlockStateRegistry.table(BlockHelper::computeLiquid);
+    public static final BlockStateRegistry.Table LIQUID_OR_GAS = BlockStateRegistry.table(BlockHelper::computeLiquidOrGas);
+    public static final BlockStateRegistry.Table SOLID = BlockStateRegistry.table(BlockHelper::computeSolid);
+
     public static boolean isLiquid(BlockState state) {
+        return LIQUID.test(state);
+    }
+
+    public static boolean isLiquidOrGas(BlockState state) {
+        return LIQUID_OR_GAS.test(state);
+    }
+
+    public static boolean isSolid(BlockState state) {
+        return SOLID.test(state);
+    }
+
+    private static boolean computeLiquid(BlockState state) {
         Optional<MatterProperty> matter = state.getProperty(MatterProperty.class);
         if (matter.isPresent()) {
             Matter m = matter.get().getValue();
@@ -44,7 +60,7 @@ public class BlockHelper {
         return false;
     }
 
-    public static boolean isLiquidOrGas(BlockState state) {
+    private static boolean computeLiquidOrGas(BlockState state) {
         Optional<MatterProperty> matter = state.getProperty(MatterProperty.class);
         if (matter.isPresent()) {
             Matter m = matter.get().getValue();
@@ -55,7 +71,7 @@ public class BlockHelper {
         return false;
     }
 
-    public static boolean isSolid(BlockState state) {
+    private static boolean computeSolid(BlockState state) {
         Optional<SolidCubeProperty> matter = state.getProperty(SolidCubeProperty.class);
         if (matter.isPresent()) {
             return matter.get().getValue();
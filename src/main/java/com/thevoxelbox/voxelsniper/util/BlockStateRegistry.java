@@ -0,0 +1,176 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+import com.google.common.collect.Lists;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.block.BlockState;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Assigns every block state a dense int id so that properties of the states
+ * can be looked up from flat tables indexed by that id, instead of going
+ * through the property holders or hashing the block types of every block a
+ * brush looks at.
+ *
+ * <p>All states known to the game registry are assigned an id on
+ * {@link #init()}, states which show up later are appended as they are
+ * first seen. Ids and tables may be read from any thread.</p>
+ */
+public final class BlockStateRegistry {
+
+    private static final Object lock = new Object();
+    private static final List<Table> tables = Lists.newArrayList();
+
+    // Block states do not override equals, so an identity map is both
+    // correct and avoids the hashCode implementations of the state
+    // containers. Both are replaced as a whole whenever states are added.
+    private static volatile BlockState[] states = new BlockState[0];
+    private static volatile Map<BlockState, Integer> ids = new IdentityHashMap<>();
+
+    /**
+     * Assigns ids to all block states of the game registry and computes all
+     * tables created so far. Must be called once the block types have been
+     * registered.
+     */
+    public static void init() {
+        synchronized (lock) {
+            add(Sponge.getRegistry().getAllOf(BlockState.class));
+            for (Table table : tables) {
+                table.update();
+            }
+        }
+    }
+
+    /**
+     * Gets the id of the given state, assigning it one if it has not been
+     * seen before.
+     */
+    public static int getId(BlockState state) {
+        Integer id = ids.get(state);
+        if (id == null) {
+            synchronized (lock) {
+                add(Arrays.asList(state));
+                id = ids.get(state);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Gets the state with the given id.
+     */
+    public static BlockState getState(int id) {
+        return states[id];
+    }
+
+    /**
+     * Gets the number of ids assigned so far.
+     */
+    public static int size() {
+        return states.length;
+    }
+
+    /**
+     * Creates a table holding the result of the given predicate for every
+     * state. The predicate is only evaluated once per state.
+     */
+    public static Table table(Predicate<BlockState> predicate) {
+        Table table = new Table(predicate);
+        synchronized (lock) {
+            tables.add(table);
+            table.update();
+        }
+        return table;
+    }
+
+    private static void add(Iterable<BlockState> added) {
+        Map<BlockState, Integer> newIds = new IdentityHashMap<>(ids);
+        List<BlockState> newStates = Lists.newArrayList(states);
+        for (BlockState state : added) {
+            if (!newIds.containsKey(state)) {
+                newIds.put(state, newStates.size());
+                newStates.add(state);
+            }
+        }
+        if (newStates.size() == states.length) {
+            return;
+        }
+        // The states must be published first so that whoever sees an id can
+        // also look up its state.
+        states = newStates.toArray(new BlockState[newStates.size()]);
+        ids = newIds;
+    }
+
+    private BlockStateRegistry() {
+    }
+
+    /**
+     * A flag for every block state, indexed by its id.
+     */
+    public static final class Table implements Predicate<BlockState> {
+
+        private final Predicate<BlockState> predicate;
+        private volatile boolean[] values = new boolean[0];
+
+        Table(Predicate<BlockState> predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean test(BlockState state) {
+            return test(getId(state));
+        }
+
+        public boolean test(int id) {
+            boolean[] values = this.values;
+            if (id >= values.length) {
+                values = update();
+            }
+            return values[id];
+        }
+
+        synchronized boolean[] update() {
+            boolean[] values = this.values;
+            BlockState[] states = BlockStateRegistry.states;
+            if (values.length == states.length) {
+                return values;
+            }
+            boolean[] updated = Arrays.copyOf(values, states.length);
+            for (int i = values.length; i < states.length; i++) {
+                updated[i] = this.predicate.test(states[i]);
+            }
+            this.values = updated;
+            return updated;
+        }
+
+    }
+
+}
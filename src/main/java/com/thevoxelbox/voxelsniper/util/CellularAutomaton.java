@@ -0,0 +1,221 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+/**
+ * A box of cells which are either set or unset, grown and eroded in random
+ * steps as used by the blob and splatter brushes. Cells are packed into
+ * long words with x as the fastest axis, so the six neighbors of 64 cells at
+ * once are found with shifts of the word and the words of the adjacent rows.
+ * Every step reads one buffer and writes the other, which are swapped
+ * afterwards instead of copied.
+ *
+ * <p>The random decisions of each step are keyed by cell and step number, so
+ * the result only depends on the seed of the random source.</p>
+ *
+ * <p>Axes with a size of one are flat, cells have no neighbors along them.
+ * This allows the same automaton to be used for discs.</p>
+ */
+public final class CellularAutomaton {
+
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final int rowWords;
+    private final long lastWordMask;
+    private long[] cells;
+    private long[] next;
+    private int generation;
+
+    public CellularAutomaton(int sizeX, int sizeY, int sizeZ) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.rowWords = (sizeX + 63) >> 6;
+        this.lastWordMask = (sizeX & 63) == 0 ? -1L : (1L << sizeX) - 1;
+        this.cells = new long[this.rowWords * sizeY * sizeZ];
+        this.next = new long[this.cells.length];
+    }
+
+    public int getSizeX() {
+        return this.sizeX;
+    }
+
+    public int getSizeY() {
+        return this.sizeY;
+    }
+
+    public int getSizeZ() {
+        return this.sizeZ;
+    }
+
+    /**
+     * Gets whether the given cell is set, cells outside of the box are never
+     * set.
+     */
+    public boolean get(int x, int y, int z) {
+        if (x < 0 || x >= this.sizeX || y < 0 || y >= this.sizeY || z < 0 || z >= this.sizeZ) {
+            return false;
+        }
+        return (this.cells[(y * this.sizeZ + z) * this.rowWords + (x >> 6)] & 1L << x) != 0;
+    }
+
+    public void set(int x, int y, int z, boolean value) {
+        int index = (y * this.sizeZ + z) * this.rowWords + (x >> 6);
+        if (value) {
+            this.cells[index] |= 1L << x;
+        } else {
+            this.cells[index] &= ~(1L << x);
+        }
+    }
+
+    /**
+     * Sets each cell with the given chance.
+     */
+    public void seed(double chance, PositionalRandom random) {
+        int step = this.generation++;
+        for (int y = 0; y < this.sizeY; y++) {
+            for (int z = 0; z < this.sizeZ; z++) {
+                int row = (y * this.sizeZ + z) * this.rowWords;
+                for (int x = 0; x < this.sizeX; x++) {
+                    if (random.nextDouble(x, y, z, step) <= chance) {
+                        this.cells[row + (x >> 6)] |= 1L << x;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets each unset cell which has at least one set neighbor with the
+     * given chance. All cells are tested against the state before the step.
+     */
+    public void grow(double chance, PositionalRandom random) {
+        step(false, chance, random);
+    }
+
+    /**
+     * Unsets each set cell which has at least one unset neighbor within the
+     * box with the given chance. All cells are tested against the state
+     * before the step.
+     */
+    public void shrink(double chance, PositionalRandom random) {
+        step(true, chance, random);
+    }
+
+    /**
+     * Sets every unset cell whose neighbors are all set.
+     */
+    public void fillHoles() {
+        for (int y = 0; y < this.sizeY; y++) {
+            for (int z = 0; z < this.sizeZ; z++) {
+                int row = (y * this.sizeZ + z) * this.rowWords;
+                for (int w = 0; w < this.rowWords; w++) {
+                    long self = this.cells[row + w];
+                    long all = neighborX(row, w, false, true);
+                    if (this.sizeZ > 1) {
+                        all &= word(y, z - 1, w, false) & word(y, z + 1, w, false);
+                    }
+                    if (this.sizeY > 1) {
+                        all &= word(y - 1, z, w, false) & word(y + 1, z, w, false);
+                    }
+                    this.next[row + w] = self | all & validMask(w);
+                }
+            }
+        }
+        swap();
+    }
+
+    private void step(boolean shrink, double chance, PositionalRandom random) {
+        int step = this.generation++;
+        for (int y = 0; y < this.sizeY; y++) {
+            for (int z = 0; z < this.sizeZ; z++) {
+                int row = (y * this.sizeZ + z) * this.rowWords;
+                for (int w = 0; w < this.rowWords; w++) {
+                    // Work on the complement when shrinking, so that both
+                    // cases spread set cells into unset ones
+                    long self = word(y, z, w, shrink);
+                    long any = neighborX(row, w, shrink, false) | word(y, z - 1, w, shrink) | word(y, z + 1, w, shrink)
+                            | word(y - 1, z, w, shrink) | word(y + 1, z, w, shrink);
+                    long candidates = any & ~self & validMask(w);
+                    long chosen = 0;
+                    while (candidates != 0) {
+                        int bit = Long.numberOfTrailingZeros(candidates);
+                        candidates &= candidates - 1;
+                        if (random.nextDouble((w << 6) + bit, y, z, step) <= chance) {
+                            chosen |= 1L << bit;
+                        }
+                    }
+                    this.next[row + w] = shrink ? this.cells[row + w] & ~chosen : this.cells[row + w] | chosen;
+                }
+            }
+        }
+        swap();
+    }
+
+    /**
+     * Gets the cells of the given word of a row, inverted within the box if
+     * requested. Rows outside of the box are empty.
+     */
+    private long word(int y, int z, int w, boolean invert) {
+        if (y < 0 || y >= this.sizeY || z < 0 || z >= this.sizeZ) {
+            return 0;
+        }
+        long word = this.cells[(y * this.sizeZ + z) * this.rowWords + w];
+        return invert ? ~word & validMask(w) : word;
+    }
+
+    /**
+     * Combines the cells on either side along the x axis of each cell of a
+     * word, either requiring both or any of them to be set.
+     */
+    private long neighborX(int row, int w, boolean invert, boolean both) {
+        long self = this.cells[row + w];
+        long previous = w > 0 ? this.cells[row + w - 1] : 0;
+        long following = w < this.rowWords - 1 ? this.cells[row + w + 1] : 0;
+        if (invert) {
+            self = ~self & validMask(w);
+            previous = w > 0 ? ~previous : 0;
+            following = w < this.rowWords - 1 ? ~following & validMask(w + 1) : 0;
+        }
+        long left = self << 1 | previous >>> 63;
+        long right = self >>> 1 | following << 63;
+        if (this.sizeX == 1) {
+            return both ? -1L : 0;
+        }
+        return both ? left & right : left | right;
+    }
+
+    private long validMask(int w) {
+        return w == this.rowWords - 1 ? this.lastWordMask : -1L;
+    }
+
+    private void swap() {
+        long[] swap = this.cells;
+        this.cells = this.next;
+        this.next = swap;
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * A set of primitive longs using open addressing, meant for tracking block
+ * positions without allocating an object per position. Positions are packed
+ * with {@link #pack(int, int, int)}.
+ */
+public class LongHashSet {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /**
+     * Packs the given block position into a single long. Supports x and z
+     * coordinates within +/-2^25 and y coordinates within +/-2^11.
+     */
+    public static long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFF) << 38 | ((long) z & 0x3FFFFFF) << 12 | (y & 0xFFF);
+    }
+
+    public static int unpackX(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int unpackY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    public static int unpackZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    // zero marks an empty slot so whether zero itself is contained is
+    // tracked separately
+    private long[] keys;
+    private boolean containsZero;
+    private int size;
+    private int resizeAt;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new long[capacity];
+        this.resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) {
+            return this.containsZero;
+        }
+        int mask = this.keys.length - 1;
+        for (int i = mix(key) & mask;; i = (i + 1) & mask) {
+            long existing = this.keys[i];
+            if (existing == 0) {
+                return false;
+            } else if (existing == key) {
+                return true;
+            }
+        }
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return contains(pack(x, y, z));
+    }
+
+    /**
+     * Adds the given key to this set.
+     *
+     * @return true if the key was not already contained
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            if (this.containsZero) {
+                return false;
+            }
+            this.containsZero = true;
+            this.size++;
+            return true;
+        }
+        int mask = this.keys.length - 1;
+        for (int i = mix(key) & mask;; i = (i + 1) & mask) {
+            long existing = this.keys[i];
+            if (existing == key) {
+                return false;
+            } else if (existing == 0) {
+                this.keys[i] = key;
+                if (++this.size > this.resizeAt) {
+                    rehash(this.keys.length << 1);
+                }
+                return true;
+            }
+        }
+    }
+
+    public boolean add(int x, int y, int z) {
+        return add(pack(x, y, z));
+    }
+
+    public void clear() {
+        Arrays.fill(this.keys, 0);
+        this.containsZero = false;
+        this.size = 0;
+    }
+
+    /**
+     * Calls the given consumer for every key in this set, in no particular
+     * order.
+     */
+    public void forEach(LongConsumer consumer) {
+        if (this.containsZero) {
+            consumer.accept(0);
+        }
+        for (long key : this.keys) {
+            if (key != 0) {
+                consumer.accept(key);
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] old = this.keys;
+        this.keys = new long[capacity];
+        this.resizeAt = (int) (capacity * LOAD_FACTOR);
+        int mask = capacity - 1;
+        for (long key : old) {
+            if (key == 0) {
+                continue;
+            }
+            int i = mix(key) & mask;
+            while (this.keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            this.keys[i] = key;
+        }
+    }
+
+}
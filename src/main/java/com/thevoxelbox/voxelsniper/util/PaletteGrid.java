@@ -0,0 +1,182 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.spongepowered.api.block.BlockState;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A box of block states stored as plain indices into a palette, for brushes
+ * which inspect the neighbors of every block many times. Properties of the
+ * states can be looked up once per palette entry into flag arrays and
+ * counts of states kept in int arrays, both indexed by palette id, instead
+ * of going through the block states for every neighbor.
+ *
+ * <p>The cells are laid out x first, then y, then z, so the neighbors of a
+ * cell are at fixed offsets of its index, see {@link #getStrideY()} and
+ * {@link #getStrideZ()}. Copies of a grid share its palette, so ids may be
+ * moved freely between them. Assigning new ids is not thread safe, but once
+ * all states are known any number of threads may read a grid and write to
+ * distinct cells of it.</p>
+ */
+public final class PaletteGrid {
+
+    /**
+     * The id of cells which do not hold a block state.
+     */
+    public static final char EMPTY = Character.MAX_VALUE;
+
+    private final Vector3i min;
+    private final Vector3i max;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final List<BlockState> palette;
+    private final Map<BlockState, Character> ids;
+    private final char[] cells;
+
+    public PaletteGrid(Vector3i min, Vector3i max) {
+        this(min, max, Lists.newArrayList(), Maps.newHashMap());
+        Arrays.fill(this.cells, EMPTY);
+    }
+
+    private PaletteGrid(Vector3i min, Vector3i max, List<BlockState> palette, Map<BlockState, Character> ids) {
+        this.min = min;
+        this.max = max;
+        this.sizeX = max.getX() - min.getX() + 1;
+        this.sizeY = max.getY() - min.getY() + 1;
+        this.sizeZ = max.getZ() - min.getZ() + 1;
+        this.palette = palette;
+        this.ids = ids;
+        this.cells = new char[this.sizeX * this.sizeY * this.sizeZ];
+    }
+
+    /**
+     * Creates a copy of this grid sharing its palette.
+     */
+    public PaletteGrid copy() {
+        PaletteGrid copy = new PaletteGrid(this.min, this.max, this.palette, this.ids);
+        System.arraycopy(this.cells, 0, copy.cells, 0, this.cells.length);
+        return copy;
+    }
+
+    public Vector3i getMin() {
+        return this.min;
+    }
+
+    public Vector3i getMax() {
+        return this.max;
+    }
+
+    public int getStrideY() {
+        return this.sizeX;
+    }
+
+    public int getStrideZ() {
+        return this.sizeX * this.sizeY;
+    }
+
+    /**
+     * Gets the number of states in the palette, every id is less than this.
+     */
+    public int getPaletteSize() {
+        return this.palette.size();
+    }
+
+    /**
+     * Gets the id of the given state, adding it to the palette if needed.
+     */
+    public char getId(BlockState state) {
+        Character id = this.ids.get(state);
+        if (id == null) {
+            id = (char) this.palette.size();
+            this.ids.put(state, id);
+            this.palette.add(state);
+        }
+        return id;
+    }
+
+    /**
+     * Gets the state with the given id, or null for {@link #EMPTY}.
+     */
+    public BlockState getState(char id) {
+        return id == EMPTY ? null : this.palette.get(id);
+    }
+
+    /**
+     * Tests the given predicate against every state of the palette.
+     */
+    public boolean[] computeFlags(Predicate<BlockState> predicate) {
+        boolean[] flags = new boolean[this.palette.size()];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = predicate.test(this.palette.get(i));
+        }
+        return flags;
+    }
+
+    public boolean inBounds(int x, int y, int z) {
+        return x >= this.min.getX() && x <= this.max.getX() && y >= this.min.getY() && y <= this.max.getY() && z >= this.min.getZ()
+                && z <= this.max.getZ();
+    }
+
+    /**
+     * Gets the index of the cell at the given position, which must be within
+     * the bounds of this grid.
+     */
+    public int index(int x, int y, int z) {
+        return ((z - this.min.getZ()) * this.sizeY + y - this.min.getY()) * this.sizeX + x - this.min.getX();
+    }
+
+    public char getId(int index) {
+        return this.cells[index];
+    }
+
+    public void setId(int index, char id) {
+        this.cells[index] = id;
+    }
+
+    /**
+     * Gets the state at the given position, or null if it is empty or out of
+     * bounds.
+     */
+    public BlockState get(int x, int y, int z) {
+        if (!inBounds(x, y, z)) {
+            return null;
+        }
+        return getState(this.cells[index(x, y, z)]);
+    }
+
+    public void set(int x, int y, int z, BlockState state) {
+        this.cells[index(x, y, z)] = state == null ? EMPTY : getId(state);
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+/**
+ * A source of random numbers keyed by block position. Instead of advancing
+ * an internal state every value is computed by hashing the seed together
+ * with a position and a step counter, so the values do not depend on the
+ * order they are asked for in. Generation may therefore be split across
+ * threads and still produce the same result for the same seed.
+ *
+ * <p>Instances are immutable and may be shared between threads.</p>
+ */
+public final class PositionalRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Scrambles the bits of the given value, the finalizer of SplitMix64.
+     */
+    public static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    private final long seed;
+
+    public PositionalRandom(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Creates an independent source for the given stream, for example one
+     * per phase of a brush which would otherwise use the same keys.
+     */
+    public PositionalRandom split(long stream) {
+        return new PositionalRandom(mix(this.seed + (stream + 1) * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Gets a random long for the given position and step.
+     */
+    public long nextLong(int x, int y, int z, int step) {
+        long h = this.seed;
+        h = mix(h + GOLDEN_GAMMA + (x & 0xFFFFFFFFL));
+        h = mix(h + GOLDEN_GAMMA + (y & 0xFFFFFFFFL));
+        h = mix(h + GOLDEN_GAMMA + (z & 0xFFFFFFFFL));
+        return mix(h + GOLDEN_GAMMA + (step & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Gets a random double between 0, inclusive, and 1, exclusive, for the
+     * given position and step.
+     */
+    public double nextDouble(int x, int y, int z, int step) {
+        return (nextLong(x, y, z, step) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Gets a random int between 0, inclusive, and the given bound,
+     * exclusive, for the given position and step.
+     */
+    public int nextInt(int x, int y, int z, int step, int bound) {
+        return (int) (((nextLong(x, y, z, step) >>> 32) * bound) >>> 32);
+    }
+
+}
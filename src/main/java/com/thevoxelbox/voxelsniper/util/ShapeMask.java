@@ -0,0 +1,188 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A precomputed set of the offsets from the center of a brush which lie
+ * within its shape, stored as a bitset. Masks are immutable and shared
+ * between all brushes and snipes through a small cache of the most recently
+ * used shapes, so repeated snipes at the same size skip the geometry tests.
+ */
+public final class ShapeMask {
+
+    /**
+     * The shapes masks can be created for.
+     */
+    public enum Shape {
+        /**
+         * All offsets within the radius of the center.
+         */
+        SPHERE,
+        /**
+         * All offsets within the radius of the center on the plane y = 0.
+         */
+        DISC
+    }
+
+    private static final int CACHE_SIZE = 16;
+    private static final Map<Key, ShapeMask> cache = new LinkedHashMap<Key, ShapeMask>(CACHE_SIZE, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, ShapeMask> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Gets the mask of all offsets whose distance to the center is less than
+     * the given radius.
+     */
+    public static ShapeMask sphere(double radius) {
+        return get(Shape.SPHERE, radius, false);
+    }
+
+    /**
+     * Gets the mask of all offsets on the plane y = 0 whose distance to the
+     * center is less than the given radius.
+     */
+    public static ShapeMask disc(double radius) {
+        return get(Shape.DISC, radius, false);
+    }
+
+    /**
+     * Gets the mask of the given shape, creating it if it is not cached. May
+     * be called from any thread.
+     *
+     * @param shape The shape
+     * @param radius The radius of the shape
+     * @param inclusive Whether offsets exactly at the radius are included
+     * @return The mask
+     */
+    public static ShapeMask get(Shape shape, double radius, boolean inclusive) {
+        Key key = new Key(shape, radius, inclusive);
+        synchronized (cache) {
+            ShapeMask mask = cache.get(key);
+            if (mask == null) {
+                mask = new ShapeMask(shape, radius, inclusive);
+                cache.put(key, mask);
+            }
+            return mask;
+        }
+    }
+
+    private final int radius;
+    private final int height;
+    private final int width;
+    private final long[] bits;
+    private int count;
+
+    private ShapeMask(Shape shape, double radius, boolean inclusive) {
+        this.radius = Math.max((int) Math.ceil(radius), 0);
+        this.height = shape == Shape.DISC ? 0 : this.radius;
+        this.width = this.radius * 2 + 1;
+        this.bits = new long[(this.width * this.width * (this.height * 2 + 1) + 63) >> 6];
+        double limit = radius * radius;
+        int index = 0;
+        for (int y = -this.height; y <= this.height; y++) {
+            for (int z = -this.radius; z <= this.radius; z++) {
+                for (int x = -this.radius; x <= this.radius; x++, index++) {
+                    int distance = x * x + y * y + z * z;
+                    if (inclusive ? distance <= limit : distance < limit) {
+                        this.bits[index >> 6] |= 1L << index;
+                        this.count++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the largest offset from the center on the x and z axes which may
+     * be within the shape.
+     */
+    public int getRadius() {
+        return this.radius;
+    }
+
+    /**
+     * Gets the largest offset from the center on the y axis which may be
+     * within the shape.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Gets the number of offsets within the shape.
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Gets whether the given offset from the center is within the shape.
+     */
+    public boolean contains(int x, int y, int z) {
+        if (x < -this.radius || x > this.radius || y < -this.height || y > this.height || z < -this.radius || z > this.radius) {
+            return false;
+        }
+        int index = ((y + this.height) * this.width + z + this.radius) * this.width + x + this.radius;
+        return (this.bits[index >> 6] & 1L << index) != 0;
+    }
+
+    private static final class Key {
+
+        final Shape shape;
+        final double radius;
+        final boolean inclusive;
+
+        Key(Shape shape, double radius, boolean inclusive) {
+            this.shape = shape;
+            this.radius = radius;
+            this.inclusive = inclusive;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return this.shape == other.shape && Double.compare(this.radius, other.radius) == 0 && this.inclusive == other.inclusive;
+        }
+
+        @Override
+        public int hashCode() {
+            return (this.shape.hashCode() * 31 + Double.hashCode(this.radius)) * 31 + (this.inclusive ? 1 : 0);
+        }
+
+    }
+
+}
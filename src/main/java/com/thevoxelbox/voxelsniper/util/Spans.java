@@ -0,0 +1,187 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+/**
+ * Rasterizes shapes into runs of offsets along the x axis. For every row of
+ * a shape the exact interval of x offsets inside of it is computed from the
+ * equation of the shape, rather than testing every offset of the bounding
+ * box.
+ *
+ * <p>All offsets are relative to the center of the shape. The analytic
+ * estimate of each interval is corrected against the same inequality the
+ * brushes used to test per block, so the rasterized shapes are identical to
+ * the ones tested block by block.</p>
+ */
+public final class Spans {
+
+    /**
+     * Receives the runs of a rasterized shape.
+     */
+    @FunctionalInterface
+    public interface SpanConsumer {
+
+        /**
+         * Accepts the run of offsets from minX to maxX, inclusive, in the
+         * row at the given y and z offsets.
+         */
+        void accept(int y, int z, int minX, int maxX);
+
+    }
+
+    @FunctionalInterface
+    private interface Inside {
+
+        boolean test(int x, int y, int z);
+
+    }
+
+    /**
+     * Rasterizes all offsets whose distance to the center is less than the
+     * given radius.
+     */
+    public static void sphere(double radius, SpanConsumer consumer) {
+        sphere(radius, false, consumer);
+    }
+
+    /**
+     * Rasterizes all offsets whose distance to the center is less than, or
+     * if inclusive at most, the given radius.
+     */
+    public static void sphere(double radius, boolean inclusive, SpanConsumer consumer) {
+        double radiusSquared = radius * radius;
+        Inside inside = inclusive ? (x, y, z) -> x * x + y * y + z * z <= radiusSquared : (x, y, z) -> x * x + y * y + z * z < radiusSquared;
+        int extent = (int) Math.ceil(radius);
+        for (int y = -extent; y <= extent; y++) {
+            for (int z = -extent; z <= extent; z++) {
+                double estimate = Math.sqrt(Math.max(radiusSquared - y * y - z * z, 0));
+                emit(consumer, y, z, halfWidth(inside, estimate, y, z));
+            }
+        }
+    }
+
+    /**
+     * Rasterizes all offsets within the ellipsoid with the given radii.
+     */
+    public static void ellipsoid(double radiusX, double radiusY, double radiusZ, SpanConsumer consumer) {
+        double xrads = radiusX * radiusX;
+        double yrads = radiusY * radiusY;
+        double zrads = radiusZ * radiusZ;
+        Inside inside = (x, y, z) -> (double) (x * x) / xrads + (double) (y * y) / yrads + (double) (z * z) / zrads < 1;
+        int height = (int) Math.ceil(radiusY);
+        int depth = (int) Math.ceil(radiusZ);
+        for (int y = -height; y <= height; y++) {
+            for (int z = -depth; z <= depth; z++) {
+                double estimate = radiusX * Math.sqrt(Math.max(1 - y * y / yrads - z * z / zrads, 0));
+                emit(consumer, y, z, halfWidth(inside, estimate, y, z));
+            }
+        }
+    }
+
+    /**
+     * Rasterizes all offsets on the plane y = 0 whose distance to the center
+     * is less than the given radius.
+     */
+    public static void disc(double radius, SpanConsumer consumer) {
+        ring(radius, 0, consumer);
+    }
+
+    /**
+     * Rasterizes all offsets on the plane y = 0 whose distance to the center
+     * is less than, or if inclusive at most, the given radius.
+     */
+    public static void disc(double radius, boolean inclusive, SpanConsumer consumer) {
+        if (!inclusive) {
+            ring(radius, 0, consumer);
+            return;
+        }
+        double radiusSquared = radius * radius;
+        Inside inside = (x, y, z) -> x * x + z * z <= radiusSquared;
+        int extent = (int) Math.ceil(radius);
+        for (int z = -extent; z <= extent; z++) {
+            emit(consumer, 0, z, halfWidth(inside, Math.sqrt(Math.max(radiusSquared - z * z, 0)), 0, z));
+        }
+    }
+
+    /**
+     * Rasterizes all offsets on the plane y = 0 whose distance to the center
+     * is less than the outer radius but at least the inner radius. Rows
+     * crossing the hole are split into two runs.
+     */
+    public static void ring(double outerRadius, double innerRadius, SpanConsumer consumer) {
+        double outerSquared = outerRadius * outerRadius;
+        double innerSquared = innerRadius * innerRadius;
+        Inside outer = (x, y, z) -> x * x + z * z < outerSquared;
+        Inside inner = (x, y, z) -> x * x + z * z < innerSquared;
+        int extent = (int) Math.ceil(outerRadius);
+        for (int z = -extent; z <= extent; z++) {
+            int outerWidth = halfWidth(outer, Math.sqrt(Math.max(outerSquared - z * z, 0)), 0, z);
+            int innerWidth = halfWidth(inner, Math.sqrt(Math.max(innerSquared - z * z, 0)), 0, z);
+            if (innerWidth < 0) {
+                emit(consumer, 0, z, outerWidth);
+            } else if (innerWidth < outerWidth) {
+                consumer.accept(0, z, -outerWidth, -innerWidth - 1);
+                consumer.accept(0, z, innerWidth + 1, outerWidth);
+            }
+        }
+    }
+
+    /**
+     * Rasterizes all offsets on the plane y = 0 within the ellipse with the
+     * given radii.
+     */
+    public static void ellipse(double radiusX, double radiusZ, SpanConsumer consumer) {
+        double xrads = radiusX * radiusX;
+        double zrads = radiusZ * radiusZ;
+        Inside inside = (x, y, z) -> (double) (x * x) / xrads + (double) (z * z) / zrads < 1;
+        int depth = (int) Math.ceil(radiusZ);
+        for (int z = -depth; z <= depth; z++) {
+            double estimate = radiusX * Math.sqrt(Math.max(1 - z * z / zrads, 0));
+            emit(consumer, 0, z, halfWidth(inside, estimate, 0, z));
+        }
+    }
+
+    /**
+     * Finds the largest x offset of a row which is inside the shape, starting
+     * from the analytic estimate. Returns -1 if the row is empty.
+     */
+    private static int halfWidth(Inside inside, double estimate, int y, int z) {
+        int x = (int) estimate;
+        while (inside.test(x + 1, y, z)) {
+            x++;
+        }
+        while (x >= 0 && !inside.test(x, y, z)) {
+            x--;
+        }
+        return x;
+    }
+
+    private static void emit(SpanConsumer consumer, int y, int z, int halfWidth) {
+        if (halfWidth >= 0) {
+            consumer.accept(y, z, -halfWidth, halfWidth);
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+/**
+ * Visits the blocks of a box in the order they are laid out in the world.
+ * The box is tiled into chunk sections, the sections of each chunk are
+ * visited bottom to top and the blocks of each section y first, then z, then
+ * x. Consecutive reads and writes therefore stay within one section and one
+ * chunk for as long as possible.
+ */
+public final class VolumeIterator {
+
+    /**
+     * Receives the positions visited by the iterator.
+     */
+    @FunctionalInterface
+    public interface BlockVisitor {
+
+        void visit(int x, int y, int z);
+
+    }
+
+    /**
+     * Visits every position between the given corners, inclusive, in section
+     * order.
+     */
+    public static void forEach(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockVisitor visitor) {
+        for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+            int x0 = Math.max(minX, cx << 4);
+            int x1 = Math.min(maxX, (cx << 4) + 15);
+            for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                int z0 = Math.max(minZ, cz << 4);
+                int z1 = Math.min(maxZ, (cz << 4) + 15);
+                for (int cy = minY >> 4; cy <= maxY >> 4; cy++) {
+                    int y0 = Math.max(minY, cy << 4);
+                    int y1 = Math.min(maxY, (cy << 4) + 15);
+                    for (int y = y0; y <= y1; y++) {
+                        for (int z = z0; z <= z1; z++) {
+                            for (int x = x0; x <= x1; x++) {
+                                visitor.visit(x, y, z);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+}
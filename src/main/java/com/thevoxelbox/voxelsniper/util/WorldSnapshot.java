@@ -0,0 +1,246 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+import com.thevoxelbox.voxelsniper.EditSession;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.world.Chunk;
+import org.spongepowered.api.world.World;
+import org.spongepowered.api.world.extent.Extent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An immutable copy of an area of a world. Snapshots have to be captured on
+ * the main thread but may be read from any thread afterwards.
+ *
+ * <p>The area is stored in parts, one for the overlap with each chunk
+ * section. Like the {@link BlockBuffer} blocks are stored as indices into a
+ * palette, a part which only contains a single block state does not store
+ * any indices at all.</p>
+ */
+public final class WorldSnapshot {
+
+    /**
+     * Copies all blocks between the given corners, inclusive, out of the
+     * world. Must be called from the main thread.
+     */
+    public static WorldSnapshot capture(World world, Vector3i min, Vector3i max) {
+        Vector3i worldMin = world.getBlockMin();
+        Vector3i worldMax = world.getBlockMax();
+        int minY = Math.max(min.getY(), worldMin.getY());
+        int maxY = Math.min(max.getY(), worldMax.getY());
+        Map<BlockState, Character> ids = Maps.newHashMap();
+        List<BlockState> palette = Lists.newArrayList();
+        ImmutableMap.Builder<Long, Section> sections = ImmutableMap.builder();
+        for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++) {
+            for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++) {
+                Optional<Chunk> chunk = world.getChunk(cx, 0, cz);
+                // @Performance reading through the chunk skips resolving the
+                // chunk again for every block
+                Extent source = chunk.isPresent() ? chunk.get() : world;
+                int x0 = Math.max(min.getX(), cx << 4);
+                int x1 = Math.min(max.getX(), (cx << 4) + 15);
+                int z0 = Math.max(min.getZ(), cz << 4);
+                int z1 = Math.min(max.getZ(), (cz << 4) + 15);
+                for (int cy = minY >> 4; cy <= maxY >> 4; cy++) {
+                    int y0 = Math.max(minY, cy << 4);
+                    int y1 = Math.min(maxY, (cy << 4) + 15);
+                    // only the part of the section within the area is read
+                    char[] part = new char[(x1 - x0 + 1) * (y1 - y0 + 1) * (z1 - z0 + 1)];
+                    boolean uniform = true;
+                    int i = 0;
+                    for (int y = y0; y <= y1; y++) {
+                        for (int z = z0; z <= z1; z++) {
+                            for (int x = x0; x <= x1; x++) {
+                                BlockState state = source.getBlock(x, y, z);
+                                Character id = ids.get(state);
+                                if (id == null) {
+                                    id = (char) palette.size();
+                                    ids.put(state, id);
+                                    palette.add(state);
+                                }
+                                part[i] = id;
+                                uniform &= id == part[0];
+                                i++;
+                            }
+                        }
+                    }
+                    sections.put(EditSession.sectionKey(x0, y0, z0), new Section(x0, y0, z0, x1, y1, z1, part[0], uniform ? null : part));
+                }
+            }
+        }
+        return new WorldSnapshot(min, max, palette.toArray(new BlockState[palette.size()]), sections.build());
+    }
+
+    private final Vector3i min;
+    private final Vector3i max;
+    private final BlockState[] palette;
+    private final ImmutableMap<Long, Section> sections;
+
+    private WorldSnapshot(Vector3i min, Vector3i max, BlockState[] palette, ImmutableMap<Long, Section> sections) {
+        this.min = min;
+        this.max = max;
+        this.palette = palette;
+        this.sections = sections;
+    }
+
+    /**
+     * Gets the minimum corner of the area this snapshot was requested for.
+     */
+    public Vector3i getMin() {
+        return this.min;
+    }
+
+    /**
+     * Gets the maximum corner of the area this snapshot was requested for.
+     */
+    public Vector3i getMax() {
+        return this.max;
+    }
+
+    /**
+     * Gets whether the block at the given position was captured.
+     */
+    public boolean contains(int x, int y, int z) {
+        Section section = this.sections.get(EditSession.sectionKey(x, y, z));
+        return section != null && section.contains(x, y, z);
+    }
+
+    /**
+     * Gets the captured block state at the given position, or null if the
+     * position was not captured.
+     */
+    public BlockState getBlock(int x, int y, int z) {
+        Section section = this.sections.get(EditSession.sectionKey(x, y, z));
+        if (section == null || !section.contains(x, y, z)) {
+            return null;
+        }
+        return this.palette[section.get(x, y, z)];
+    }
+
+    /**
+     * Copies the captured blocks between the given corners into a new
+     * {@link BlockBuffer}, relative to the given origin.
+     */
+    public BlockBuffer toBuffer(Vector3i origin, Vector3i min, Vector3i max) {
+        BlockBuffer buffer = new BlockBuffer(min, max);
+        for (int x = min.getX(); x <= max.getX(); x++) {
+            for (int y = min.getY(); y <= max.getY(); y++) {
+                for (int z = min.getZ(); z <= max.getZ(); z++) {
+                    buffer.set(x, y, z, getBlock(origin.getX() + x, origin.getY() + y, origin.getZ() + z));
+                }
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Copies the captured blocks between the given corners into a new
+     * {@link PaletteGrid}, relative to the given origin. The grid starts out
+     * with the palette of this snapshot, so the ids are copied as they are.
+     * Positions which were not captured are left empty.
+     */
+    public PaletteGrid toGrid(Vector3i origin, Vector3i min, Vector3i max) {
+        PaletteGrid grid = new PaletteGrid(min, max);
+        for (BlockState state : this.palette) {
+            grid.getId(state);
+        }
+        long lastKey = 0;
+        Section section = null;
+        for (int z = min.getZ(); z <= max.getZ(); z++) {
+            for (int y = min.getY(); y <= max.getY(); y++) {
+                for (int x = min.getX(); x <= max.getX(); x++) {
+                    int bx = origin.getX() + x;
+                    int by = origin.getY() + y;
+                    int bz = origin.getZ() + z;
+                    long key = EditSession.sectionKey(bx, by, bz);
+                    if (section == null || key != lastKey) {
+                        section = this.sections.get(key);
+                        lastKey = key;
+                    }
+                    if (section != null && section.contains(bx, by, bz)) {
+                        grid.setId(grid.index(x, y, z), section.get(bx, by, bz));
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * The captured part of a chunk section, with x as the fastest axis.
+     */
+    private static final class Section {
+
+        final int minX;
+        final int minY;
+        final int minZ;
+        final int maxX;
+        final int maxY;
+        final int maxZ;
+        final int sizeX;
+        final int sizeZ;
+        final char uniform;
+        final char[] ids;
+
+        Section(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, char uniform, char[] ids) {
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+            this.sizeX = maxX - minX + 1;
+            this.sizeZ = maxZ - minZ + 1;
+            this.uniform = uniform;
+            this.ids = ids;
+        }
+
+        /**
+         * Gets whether the given position, which must be within the chunk
+         * section of this part, was captured.
+         */
+        boolean contains(int x, int y, int z) {
+            return x >= this.minX && x <= this.maxX && y >= this.minY && y <= this.maxY && z >= this.minZ && z <= this.maxZ;
+        }
+
+        char get(int x, int y, int z) {
+            if (this.ids == null) {
+                return this.uniform;
+            }
+            return this.ids[((y - this.minY) * this.sizeZ + z - this.minZ) * this.sizeX + x - this.minX];
+        }
+
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+import java.util.UUID;
+
+public class EditJournalTest {
+
+    private static final UUID PLAYER = new UUID(1, 2);
+
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysUndosDropsAndTrims() throws IOException {
+        Path file = write(frame(edit(0, 10)), frame(edit(1, 10)), frame(edit(2, 10)), frame(history(EditJournal.TYPE_UNDO, 1)),
+                frame(drop(1)), frame(trim(0, 5L, 6L)));
+        EditJournal.History history = new EditJournal.History();
+        assertFalse(history.read(file));
+        assertEquals(2, history.lastId);
+        assertIds(history.undos.get(PLAYER), 0);
+        assertIds(history.redos.get(PLAYER), 2);
+        assertEquals(1, history.trims.get(0L).size());
+    }
+
+    @Test
+    public void stopsAtRecordCutOffByCrash() throws IOException {
+        byte[] last = frame(edit(2, 100));
+        Path file = write(frame(edit(0, 10)), frame(edit(1, 10)), Arrays.copyOf(last, last.length / 2));
+        EditJournal.History history = new EditJournal.History();
+        assertFalse(history.read(file));
+        assertIds(history.undos.get(PLAYER), 1, 0);
+    }
+
+    @Test
+    public void stopsAtDamagedRecord() throws IOException {
+        byte[] damaged = frame(edit(1, 20000));
+        damaged[damaged.length - 1000]++;
+        Path file = write(frame(edit(0, 10)), damaged, frame(edit(2, 10)));
+        EditJournal.History history = new EditJournal.History();
+        assertTrue(history.read(file));
+        assertIds(history.undos.get(PLAYER), 0);
+    }
+
+    @Test
+    public void compactionCopiesRemainingEdits() throws IOException {
+        byte[] first = edit(0, 50000);
+        byte[] second = edit(1, 10);
+        byte[] third = edit(2, 30000);
+        Path file = write(frame(first), frame(second), frame(third), frame(drop(1)), frame(trim(0, 7L)),
+                frame(history(EditJournal.TYPE_UNDO, 1)));
+        EditJournal.History history = new EditJournal.History();
+        assertFalse(history.read(file));
+        Path compacted = this.folder.newFile().toPath();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(compacted, StandardOpenOption.WRITE)) {
+            history.write(in, out, true);
+        }
+        assertTrue(Files.size(compacted) < Files.size(file));
+
+        EditJournal.History read = new EditJournal.History();
+        assertFalse(read.read(compacted));
+        assertIds(read.undos.get(PLAYER), 0);
+        assertIds(read.redos.get(PLAYER), 2);
+        assertArrayEquals(trim(0, 7L), read.trims.get(0L).get(0));
+        try (FileChannel in = FileChannel.open(compacted, StandardOpenOption.READ)) {
+            assertArrayEquals(first, read.undos.get(PLAYER).getFirst().read(in));
+            assertArrayEquals(third, read.redos.get(PLAYER).getFirst().read(in));
+        }
+    }
+
+    private Path write(byte[]... frames) throws IOException {
+        Path file = this.folder.newFile().toPath();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (byte[] frame : frames) {
+            bytes.write(frame);
+        }
+        Files.write(file, bytes.toByteArray());
+        return file;
+    }
+
+    private static void assertIds(Deque<EditJournal.History.Edit> edits, long... ids) {
+        long[] actual = new long[edits.size()];
+        int index = 0;
+        for (EditJournal.History.Edit edit : edits) {
+            actual[index++] = edit.id;
+        }
+        assertArrayEquals(ids, actual);
+    }
+
+    private static byte[] frame(byte[] body) throws IOException {
+        return EditJournal.frame(body);
+    }
+
+    private static byte[] edit(long id, int size) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = header(bytes, EditJournal.TYPE_EDIT);
+        out.writeLong(id);
+        byte[] data = new byte[size];
+        new Random(id).nextBytes(data);
+        out.write(data);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] drop(long id) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        header(bytes, EditJournal.TYPE_DROP).writeLong(id);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] trim(long id, long... chunks) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = header(bytes, EditJournal.TYPE_TRIM);
+        out.writeLong(id);
+        out.writeInt(chunks.length);
+        for (long chunk : chunks) {
+            out.writeLong(chunk);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] history(byte type, int count) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        header(bytes, type).writeInt(count);
+        return bytes.toByteArray();
+    }
+
+    private static DataOutputStream header(ByteArrayOutputStream bytes, byte type) throws IOException {
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type);
+        out.writeLong(0);
+        out.writeLong(PLAYER.getMostSignificantBits());
+        out.writeLong(PLAYER.getLeastSignificantBits());
+        return out;
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.world.BlockChangeFlag;
+
+import java.util.Set;
+
+public class EditSessionTest {
+
+    // crosses section borders on every axis
+    private static final Vector3i MIN = new Vector3i(-3, 10, -3);
+    private static final Vector3i MAX = new Vector3i(20, 30, 20);
+    private static final int VOLUME = 24 * 21 * 24;
+    private static final int[][] OFFSETS = {{-1, 0, 0}, {1, 0, 0}, {0, -1, 0}, {0, 1, 0}, {0, 0, -1}, {0, 0, 1}};
+
+    private final BlockState stone = mock(BlockState.class);
+    private final BlockState dirt = mock(BlockState.class);
+
+    @Test
+    public void writesEveryChangeWithItsFlag() {
+        TestWorld world = new TestWorld();
+        EditSession session = fillCube(world, false, BlockChangeFlag.ALL);
+        assertEquals(VOLUME, session.getChangeCount());
+        assertTrue(session.flush(Long.MAX_VALUE));
+        assertEquals(0, session.getChangeCount());
+        assertEquals(VOLUME, world.writes);
+        assertCube(world, this.stone);
+        for (BlockChangeFlag flag : world.flags.values()) {
+            assertSame(BlockChangeFlag.ALL, flag);
+        }
+        assertTrue(world.updates.isEmpty());
+    }
+
+    @Test
+    public void deferredChangesAreWrittenWithoutUpdates() {
+        TestWorld world = new TestWorld();
+        fillCube(world, true, BlockChangeFlag.ALL).flush();
+        assertEquals(VOLUME, world.writes);
+        assertCube(world, this.stone);
+        for (BlockChangeFlag flag : world.flags.values()) {
+            assertSame(BlockChangeFlag.NONE, flag);
+        }
+    }
+
+    @Test
+    public void deferredUpdatesAreScheduledAroundTheSurface() {
+        for (BlockChangeFlag flag : BlockChangeFlag.values()) {
+            TestWorld world = new TestWorld();
+            fillCube(world, true, flag).flush();
+            assertEquals(flag.name(), expectedUpdates(flag), world.updates);
+        }
+    }
+
+    @Test
+    public void resumedFlushMatchesSingleFlush() {
+        for (boolean defer : new boolean[] {false, true}) {
+            TestWorld expected = new TestWorld();
+            fillCube(expected, defer, BlockChangeFlag.ALL).flush();
+            TestWorld world = new TestWorld();
+            EditSession session = fillCube(world, defer, BlockChangeFlag.ALL);
+            int flushes = 1;
+            // without any time every flush only writes a few blocks
+            while (!session.flush(0)) {
+                flushes++;
+            }
+            assertTrue(flushes > 10);
+            assertEquals(0, session.getChangeCount());
+            assertEquals(expected.blocks, world.blocks);
+            assertEquals(expected.flags, world.flags);
+            assertEquals(expected.updates, world.updates);
+        }
+    }
+
+    @Test
+    public void changesQueuedDuringAFlushAreWritten() {
+        for (boolean defer : new boolean[] {false, true}) {
+            TestWorld world = new TestWorld();
+            EditSession session = fillCube(world, defer, BlockChangeFlag.ALL);
+            assertFalse(session.flush(0));
+            // replace changes which were written already as well as some
+            // which were not
+            for (int x = MIN.getX(); x <= MAX.getX(); x++) {
+                for (int y = MIN.getY(); y <= MAX.getY(); y++) {
+                    for (int z = MIN.getZ(); z <= MAX.getZ(); z++) {
+                        session.setBlock(x, y, z, this.dirt, BlockChangeFlag.ALL);
+                    }
+                }
+            }
+            assertEquals(VOLUME, session.getChangeCount());
+            assertTrue(session.flush(Long.MAX_VALUE));
+            assertEquals(0, session.getChangeCount());
+            assertCube(world, this.dirt);
+            if (defer) {
+                assertEquals(expectedUpdates(BlockChangeFlag.ALL), world.updates);
+            }
+        }
+    }
+
+    @Test
+    public void getBlockSeesQueuedChanges() {
+        TestWorld world = new TestWorld();
+        world.blocks.put(new Vector3i(1, 2, 3), this.dirt);
+        EditSession session = new EditSession(world.world, null);
+        assertSame(this.dirt, session.getBlock(1, 2, 3));
+        session.setBlock(1, 2, 3, this.stone, BlockChangeFlag.ALL);
+        assertSame(this.stone, session.getBlock(1, 2, 3));
+        assertSame(this.dirt, world.getBlock(1, 2, 3));
+        session.flush();
+        assertSame(this.stone, world.getBlock(1, 2, 3));
+        assertSame(this.stone, session.getBlock(1, 2, 3));
+    }
+
+    private EditSession fillCube(TestWorld world, boolean defer, BlockChangeFlag flag) {
+        EditSession session = new EditSession(world.world, null);
+        session.setDeferNeighborUpdates(defer);
+        for (int x = MIN.getX(); x <= MAX.getX(); x++) {
+            for (int y = MIN.getY(); y <= MAX.getY(); y++) {
+                for (int z = MIN.getZ(); z <= MAX.getZ(); z++) {
+                    session.setBlock(x, y, z, this.stone, flag);
+                }
+            }
+        }
+        return session;
+    }
+
+    private static void assertCube(TestWorld world, BlockState state) {
+        assertEquals(VOLUME, world.blocks.size());
+        for (int x = MIN.getX(); x <= MAX.getX(); x++) {
+            for (int y = MIN.getY(); y <= MAX.getY(); y++) {
+                for (int z = MIN.getZ(); z <= MAX.getZ(); z++) {
+                    assertSame(state, world.getBlock(x, y, z));
+                }
+            }
+        }
+    }
+
+    private static boolean inCube(int x, int y, int z) {
+        return x >= MIN.getX() && x <= MAX.getX() && y >= MIN.getY() && y <= MAX.getY() && z >= MIN.getZ() && z <= MAX.getZ();
+    }
+
+    /**
+     * Gets the positions which should be updated after the cube was written
+     * with the given flag: the positions on its surface for physics and the
+     * positions next to it for neighbor updates.
+     */
+    private static Set<Vector3i> expectedUpdates(BlockChangeFlag flag) {
+        Set<Vector3i> updates = Sets.newHashSet();
+        for (int x = MIN.getX(); x <= MAX.getX(); x++) {
+            for (int y = MIN.getY(); y <= MAX.getY(); y++) {
+                for (int z = MIN.getZ(); z <= MAX.getZ(); z++) {
+                    for (int[] offset : OFFSETS) {
+                        int nx = x + offset[0];
+                        int ny = y + offset[1];
+                        int nz = z + offset[2];
+                        if (inCube(nx, ny, nz)) {
+                            continue;
+                        }
+                        if (flag.performBlockPhysics()) {
+                            updates.add(new Vector3i(x, y, z));
+                        }
+                        if (flag.updateNeighbors()) {
+                            updates.add(new Vector3i(nx, ny, nz));
+                        }
+                    }
+                }
+            }
+        }
+        return updates;
+    }
+
+}
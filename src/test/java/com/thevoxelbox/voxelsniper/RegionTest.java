@@ -0,0 +1,137 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.thevoxelbox.voxelsniper.util.LongHashSet;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class RegionTest {
+
+    @Test
+    public void solidShapesMatchTheirContainment() {
+        check("cuboid", Region.cuboid(5, 70, -3, -20, 60, 14));
+        check("sphere", Region.sphere(-7, 64, 9, 6.5));
+        check("inclusive sphere", Region.sphere(3, 10, 3, 4, true));
+        check("ellipsoid", Region.ellipsoid(30, 40, -30, 7.5, 3, 2.2));
+        check("cylinder", Region.cylinder(15, 17, 20, 40, 5.5));
+    }
+
+    @Test
+    public void flatShapesMatchTheirContainment() {
+        check("disc", Region.disc(0, 0, 0, 9));
+        check("inclusive disc", Region.disc(-8, 5, 40, 5, true));
+        check("ring", Region.ring(16, 64, 16, 8.5, 4));
+        for (Region.Axis normal : Region.Axis.values()) {
+            check("disc " + normal, Region.disc(-3, 33, 7, 6.5, normal));
+            check("ellipse " + normal, Region.ellipse(12, 50, -12, 8, 3.5, normal));
+        }
+    }
+
+    @Test
+    public void flatShapesLieOnTheirPlane() {
+        Region region = Region.ellipse(4, 20, 9, 6, 2, Region.Axis.X);
+        assertEquals(4, region.getMinX());
+        assertEquals(4, region.getMaxX());
+        assertEquals(14, region.getMinY());
+        assertEquals(26, region.getMaxY());
+        assertEquals(7, region.getMinZ());
+        assertEquals(11, region.getMaxZ());
+        assertTrue(region.contains(4, 25, 9));
+        assertTrue(!region.contains(4, 20, 11));
+    }
+
+    @Test
+    public void trianglePrismMatchesItsContainment() {
+        check("triangle", Region.trianglePrism(0, 0, 20, 3, 7.5, 18, 10, 12));
+        check("flipped triangle", Region.trianglePrism(-4, -4, 7.5, 18, 20, 3, 0, 0));
+        check("line", Region.trianglePrism(0, 0, 5, 5, 10, 10, 0, 3));
+    }
+
+    @Test
+    public void combinedShapesMatchTheirContainment() {
+        Region sphere = Region.sphere(0, 64, 0, 8);
+        check("overlapping union", sphere.union(Region.cylinder(6, 0, 60, 80, 4)));
+        check("disjoint union", sphere.union(Region.sphere(30, 64, 30, 3)));
+        check("clipped", sphere.intersect(Region.cuboid(-20, 64, -20, 20, 100, 20)));
+        check("intersection", sphere.intersect(Region.sphere(5, 64, 0, 6)));
+        check("empty intersection", sphere.intersect(Region.sphere(40, 64, 0, 6)));
+    }
+
+    @Test
+    public void sectionsPartitionTheRegion() {
+        Region region = Region.sphere(15, 30, -1, 11.5);
+        Set<Long> positions = positions(region);
+        Set<Long> covered = new HashSet<>();
+        region.forEachSection((section) -> {
+            assertEquals(section.getMinX() >> 4, section.getMaxX() >> 4);
+            assertEquals(section.getMinY() >> 4, section.getMaxY() >> 4);
+            assertEquals(section.getMinZ() >> 4, section.getMaxZ() >> 4);
+            section.forEach((x, y, z) -> assertTrue("covered twice", covered.add(LongHashSet.pack(x, y, z))));
+        });
+        assertEquals(positions, covered);
+    }
+
+    /**
+     * Checks that the runs and the visited positions of a region are exactly
+     * the positions it contains within its bounds.
+     */
+    private static void check(String name, Region region) {
+        Set<Long> expected = positions(region);
+        Set<Long> spans = new HashSet<>();
+        region.forEachSpan((y, z, minX, maxX) -> {
+            assertTrue(name + " has an empty span", minX <= maxX);
+            for (int x = minX; x <= maxX; x++) {
+                assertTrue(name + " covers " + x + " " + y + " " + z + " twice", spans.add(LongHashSet.pack(x, y, z)));
+            }
+        });
+        assertEquals(name, expected, spans);
+        Set<Long> visited = new HashSet<>();
+        region.forEach((x, y, z) -> assertTrue(name + " visits " + x + " " + y + " " + z + " twice", visited.add(LongHashSet.pack(x, y, z))));
+        assertEquals(name, expected, visited);
+    }
+
+    private static Set<Long> positions(Region region) {
+        Set<Long> positions = new HashSet<>();
+        // one past the bounds, nothing may be contained there
+        for (int y = region.getMinY() - 1; y <= region.getMaxY() + 1; y++) {
+            for (int z = region.getMinZ() - 1; z <= region.getMaxZ() + 1; z++) {
+                for (int x = region.getMinX() - 1; x <= region.getMaxX() + 1; x++) {
+                    if (region.contains(x, y, z)) {
+                        assertTrue("contains a position outside of its bounds", region.inBounds(x, y, z));
+                        positions.add(LongHashSet.pack(x, y, z));
+                    }
+                }
+            }
+        }
+        return positions;
+    }
+
+}
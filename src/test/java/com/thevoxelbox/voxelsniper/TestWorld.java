@@ -0,0 +1,89 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper;
+
+import static org.mockito.Mockito.mock;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.world.BlockChangeFlag;
+import org.spongepowered.api.world.World;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A world backed by a map, recording the flags blocks were set with and the
+ * block updates scheduled in it. Chunks are never loaded, so everything goes
+ * through the world itself.
+ */
+final class TestWorld implements Answer<Object> {
+
+    final World world = mock(World.class, this);
+    final BlockState air = mock(BlockState.class);
+    final Map<Vector3i, BlockState> blocks = Maps.newHashMap();
+    final Map<Vector3i, BlockChangeFlag> flags = Maps.newHashMap();
+    final Set<Vector3i> updates = Sets.newHashSet();
+    int reads;
+    int writes;
+
+    BlockState getBlock(int x, int y, int z) {
+        BlockState state = this.blocks.get(new Vector3i(x, y, z));
+        return state == null ? this.air : state;
+    }
+
+    @Override
+    public Object answer(InvocationOnMock invocation) {
+        Object[] args = invocation.getArguments();
+        switch (invocation.getMethod().getName()) {
+            case "getBlockMin":
+                return new Vector3i(-30000000, 0, -30000000);
+            case "getBlockMax":
+                return new Vector3i(30000000, 255, 30000000);
+            case "getChunk":
+                return Optional.empty();
+            case "getBlock":
+                this.reads++;
+                return getBlock((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+            case "setBlock":
+                Vector3i position = new Vector3i((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+                this.blocks.put(position, (BlockState) args[3]);
+                this.flags.put(position, (BlockChangeFlag) args[4]);
+                this.writes++;
+                return true;
+            case "addScheduledUpdate":
+                this.updates.add(new Vector3i((Integer) args[0], (Integer) args[1], (Integer) args[2]));
+                return null;
+            default:
+                throw new UnsupportedOperationException(invocation.getMethod().toString());
+        }
+    }
+
+}
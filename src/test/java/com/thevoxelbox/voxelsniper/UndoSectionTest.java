@@ -0,0 +1,179 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+public class UndoSectionTest {
+
+    @Test
+    public void sparseSectionMatchesFullArrays() {
+        checkAgainstArrays(new Random(5), UndoSection.SPARSE_LIMIT / 2);
+    }
+
+    @Test
+    public void denseSectionMatchesFullArrays() {
+        checkAgainstArrays(new Random(9), UndoSection.VOLUME);
+    }
+
+    @Test
+    public void beforeStatesAloneRoundTrip() throws IOException {
+        UndoSection section = new UndoSection(32, -16, 0);
+        for (int index = 0; index < UndoSection.VOLUME; index += 7) {
+            section.put(index, (char) (index % 5));
+        }
+        UndoSection read = roundTrip(section);
+        assertFalse(read.hasAfter());
+        assertEquals(section.getCount(), read.getCount());
+        assertEquals(32, read.minX);
+        assertEquals(-16, read.minY);
+        assertEquals(0, read.minZ);
+        for (int index = 0; index < UndoSection.VOLUME; index++) {
+            assertEquals(section.get(index), read.get(index));
+        }
+    }
+
+    @Test
+    public void firstRecordedStateIsKept() {
+        UndoSection section = new UndoSection(0, 0, 0);
+        assertTrue(section.put(100, (char) 1));
+        assertFalse(section.put(100, (char) 2));
+        section.setAfter(100, (char) 3);
+        section.setAfter(100, (char) 4);
+        assertEquals(1, section.getCount());
+        assertEquals(1, section.get(100));
+        assertEquals(4, section.getAfter(100));
+    }
+
+    @Test
+    public void sparseSectionsUseLessMemory() {
+        UndoSection sparse = new UndoSection(0, 0, 0);
+        UndoSection dense = new UndoSection(0, 0, 0);
+        for (int index = 0; index <= UndoSection.SPARSE_LIMIT; index++) {
+            if (index < 16) {
+                sparse.put(index * 200, (char) 0);
+                sparse.setAfter(index * 200, (char) 1);
+            }
+            dense.put(index, (char) 0);
+            dense.setAfter(index, (char) 1);
+        }
+        assertTrue(sparse.isSparse());
+        assertFalse(dense.isSparse());
+        assertEquals(UndoSection.VOLUME * 4L, dense.getMemoryUsage(), 64);
+        assertTrue(sparse.getMemoryUsage() < 256);
+    }
+
+    @Test
+    public void remapReportsMissingAfterStates() {
+        char[] table = {7, 8, 9};
+        UndoSection section = new UndoSection(0, 0, 0);
+        section.put(1, (char) 0);
+        section.setAfter(1, (char) 2);
+        assertTrue(section.remap(table));
+        assertEquals(7, section.get(1));
+        assertEquals(9, section.getAfter(1));
+        section.put(2, (char) 1);
+        assertFalse(section.remap(new char[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}));
+    }
+
+    private static void checkAgainstArrays(Random random, int count) {
+        char[] ids = new char[UndoSection.VOLUME];
+        char[] afters = new char[UndoSection.VOLUME];
+        Arrays.fill(ids, UndoSection.EMPTY);
+        Arrays.fill(afters, UndoSection.EMPTY);
+        UndoSection section = new UndoSection(-16, 0, 16);
+        for (int i = 0; i < count; i++) {
+            int index = random.nextInt(UndoSection.VOLUME);
+            char id = (char) random.nextInt(20);
+            assertEquals(ids[index] == UndoSection.EMPTY, section.put(index, id));
+            if (ids[index] == UndoSection.EMPTY) {
+                ids[index] = id;
+            }
+            // some blocks are recorded without an after state
+            if (random.nextInt(4) != 0) {
+                afters[index] = (char) random.nextInt(20);
+                section.setAfter(index, afters[index]);
+            }
+        }
+        try {
+            assertMatches(ids, afters, section);
+            assertMatches(ids, afters, roundTrip(section));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void assertMatches(char[] ids, char[] afters, UndoSection section) {
+        int count = 0;
+        for (int index = 0; index < UndoSection.VOLUME; index++) {
+            assertEquals(ids[index], section.get(index));
+            assertEquals(afters[index], section.getAfter(index));
+            if (ids[index] != UndoSection.EMPTY) {
+                count++;
+            }
+        }
+        assertEquals(count, section.getCount());
+        for (boolean after : new boolean[] {false, true}) {
+            char[] expected = after ? afters : ids;
+            int[] last = {-1};
+            int[] visited = {0};
+            section.forEach(after, (index, id) -> {
+                assertTrue(index > last[0]);
+                assertEquals(expected[index], id);
+                last[0] = index;
+                visited[0]++;
+            });
+            int expectedCount = 0;
+            for (char id : expected) {
+                if (id != UndoSection.EMPTY) {
+                    expectedCount++;
+                }
+            }
+            assertEquals(expectedCount, visited[0]);
+        }
+    }
+
+    private static UndoSection roundTrip(UndoSection section) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        section.write(new DataOutputStream(bytes));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        UndoSection read = UndoSection.read(in);
+        assertEquals(-1, in.read());
+        return read;
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CellularAutomatonTest {
+
+    // sizes crossing word boundaries along x as well as flat boxes
+    private static final int[][] SIZES = {{130, 3, 4}, {64, 2, 3}, {65, 1, 5}, {1, 6, 7}, {70, 5, 1}, {1, 1, 1}};
+    private static final int[][] OFFSETS = {{-1, 0, 0}, {1, 0, 0}, {0, -1, 0}, {0, 1, 0}, {0, 0, -1}, {0, 0, 1}};
+
+    @Test
+    public void growMatchesNaive() {
+        for (int[] size : SIZES) {
+            runSteps(size, false);
+        }
+    }
+
+    @Test
+    public void shrinkMatchesNaive() {
+        for (int[] size : SIZES) {
+            runSteps(size, true);
+        }
+    }
+
+    @Test
+    public void fillHolesMatchesNaive() {
+        for (int[] size : SIZES) {
+            CellularAutomaton automaton = new CellularAutomaton(size[0], size[1], size[2]);
+            automaton.seed(0.8, new PositionalRandom(7));
+            boolean[][][] before = copy(automaton);
+            automaton.fillHoles();
+            for (int x = 0; x < size[0]; x++) {
+                for (int y = 0; y < size[1]; y++) {
+                    for (int z = 0; z < size[2]; z++) {
+                        boolean expected = before[x][y][z] || isEnclosed(before, x, y, z);
+                        assertEquals("cell " + x + " " + y + " " + z, expected, automaton.get(x, y, z));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void cellsOutsideTheBoxAreUnset() {
+        CellularAutomaton automaton = new CellularAutomaton(65, 2, 2);
+        automaton.seed(1, new PositionalRandom(1));
+        assertTrue(automaton.get(64, 1, 1));
+        assertFalse(automaton.get(65, 1, 1));
+        assertFalse(automaton.get(-1, 0, 0));
+        assertFalse(automaton.get(0, 2, 0));
+        assertFalse(automaton.get(0, 0, -1));
+        // growing a full box must not leak into the unused bits of the last
+        // word of each row
+        automaton.grow(1, new PositionalRandom(1));
+        automaton.shrink(0, new PositionalRandom(1));
+        assertFalse(automaton.get(65, 0, 0));
+    }
+
+    @Test
+    public void sameSeedGivesSameResult() {
+        CellularAutomaton first = new CellularAutomaton(100, 9, 9);
+        CellularAutomaton second = new CellularAutomaton(100, 9, 9);
+        for (CellularAutomaton automaton : new CellularAutomaton[] {first, second}) {
+            PositionalRandom random = new PositionalRandom(1234);
+            automaton.set(50, 4, 4, true);
+            for (int i = 0; i < 5; i++) {
+                automaton.grow(0.5, random);
+            }
+            automaton.shrink(0.3, random);
+        }
+        for (int x = 0; x < 100; x++) {
+            for (int y = 0; y < 9; y++) {
+                for (int z = 0; z < 9; z++) {
+                    assertEquals(first.get(x, y, z), second.get(x, y, z));
+                }
+            }
+        }
+    }
+
+    private static void runSteps(int[] size, boolean shrink) {
+        PositionalRandom random = new PositionalRandom(99);
+        CellularAutomaton automaton = new CellularAutomaton(size[0], size[1], size[2]);
+        // the seed is step 0, each following step uses the next number
+        automaton.seed(shrink ? 0.7 : 0.05, random);
+        for (int step = 1; step <= 4; step++) {
+            boolean[][][] before = copy(automaton);
+            if (shrink) {
+                automaton.shrink(0.5, random);
+            } else {
+                automaton.grow(0.5, random);
+            }
+            for (int x = 0; x < size[0]; x++) {
+                for (int y = 0; y < size[1]; y++) {
+                    for (int z = 0; z < size[2]; z++) {
+                        boolean expected = before[x][y][z];
+                        if (expected == shrink && countNeighbors(before, x, y, z, !shrink) > 0
+                                && random.nextDouble(x, y, z, step) <= 0.5) {
+                            expected = !shrink;
+                        }
+                        assertEquals("cell " + x + " " + y + " " + z + " of step " + step, expected, automaton.get(x, y, z));
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean[][][] copy(CellularAutomaton automaton) {
+        boolean[][][] cells = new boolean[automaton.getSizeX()][automaton.getSizeY()][automaton.getSizeZ()];
+        for (int x = 0; x < cells.length; x++) {
+            for (int y = 0; y < cells[x].length; y++) {
+                for (int z = 0; z < cells[x][y].length; z++) {
+                    cells[x][y][z] = automaton.get(x, y, z);
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Counts the neighbors within the box with the given value. Axes of size
+     * one have no neighbors along them.
+     */
+    private static int countNeighbors(boolean[][][] cells, int x, int y, int z, boolean value) {
+        int count = 0;
+        for (int[] offset : OFFSETS) {
+            int nx = x + offset[0];
+            int ny = y + offset[1];
+            int nz = z + offset[2];
+            if (inBox(cells, nx, ny, nz) && cells[nx][ny][nz] == value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets whether both neighbors along every axis which is not flat are set,
+     * positions outside of the box count as unset.
+     */
+    private static boolean isEnclosed(boolean[][][] cells, int x, int y, int z) {
+        int[] sizes = {cells.length, cells[0].length, cells[0][0].length};
+        for (int[] offset : OFFSETS) {
+            int axis = offset[0] != 0 ? 0 : offset[1] != 0 ? 1 : 2;
+            if (sizes[axis] == 1) {
+                continue;
+            }
+            int nx = x + offset[0];
+            int ny = y + offset[1];
+            int nz = z + offset[2];
+            if (!inBox(cells, nx, ny, nz) || !cells[nx][ny][nz]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean inBox(boolean[][][] cells, int x, int y, int z) {
+        return x >= 0 && y >= 0 && z >= 0 && x < cells.length && y < cells[0].length && z < cells[0][0].length;
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class LongHashSetTest {
+
+    @Test
+    public void packRoundTripsNegativeCoordinates() {
+        int[][] positions = {{0, 0, 0}, {-1, -1, -1}, {-30000000, 0, 30000000}, {(1 << 25) - 1, 2047, -(1 << 25)}, {5, -2048, -7}};
+        for (int[] position : positions) {
+            long key = LongHashSet.pack(position[0], position[1], position[2]);
+            assertEquals(position[0], LongHashSet.unpackX(key));
+            assertEquals(position[1], LongHashSet.unpackY(key));
+            assertEquals(position[2], LongHashSet.unpackZ(key));
+        }
+    }
+
+    @Test
+    public void neighboringPositionsHaveDistinctKeys() {
+        Set<Long> keys = new HashSet<>();
+        for (int x = -2; x <= 2; x++) {
+            for (int y = -2; y <= 2; y++) {
+                for (int z = -2; z <= 2; z++) {
+                    assertTrue(keys.add(LongHashSet.pack(x, y, z)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void zeroKeyIsTrackedSeparately() {
+        LongHashSet set = new LongHashSet();
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0, 0, 0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+        long[] visited = new long[1];
+        set.forEach((key) -> visited[0]++);
+        assertEquals(1, visited[0]);
+        set.clear();
+        assertFalse(set.contains(0));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void matchesHashSetAcrossResizes() {
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            long key = LongHashSet.pack(random.nextInt(200) - 100, random.nextInt(64) - 32, random.nextInt(200) - 100);
+            assertEquals(expected.add(key), set.add(key));
+        }
+        assertEquals(expected.size(), set.size());
+        for (long key : expected) {
+            assertTrue(set.contains(key));
+        }
+        Set<Long> visited = new HashSet<>();
+        set.forEach((key) -> assertTrue(visited.add(key)));
+        assertEquals(expected, visited);
+    }
+
+}
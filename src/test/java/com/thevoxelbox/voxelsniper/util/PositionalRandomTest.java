@@ -0,0 +1,95 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PositionalRandomTest {
+
+    @Test
+    public void sameSeedGivesSameValues() {
+        PositionalRandom first = new PositionalRandom(12345);
+        PositionalRandom second = new PositionalRandom(12345);
+        for (int i = -50; i < 50; i++) {
+            assertEquals(first.nextLong(i, i * 3, -i, i & 7), second.nextLong(i, i * 3, -i, i & 7));
+        }
+    }
+
+    @Test
+    public void valuesDoNotDependOnOrder() {
+        PositionalRandom random = new PositionalRandom(-8);
+        long expected = random.nextLong(3, 4, 5, 6);
+        for (int i = 0; i < 10; i++) {
+            random.nextLong(i, i, i, i);
+        }
+        assertEquals(expected, random.nextLong(3, 4, 5, 6));
+    }
+
+    @Test
+    public void keysAreIndependent() {
+        PositionalRandom random = new PositionalRandom(0);
+        long base = random.nextLong(1, 2, 3, 4);
+        // swapping or shifting any part of the key changes the value
+        assertNotEquals(base, random.nextLong(2, 1, 3, 4));
+        assertNotEquals(base, random.nextLong(1, 3, 2, 4));
+        assertNotEquals(base, random.nextLong(1, 2, 3, 5));
+        assertNotEquals(base, random.nextLong(-1, 2, 3, 4));
+        assertNotEquals(base, new PositionalRandom(1).nextLong(1, 2, 3, 4));
+        assertNotEquals(base, random.split(0).nextLong(1, 2, 3, 4));
+        assertNotEquals(random.split(0).getSeed(), random.split(1).getSeed());
+    }
+
+    @Test
+    public void doublesAreUniform() {
+        PositionalRandom random = new PositionalRandom(77);
+        int[] buckets = new int[10];
+        int samples = 100000;
+        for (int i = 0; i < samples; i++) {
+            double value = random.nextDouble(i, i >> 8, 0, 0);
+            assertTrue(value >= 0 && value < 1);
+            buckets[(int) (value * buckets.length)]++;
+        }
+        for (int count : buckets) {
+            assertEquals(samples / buckets.length, count, samples / buckets.length * 0.05);
+        }
+    }
+
+    @Test
+    public void intsStayWithinBound() {
+        PositionalRandom random = new PositionalRandom(3);
+        int[] counts = new int[7];
+        for (int i = 0; i < 70000; i++) {
+            counts[random.nextInt(0, i, 0, 1, counts.length)]++;
+        }
+        for (int count : counts) {
+            assertEquals(10000, count, 500);
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.thevoxelbox.voxelsniper.util.ShapeMask.Shape;
+import org.junit.Test;
+
+public class ShapeMaskTest {
+
+    private static final double[] RADII = {0, 0.5, 1, 2.5, 3, 4.2, 7, 9.75};
+
+    @Test
+    public void sphereMatchesBruteForce() {
+        for (double radius : RADII) {
+            check(Shape.SPHERE, radius, false);
+            check(Shape.SPHERE, radius, true);
+        }
+    }
+
+    @Test
+    public void discMatchesBruteForce() {
+        for (double radius : RADII) {
+            check(Shape.DISC, radius, false);
+            check(Shape.DISC, radius, true);
+        }
+    }
+
+    @Test
+    public void masksAreShared() {
+        assertTrue(ShapeMask.sphere(5.5) == ShapeMask.sphere(5.5));
+        assertFalse(ShapeMask.sphere(5.5) == ShapeMask.get(Shape.SPHERE, 5.5, true));
+        assertFalse(ShapeMask.sphere(5.5) == ShapeMask.disc(5.5));
+    }
+
+    private static void check(Shape shape, double radius, boolean inclusive) {
+        ShapeMask mask = ShapeMask.get(shape, radius, inclusive);
+        int extent = (int) Math.ceil(radius) + 2;
+        int count = 0;
+        for (int y = -extent; y <= extent; y++) {
+            for (int z = -extent; z <= extent; z++) {
+                for (int x = -extent; x <= extent; x++) {
+                    double distance = x * x + y * y + z * z;
+                    boolean inside = inclusive ? distance <= radius * radius : distance < radius * radius;
+                    boolean expected = (shape == Shape.SPHERE || y == 0) && inside;
+                    assertEquals(shape + " " + radius + " at " + x + " " + y + " " + z, expected, mask.contains(x, y, z));
+                    if (expected) {
+                        count++;
+                    }
+                }
+            }
+        }
+        assertEquals(count, mask.getCount());
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of VoxelSniper, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) The VoxelBox <http://thevoxelbox.com>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.thevoxelbox.voxelsniper.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class SpansTest {
+
+    private static final double[] RADII = {0, 0.5, 1, 1.5, 2.5, 3, 4.2, 7, 9.75, 16};
+
+    @Test
+    public void sphereMatchesBruteForce() {
+        for (double radius : RADII) {
+            double limit = radius * radius;
+            check("sphere " + radius, (consumer) -> Spans.sphere(radius, consumer), (x, y, z) -> x * x + y * y + z * z < limit, radius);
+        }
+    }
+
+    @Test
+    public void inclusiveSphereMatchesBruteForce() {
+        for (double radius : RADII) {
+            double limit = radius * radius;
+            check("inclusive sphere " + radius, (consumer) -> Spans.sphere(radius, true, consumer), (x, y, z) -> x * x + y * y + z * z <= limit,
+                    radius);
+        }
+    }
+
+    @Test
+    public void ellipsoidMatchesBruteForce() {
+        double[][] radii = {{3, 5, 2.5}, {0.5, 4, 4}, {7.3, 1, 2}};
+        for (double[] r : radii) {
+            check("ellipsoid " + r[0] + " " + r[1] + " " + r[2], (consumer) -> Spans.ellipsoid(r[0], r[1], r[2], consumer),
+                    (x, y, z) -> (double) (x * x) / (r[0] * r[0]) + (double) (y * y) / (r[1] * r[1]) + (double) (z * z) / (r[2] * r[2]) < 1,
+                    Math.max(r[0], Math.max(r[1], r[2])));
+        }
+    }
+
+    @Test
+    public void discMatchesBruteForce() {
+        for (double radius : RADII) {
+            double limit = radius * radius;
+            check("disc " + radius, (consumer) -> Spans.disc(radius, consumer), (x, y, z) -> y == 0 && x * x + z * z < limit, radius);
+        }
+    }
+
+    @Test
+    public void inclusiveDiscMatchesBruteForce() {
+        for (double radius : RADII) {
+            double limit = radius * radius;
+            check("inclusive disc " + radius, (consumer) -> Spans.disc(radius, true, consumer), (x, y, z) -> y == 0 && x * x + z * z <= limit,
+                    radius);
+        }
+    }
+
+    @Test
+    public void ringMatchesBruteForce() {
+        double[][] radii = {{5, 2}, {8.5, 8}, {3, 0}, {4, 4}, {10, 9.5}};
+        for (double[] r : radii) {
+            double outer = r[0] * r[0];
+            double inner = r[1] * r[1];
+            check("ring " + r[0] + " " + r[1], (consumer) -> Spans.ring(r[0], r[1], consumer),
+                    (x, y, z) -> y == 0 && x * x + z * z < outer && x * x + z * z >= inner, r[0]);
+        }
+    }
+
+    @Test
+    public void ellipseMatchesBruteForce() {
+        double[][] radii = {{3, 5}, {0.5, 4}, {9.2, 2.1}};
+        for (double[] r : radii) {
+            check("ellipse " + r[0] + " " + r[1], (consumer) -> Spans.ellipse(r[0], r[1], consumer),
+                    (x, y, z) -> y == 0 && (double) (x * x) / (r[0] * r[0]) + (double) (z * z) / (r[1] * r[1]) < 1, Math.max(r[0], r[1]));
+        }
+    }
+
+    /**
+     * Checks that the spans of a shape cover exactly the offsets inside of it
+     * without covering any offset twice.
+     */
+    private static void check(String name, Shape shape, Inside inside, double extent) {
+        Set<Long> covered = new HashSet<>();
+        shape.rasterize((y, z, minX, maxX) -> {
+            assertTrue(name + " has an empty span", minX <= maxX);
+            for (int x = minX; x <= maxX; x++) {
+                assertTrue(name + " covers " + x + " " + y + " " + z + " twice", covered.add(LongHashSet.pack(x, y, z)));
+            }
+        });
+        int bound = (int) Math.ceil(extent) + 2;
+        int count = 0;
+        for (int y = -bound; y <= bound; y++) {
+            for (int z = -bound; z <= bound; z++) {
+                for (int x = -bound; x <= bound; x++) {
+                    boolean expected = inside.test(x, y, z);
+                    assertEquals(name + " at " + x + " " + y + " " + z, expected, covered.contains(LongHashSet.pack(x, y, z)));
+                    if (expected) {
+                        count++;
+                    }
+                }
+            }
+        }
+        assertEquals(name, count, covered.size());
+    }
+
+    private interface Shape {
+
+        void rasterize(Spans.SpanConsumer consumer);
+
+    }
+
+    private interface Inside {
+
+        boolean test(int x, int y, int z);
+
+    }
+
+}